@@ -0,0 +1,264 @@
+package convexPolygonCollisions;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * This class is a group of bodies sent between the shards of a
+ * ShardedWorld: the bodies which move to another shard, and the
+ * ghost copies of the bodies near the boundaries
+ * Each body has the id given by the world, its velocities, its inverse
+ * mass and its shape, which is kept in a PolygonBuffer
+ * The batch can be written into a ByteBuffer and read back, so it
+ * can be sent to a shard which runs in another process
+ *
+ * @class BodyBatch
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class BodyBatch {
+
+    /**
+     * The number of bytes read from a stream at once
+     */
+    private static final int READ_CHUNK = 1 << 16;
+
+    /**
+     * The shapes, positions and angles of the bodies
+     */
+    private final PolygonBuffer shapes = new PolygonBuffer();
+
+    /**
+     * The id of each body in the world
+     */
+    private int[] id = new int[16];
+
+    /**
+     * The linear velocity of each body
+     */
+    private float[] velocityX = new float[16], velocityY = new float[16];
+
+    /**
+     * The angular velocity of each body
+     */
+    private float[] angularVelocity = new float[16];
+
+    /**
+     * The inverse mass of each body
+     */
+    private float[] inverseMass = new float[16];
+
+    /**
+     * This method makes sure there is space for more bodies
+     * @param numBodies the number of bodies
+     */
+    private void ensureCapacity(int numBodies) {
+        if ( numBodies > id.length ) {
+            int capacity = Math.max(numBodies, id.length * 2);
+            id = Arrays.copyOf(id, capacity);
+            velocityX = Arrays.copyOf(velocityX, capacity);
+            velocityY = Arrays.copyOf(velocityY, capacity);
+            angularVelocity = Arrays.copyOf(angularVelocity, capacity);
+            inverseMass = Arrays.copyOf(inverseMass, capacity);
+        }
+    }
+
+    /**
+     * This method adds a body
+     * @param id the id of the body in the world
+     * @param polygon the polygon, its model is copied with the scale applied
+     * @param velocityX the x coordinate of the linear velocity
+     * @param velocityY the y coordinate of the linear velocity
+     * @param angularVelocity the angular velocity
+     * @param inverseMass the inverse mass
+     */
+    public void add(int id, Polygon polygon, float velocityX, float velocityY, float angularVelocity, float inverseMass) {
+        int body = shapes.add(polygon);
+        ensureCapacity(body + 1);
+        this.id[body] = id;
+        this.velocityX[body] = velocityX;
+        this.velocityY[body] = velocityY;
+        this.angularVelocity[body] = angularVelocity;
+        this.inverseMass[body] = inverseMass;
+    }
+
+    /**
+     * This method adds all the bodies of another batch
+     * @param other the other batch
+     */
+    public void addAll(BodyBatch other) {
+        for ( int i = 0; i < other.size(); i++ ) {
+            int count = other.shapes.getVertexCount(i);
+            int body = shapes.add(other.shapes.getPositionX(i), other.shapes.getPositionY(i), other.shapes.getAngle(i), count);
+            System.arraycopy(other.shapes.getModelX(), other.shapes.getVertexStart(i), shapes.getModelX(), shapes.getVertexStart(body), count);
+            System.arraycopy(other.shapes.getModelY(), other.shapes.getVertexStart(i), shapes.getModelY(), shapes.getVertexStart(body), count);
+            ensureCapacity(body + 1);
+            id[body] = other.id[i];
+            velocityX[body] = other.velocityX[i];
+            velocityY[body] = other.velocityY[i];
+            angularVelocity[body] = other.angularVelocity[i];
+            inverseMass[body] = other.inverseMass[i];
+        }
+    }
+
+    /**
+     * This method builds a new polygon with the shape of a body
+     * @param body the index of the body in the batch
+     * @return a new updated polygon
+     */
+    public Polygon toPolygon(int body) {
+        Polygon polygon = shapes.toPolygon(body);
+        polygon.update();
+        return polygon;
+    }
+
+    /**
+     * This method moves a polygon with the same shape as a body
+     * to the position and angle of the body
+     * @param body the index of the body in the batch
+     * @param polygon the polygon, updated
+     */
+    public void moveTo(int body, Polygon polygon) {
+        polygon.getPosition().setX(shapes.getPositionX(body));
+        polygon.getPosition().setY(shapes.getPositionY(body));
+        polygon.setAngle(shapes.getAngle(body));
+        polygon.update();
+    }
+
+    /**
+     * This method removes all the bodies
+     */
+    public void clear() {
+        shapes.clear();
+    }
+
+    /**
+     * This method returns the number of bytes written by writeTo
+     * @return the size of the batch, in bytes
+     */
+    public int byteSize() {
+        return 2 * Integer.BYTES + 9 * Float.BYTES * size() + 2 * Float.BYTES * shapes.getVertexSize();
+    }
+
+    /**
+     * This method writes the batch
+     * The byte order is the order of the buffer
+     * @param out the buffer, with byteSize() bytes remaining at least
+     */
+    public void writeTo(ByteBuffer out) {
+        int n = size();
+        out.putInt(n);
+        out.putInt(shapes.getVertexSize());
+        out.asIntBuffer().put(id, 0, n);
+        out.position(out.position() + n * Integer.BYTES);
+        for ( float[] values : new float[][] {velocityX, velocityY, angularVelocity, inverseMass} ) {
+            out.asFloatBuffer().put(values, 0, n);
+            out.position(out.position() + n * Float.BYTES);
+        }
+        shapes.writeArrays(out);
+    }
+
+    /**
+     * This method replaces the bodies by the ones written by writeTo
+     * @param in the buffer, at the start of the batch
+     * @throws IllegalArgumentException if the batch is corrupted or doesn't fit in the buffer
+     */
+    public void readFrom(ByteBuffer in) {
+        int n = in.getInt();
+        int numVertices = in.getInt();
+        if ( n < 0 || numVertices < 0 ) {
+            throw new IllegalArgumentException("The batch has " + n + " bodies and " + numVertices + " vertices");
+        }
+        long bytes = 9L * Float.BYTES * n + 2L * Float.BYTES * numVertices;
+        if ( bytes > in.remaining() ) {
+            throw new IllegalArgumentException("The batch needs " + bytes + " bytes, only " + in.remaining() + " are left");
+        }
+        ensureCapacity(n);
+        in.asIntBuffer().get(id, 0, n);
+        in.position(in.position() + n * Integer.BYTES);
+        for ( float[] values : new float[][] {velocityX, velocityY, angularVelocity, inverseMass} ) {
+            in.asFloatBuffer().get(values, 0, n);
+            in.position(in.position() + n * Float.BYTES);
+        }
+        shapes.readArrays(in, n, numVertices);
+    }
+
+    /**
+     * This method writes the batch in a stream, after its size in bytes
+     * @param out the stream
+     * @throws IOException if the stream fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(byteSize()).order(ByteOrder.LITTLE_ENDIAN);
+        writeTo(buffer);
+        out.writeInt(buffer.capacity());
+        out.write(buffer.array());
+    }
+
+    /**
+     * This method replaces the bodies by the ones written in a stream
+     * @param in the stream
+     * @throws IOException if the stream fails or the batch is corrupted
+     */
+    public void readFrom(DataInput in) throws IOException {
+        int length = in.readInt();
+        if ( length < 2 * Integer.BYTES ) {
+            throw new IOException("The batch is corrupted, its size is " + length + " bytes");
+        }
+        // The buffer grows with the bytes received, so a wrong size can't take all the memory
+        byte[] bytes = new byte[Math.min(length, READ_CHUNK)];
+        int read = 0;
+        while ( read < length ) {
+            if ( read == bytes.length ) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+            }
+            int chunk = Math.min(bytes.length - read, READ_CHUNK);
+            in.readFully(bytes, read, chunk);
+            read += chunk;
+        }
+        try {
+            readFrom(ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN));
+        } catch ( IllegalArgumentException | IndexOutOfBoundsException | BufferUnderflowException e ) {
+            throw new IOException("The batch is corrupted", e);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public int size() {
+        return shapes.size();
+    }
+
+    public int getId(int body) {
+        return id[body];
+    }
+
+    public float getPositionX(int body) {
+        return shapes.getPositionX(body);
+    }
+
+    public float getPositionY(int body) {
+        return shapes.getPositionY(body);
+    }
+
+    public float getVelocityX(int body) {
+        return velocityX[body];
+    }
+
+    public float getVelocityY(int body) {
+        return velocityY[body];
+    }
+
+    public float getAngularVelocity(int body) {
+        return angularVelocity[body];
+    }
+
+    public float getInverseMass(int body) {
+        return inverseMass[body];
+    }
+}
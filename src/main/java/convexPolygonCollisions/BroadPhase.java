@@ -0,0 +1,40 @@
+package convexPolygonCollisions;
+
+import java.util.List;
+
+/**
+ * This interface represents a broad-phase
+ * A broad-phase finds cheaply the pairs of polygons which can be
+ * overlapping, so only those pairs go to the SAT methods
+ * The polygons must be updated before finding the pairs,
+ * because their bounding boxes are used
+ *
+ * @class BroadPhase
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public interface BroadPhase {
+
+    /**
+     * This method finds the candidate pairs of polygons
+     * whose bounding boxes overlap
+     * @param polygons the polygons, the pairs are indices of this list
+     * @param pairs the list where the pairs are added, it is cleared first
+     */
+    void findPairs(List<Polygon> polygons, PairList pairs);
+
+    /**
+     * This method returns the number of candidate pairs
+     * found in the last call to findPairs
+     * @return the number of candidate pairs
+     */
+    int getCandidatePairs();
+
+    /**
+     * This method returns the number of pairs of bounding boxes
+     * tested in the last call to findPairs
+     * @return the number of pairs tested
+     */
+    int getTestedPairs();
+
+}
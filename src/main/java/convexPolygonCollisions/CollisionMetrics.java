@@ -0,0 +1,261 @@
+package convexPolygonCollisions;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class collects the timings of the phases of the collision
+ * pipeline and the counters of its work, tick by tick
+ * The values are LongAdders, which are striped between the threads,
+ * so the batches of the parallel narrow-phase can add to them
+ * without fighting over one memory location
+ * At the end of each tick the values are read and reset,
+ * and they are sent to the listeners, so they can be exported
+ * The instance DISABLED does nothing, each method only checks a
+ * final flag, so the pipeline can always call it
+ *
+ * @class CollisionMetrics
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class CollisionMetrics {
+
+    /**
+     * The phases of the pipeline which are timed
+     */
+    public enum Phase {
+        TRANSFORM,
+        BROAD_PHASE,
+        NARROW_PHASE,
+        RESOLUTION
+    }
+
+    /**
+     * The work which is counted
+     */
+    public enum Counter {
+        /**
+         * The candidate pairs tested by the narrow-phase
+         */
+        PAIRS_TESTED,
+        /**
+         * The axes on which the SAT projected the polygons,
+         * the DIAGS and the solver don't count them
+         */
+        AXES_PROJECTED,
+        /**
+         * The pairs rejected before the whole SAT: by the early out filter,
+         * by the cached separating axis, or by an axis before the last one
+         */
+        EARLY_EXITS,
+        /**
+         * The overlapping pairs found
+         */
+        OVERLAPS
+    }
+
+    /**
+     * This interface receives the values of each tick
+     */
+    public interface Listener {
+
+        /**
+         * This method is called at the end of each tick
+         * The arrays are reused, they are only valid during the call
+         * @param tick the number of the tick
+         * @param phaseNanos the nanoseconds of each phase, indexed by Phase.ordinal()
+         * @param counters the value of each counter, indexed by Counter.ordinal()
+         */
+        void onTick(long tick, long[] phaseNanos, long[] counters);
+
+    }
+
+    /**
+     * The phases and the counters, cached because values() makes a copy
+     */
+    private static final Phase[] PHASES = Phase.values();
+    private static final Counter[] COUNTERS = Counter.values();
+
+    /**
+     * The instance which does nothing
+     */
+    public static final CollisionMetrics DISABLED = new CollisionMetrics(false);
+
+    /**
+     * The flag to indicate the metrics are collected
+     */
+    private final boolean enabled;
+
+    /**
+     * The nanoseconds of each phase in the current tick
+     */
+    private final LongAdder[] phaseNanos = new LongAdder[PHASES.length];
+
+    /**
+     * The value of each counter in the current tick
+     */
+    private final LongAdder[] counters = new LongAdder[COUNTERS.length];
+
+    /**
+     * The values of the last tick
+     */
+    private final long[] lastPhaseNanos = new long[PHASES.length];
+    private final long[] lastCounters = new long[COUNTERS.length];
+
+    /**
+     * The sum of the values of all the ticks
+     */
+    private final long[] totalPhaseNanos = new long[PHASES.length];
+    private final long[] totalCounters = new long[COUNTERS.length];
+
+    /**
+     * The listeners
+     */
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The number of ticks ended
+     */
+    private long tick = 0;
+
+    /**
+     * Constructor
+     * @param enabled if the metrics are collected
+     */
+    private CollisionMetrics(boolean enabled) {
+        this.enabled = enabled;
+        for ( int i = 0; i < phaseNanos.length; i++ ) {
+            phaseNanos[i] = new LongAdder();
+        }
+        for ( int i = 0; i < counters.length; i++ ) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Default constructor, the metrics are collected
+     */
+    public CollisionMetrics() {
+        this(true);
+    }
+
+    /**
+     * This method starts timing a phase
+     * @return the start time, to pass to stop
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * This method stops timing a phase and adds the time to it
+     * @param phase the phase
+     * @param start the time returned by start
+     */
+    public void stop(Phase phase, long start) {
+        if ( enabled ) {
+            phaseNanos[phase.ordinal()].add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * This method adds a value to a counter
+     * @param counter the counter
+     * @param value the value
+     */
+    public void add(Counter counter, long value) {
+        if ( enabled ) {
+            counters[counter.ordinal()].add(value);
+        }
+    }
+
+    /**
+     * This method adds one to a counter
+     * @param counter the counter
+     */
+    public void increment(Counter counter) {
+        if ( enabled ) {
+            counters[counter.ordinal()].increment();
+        }
+    }
+
+    /**
+     * This method ends the current tick: the values are
+     * read and reset, and sent to the listeners
+     * It must not be called while other threads add values
+     */
+    public void endTick() {
+        if ( !enabled ) {
+            return;
+        }
+        for ( int i = 0; i < phaseNanos.length; i++ ) {
+            lastPhaseNanos[i] = phaseNanos[i].sumThenReset();
+            totalPhaseNanos[i] += lastPhaseNanos[i];
+        }
+        for ( int i = 0; i < counters.length; i++ ) {
+            lastCounters[i] = counters[i].sumThenReset();
+            totalCounters[i] += lastCounters[i];
+        }
+        for ( Listener listener : listeners ) {
+            listener.onTick(tick, lastPhaseNanos, lastCounters);
+        }
+        tick++;
+    }
+
+    /**
+     * This method adds a listener
+     * @param listener the listener
+     */
+    public void addListener(Listener listener) {
+        if ( enabled ) {
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * This method removes a listener
+     * @param listener the listener
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder("tick " + tick + ":");
+        for ( Phase phase : PHASES ) {
+            str.append(' ').append(phase).append(' ').append(lastPhaseNanos[phase.ordinal()]).append(" ns");
+        }
+        for ( Counter counter : COUNTERS ) {
+            str.append(' ').append(counter).append(' ').append(lastCounters[counter.ordinal()]);
+        }
+        return str.toString();
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public long getLastNanos(Phase phase) {
+        return lastPhaseNanos[phase.ordinal()];
+    }
+
+    public long getLast(Counter counter) {
+        return lastCounters[counter.ordinal()];
+    }
+
+    public long getTotalNanos(Phase phase) {
+        return totalPhaseNanos[phase.ordinal()];
+    }
+
+    public long getTotal(Counter counter) {
+        return totalCounters[counter.ordinal()];
+    }
+}
@@ -0,0 +1,443 @@
+package convexPolygonCollisions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is a world of polygons which runs without a window
+ * It owns the bodies and their velocities, and each step it moves
+ * them, updates them, finds the candidate pairs with the broad-phase,
+ * and tests them with the collision method of the mode
+ * The steps have a fixed duration: advance accumulates the elapsed
+ * time and runs as many steps as fit in it, so the results don't
+ * depend on the frame rate of whoever drives the world
+ * Drawing the bodies is the job of the render package
+ *
+ * @class CollisionWorld
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class CollisionWorld {
+
+    /**
+     * The collision methods which can be used
+     */
+    public enum Mode {
+        SAT,
+        SAT_STATIC,
+        DIAGS,
+        DIAGS_STATIC,
+        SOLVER
+    }
+
+    /**
+     * The bodies
+     */
+    private final ArrayList<Polygon> bodies = new ArrayList<>();
+
+    /**
+     * The linear velocity of each body
+     */
+    private float[] velocityX = new float[16], velocityY = new float[16];
+
+    /**
+     * The angular velocity of each body
+     */
+    private float[] angularVelocity = new float[16];
+
+    /**
+     * The inverse mass of each body, 0 for the bodies which can't be pushed
+     */
+    private float[] inverseMass = new float[16];
+
+    /**
+     * The solver of the mode SOLVER
+     */
+    private final StaticSolver solver = new StaticSolver();
+
+    /**
+     * The broad-phase which finds the pairs of bodies
+     * that can be overlapping
+     */
+    private BroadPhase broadPhase;
+
+    /**
+     * The candidate pairs found by the broad-phase in the last step
+     */
+    private final PairList pairs = new PairList();
+
+    /**
+     * The overlapping pairs found in the last step
+     */
+    private final PairList contactPairs = new PairList();
+
+    /**
+     * The collision method
+     */
+    private Mode mode = Mode.SAT;
+
+    /**
+     * The duration of a step, in seconds
+     */
+    private final float timeStep;
+
+    /**
+     * The maximum number of steps of a call to advance,
+     * so a slow frame doesn't make the next ones slower
+     */
+    private int maxSteps = 8;
+
+    /**
+     * The elapsed time which hasn't been simulated yet
+     */
+    private float accumulator = 0;
+
+    /**
+     * The number of steps run
+     */
+    private long stepCount = 0;
+
+    /**
+     * The number of overlapping pairs found in the last step
+     */
+    private int contacts = 0;
+
+    /**
+     * The number of axes projected by the SAT in the current step
+     */
+    private long axesProjected = 0;
+
+    /**
+     * The number of pairs separated by the SAT before its last axis in the current step
+     */
+    private long earlyExits = 0;
+
+    /**
+     * The result of the SAT of a pair, reused so the axes
+     * of each pair are counted without allocations
+     */
+    private final SATResult satResult = new SATResult();
+
+    /**
+     * The metrics of the steps, one tick per step
+     */
+    private CollisionMetrics metrics = CollisionMetrics.DISABLED;
+
+    /**
+     * Constructor
+     * @param broadPhase the broad-phase
+     * @param timeStep the duration of a step, in seconds
+     */
+    public CollisionWorld(BroadPhase broadPhase, float timeStep) {
+        this.broadPhase = broadPhase;
+        this.timeStep = timeStep;
+    }
+
+    /**
+     * Default constructor, it uses sort and sweep
+     * and 60 steps per second
+     */
+    public CollisionWorld() {
+        this(new SweepAndPrune(), 1.0f / 60.0f);
+    }
+
+    /**
+     * This method adds a body to the world
+     * @param polygon the body
+     * @param velocityX the x coordinate of the linear velocity
+     * @param velocityY the y coordinate of the linear velocity
+     * @param angularVelocity the angular velocity
+     * @return the index of the body
+     */
+    public int addBody(Polygon polygon, float velocityX, float velocityY, float angularVelocity) {
+        int index = bodies.size();
+        if ( index == this.velocityX.length ) {
+            int capacity = index * 2;
+            this.velocityX = Arrays.copyOf(this.velocityX, capacity);
+            this.velocityY = Arrays.copyOf(this.velocityY, capacity);
+            this.angularVelocity = Arrays.copyOf(this.angularVelocity, capacity);
+            this.inverseMass = Arrays.copyOf(this.inverseMass, capacity);
+        }
+        bodies.add(polygon);
+        this.velocityX[index] = velocityX;
+        this.velocityY[index] = velocityY;
+        this.angularVelocity[index] = angularVelocity;
+        this.inverseMass[index] = 1;
+        polygon.update();
+        return index;
+    }
+
+    /**
+     * This method adds a body at rest to the world
+     * @param polygon the body
+     * @return the index of the body
+     */
+    public int addBody(Polygon polygon) {
+        return addBody(polygon, 0, 0, 0);
+    }
+
+    /**
+     * This method removes a body
+     * The last body takes the index of the removed one, so the other
+     * indices don't change and the broad-phase keeps its order
+     * @param index the index of the body
+     * @return the previous index of the body which has taken its place,
+     *         or -1 if the removed body was the last one
+     */
+    public int removeBody(int index) {
+        int last = bodies.size() - 1;
+        Polygon moved = bodies.remove(last);
+        if ( index == last ) {
+            return -1;
+        }
+        bodies.set(index, moved);
+        velocityX[index] = velocityX[last];
+        velocityY[index] = velocityY[last];
+        angularVelocity[index] = angularVelocity[last];
+        inverseMass[index] = inverseMass[last];
+        return last;
+    }
+
+    /**
+     * This method removes all the bodies
+     */
+    public void clear() {
+        bodies.clear();
+        pairs.clear();
+        contactPairs.clear();
+        accumulator = 0;
+        contacts = 0;
+    }
+
+    /**
+     * This method runs the steps which fit in the elapsed time
+     * The time which is left is kept for the next call
+     * @param elapsedTime the elapsed time, in seconds
+     * @return the number of steps run
+     */
+    public int advance(float elapsedTime) {
+        accumulator += elapsedTime;
+        int steps = 0;
+        while ( accumulator >= timeStep && steps < maxSteps ) {
+            step();
+            accumulator -= timeStep;
+            steps++;
+        }
+        if ( steps == maxSteps ) {
+            accumulator = Float.min(accumulator, timeStep);
+        }
+        return steps;
+    }
+
+    /**
+     * This method runs one step: it moves the bodies by their velocities,
+     * updates them, finds the candidate pairs and tests them
+     * In the mode SOLVER the overlaps are resolved by the solver,
+     * moving both bodies of each pair by their inverse masses
+     * The time of the static methods is counted in the narrow-phase,
+     * as they test and resolve each pair at once
+     */
+    public void step() {
+        long start = metrics.start();
+        integrate();
+        Polygon.updateAll(bodies);
+        for ( Polygon body : bodies ) {
+            body.setOverlap(false);
+        }
+        metrics.stop(CollisionMetrics.Phase.TRANSFORM, start);
+
+        start = metrics.start();
+        broadPhase.findPairs(bodies, pairs);
+        pairs.sort();
+        metrics.stop(CollisionMetrics.Phase.BROAD_PHASE, start);
+
+        start = metrics.start();
+        contacts = 0;
+        axesProjected = 0;
+        earlyExits = 0;
+        contactPairs.clear();
+        if ( mode == Mode.SOLVER ) {
+            contacts = solver.solve(bodies, pairs, inverseMass, contactPairs);
+            metrics.stop(CollisionMetrics.Phase.RESOLUTION, start);
+        } else {
+            for ( int i = 0; i < pairs.size(); i++ ) {
+                Polygon r1 = bodies.get(pairs.getFirst(i));
+                Polygon r2 = bodies.get(pairs.getSecond(i));
+                if ( collide(r1, r2) ) {
+                    r1.setOverlap(true);
+                    r2.setOverlap(true);
+                    contactPairs.add(pairs.getFirst(i), pairs.getSecond(i));
+                    contacts++;
+                }
+            }
+            metrics.stop(CollisionMetrics.Phase.NARROW_PHASE, start);
+        }
+        metrics.add(CollisionMetrics.Counter.PAIRS_TESTED, pairs.size());
+        metrics.add(CollisionMetrics.Counter.OVERLAPS, contacts);
+        metrics.add(CollisionMetrics.Counter.AXES_PROJECTED, axesProjected);
+        metrics.add(CollisionMetrics.Counter.EARLY_EXITS, earlyExits);
+        metrics.endTick();
+        stepCount++;
+    }
+
+    /**
+     * This method moves the bodies by their velocities during a step
+     */
+    private void integrate() {
+        for ( int i = 0; i < bodies.size(); i++ ) {
+            if ( velocityX[i] == 0 && velocityY[i] == 0 && angularVelocity[i] == 0 ) {
+                continue;
+            }
+            Polygon body = bodies.get(i);
+            body.getPosition().addToX(velocityX[i] * timeStep);
+            body.getPosition().addToY(velocityY[i] * timeStep);
+            if ( angularVelocity[i] != 0 ) {
+                body.setAngle(body.getAngle() + angularVelocity[i] * timeStep);
+            }
+        }
+    }
+
+    /**
+     * This method tests a pair with the collision method of the mode
+     * The static modes resolve each pair in the same pass which tests it:
+     * the SAT moves r1 by the depth of the overlap, like shapeOverlapStaticSAT,
+     * and the static DIAGS tells if it has moved r1
+     * The SAT modes count the axes projected and the early exits,
+     * which are added to the metrics once per step
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return if there is a overlap between the two polygons
+     */
+    private boolean collide(Polygon r1, Polygon r2) {
+        switch ( mode ) {
+            case SAT: default:
+                return testSAT(r1, r2);
+            case SAT_STATIC:
+                if ( !testSAT(r1, r2) ) {
+                    return false;
+                }
+                ConvexPolygonCollisions.moveApart(r1, r2, satResult.getDepth());
+                return true;
+            case DIAGS:
+                return ConvexPolygonCollisions.shapeOverlapDIAGS(r1, r2);
+            case DIAGS_STATIC:
+                return ConvexPolygonCollisions.shapeOverlapStaticDIAGS(r1, r2);
+        }
+    }
+
+    /**
+     * This method tests a pair with the SAT and counts
+     * the axes projected and the early exit
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return if there is a overlap between the two polygons
+     */
+    private boolean testSAT(Polygon r1, Polygon r2) {
+        boolean overlap = ConvexPolygonCollisions.shapeOverlapDepthSAT(r1, r2, satResult);
+        axesProjected += satResult.getAxesProjected();
+        if ( satResult.isEarlyExit() ) {
+            earlyExits++;
+        }
+        return overlap;
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public List<Polygon> getBodies() {
+        return bodies;
+    }
+
+    public Polygon getBody(int index) {
+        return bodies.get(index);
+    }
+
+    public int size() {
+        return bodies.size();
+    }
+
+    public float getVelocityX(int index) {
+        return velocityX[index];
+    }
+
+    public float getVelocityY(int index) {
+        return velocityY[index];
+    }
+
+    public float getAngularVelocity(int index) {
+        return angularVelocity[index];
+    }
+
+    public float getInverseMass(int index) {
+        return inverseMass[index];
+    }
+
+    public StaticSolver getSolver() {
+        return solver;
+    }
+
+    public CollisionMetrics getMetrics() {
+        return metrics;
+    }
+
+    public BroadPhase getBroadPhase() {
+        return broadPhase;
+    }
+
+    public PairList getPairs() {
+        return pairs;
+    }
+
+    public PairList getContactPairs() {
+        return contactPairs;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public float getTimeStep() {
+        return timeStep;
+    }
+
+    public int getMaxSteps() {
+        return maxSteps;
+    }
+
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    public int getContacts() {
+        return contacts;
+    }
+
+    public void setVelocity(int index, float velocityX, float velocityY) {
+        this.velocityX[index] = velocityX;
+        this.velocityY[index] = velocityY;
+    }
+
+    public void setAngularVelocity(int index, float angularVelocity) {
+        this.angularVelocity[index] = angularVelocity;
+    }
+
+    public void setInverseMass(int index, float inverseMass) {
+        this.inverseMass[index] = inverseMass;
+    }
+
+    public void setMetrics(CollisionMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setBroadPhase(BroadPhase broadPhase) {
+        this.broadPhase = broadPhase;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public void setMaxSteps(int maxSteps) {
+        this.maxSteps = Math.max(maxSteps, 1);
+    }
+}
@@ -0,0 +1,125 @@
+package convexPolygonCollisions;
+
+/**
+ * This class holds the result of a collision between two polygons:
+ * the normal, the penetration depth and up to two contact points
+ * The normal points from the first polygon to the second one,
+ * so moving the second polygon by normal * depth separates them
+ * When the polygons don't overlap, the normal is the separating axis
+ * and the depth is negative, it is the gap between the polygons
+ * An instance is meant to be reused by the caller, the
+ * collision methods overwrite all its values
+ *
+ * @class ContactManifold
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class ContactManifold {
+
+    /**
+     * The maximum number of contact points
+     */
+    public static final int MAX_POINTS = 2;
+
+    /**
+     * The flag to indicate the polygons overlap
+     */
+    private boolean overlap;
+
+    /**
+     * The normal, from the first polygon to the second one
+     */
+    private float normalX, normalY;
+
+    /**
+     * The penetration depth along the normal
+     */
+    private float depth;
+
+    /**
+     * The number of contact points
+     */
+    private int pointCount;
+
+    /**
+     * The coordinates of the contact points
+     */
+    private final float[] pointX = new float[MAX_POINTS], pointY = new float[MAX_POINTS];
+
+    /**
+     * The penetration of each contact point
+     */
+    private final float[] pointDepth = new float[MAX_POINTS];
+
+    /**
+     * This method sets the values of the manifold, without contact points
+     * @param overlap if the polygons overlap
+     * @param normalX the x coordinate of the normal
+     * @param normalY the y coordinate of the normal
+     * @param depth the penetration depth
+     */
+    void set(boolean overlap, float normalX, float normalY, float depth) {
+        this.overlap = overlap;
+        this.normalX = normalX;
+        this.normalY = normalY;
+        this.depth = depth;
+        this.pointCount = 0;
+    }
+
+    /**
+     * This method adds a contact point
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param penetration the penetration of the point
+     */
+    void addPoint(float x, float y, float penetration) {
+        pointX[pointCount] = x;
+        pointY[pointCount] = y;
+        pointDepth[pointCount] = penetration;
+        pointCount++;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder strPoints = new StringBuilder();
+        for ( int i = 0; i < pointCount; i++ ) {
+            strPoints.append(" (").append(pointX[i]).append(", ").append(pointY[i]).append(") depth ").append(pointDepth[i]).append(" |");
+        }
+        return "is overlap? " + (overlap ? "true" : "false") + " normal: (" + normalX + ", " + normalY + ") depth: " + depth +
+                " points (" + pointCount + "):" + strPoints.toString();
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public boolean isOverlap() {
+        return overlap;
+    }
+
+    public float getNormalX() {
+        return normalX;
+    }
+
+    public float getNormalY() {
+        return normalY;
+    }
+
+    public float getDepth() {
+        return depth;
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    public float getPointX(int i) {
+        return pointX[i];
+    }
+
+    public float getPointY(int i) {
+        return pointY[i];
+    }
+
+    public float getPointDepth(int i) {
+        return pointDepth[i];
+    }
+}
@@ -22,30 +22,33 @@ public class ConvexPolygonCollisions {
      * @return if there is a overlap between the two polygons
      */
     public static boolean shapeOverlapSAT(Polygon r1, Polygon r2) {
-        Polygon poly1 = new Polygon(r1.getP(), r1.getO(), r1.getPosition(), r1.getAngle(), r1.isOverlap());
-        Polygon poly2 = new Polygon(r2.getP(), r2.getO(), r2.getPosition(), r2.getAngle(), r2.isOverlap());
+        Vec2df[] poly1 = r1.getP();
+        Vec2df[] poly2 = r2.getP();
 
         for ( int shape = 0; shape < 2; shape++ ) {
 
             if ( shape == 1 ) {
-                poly1 = new Polygon(r2.getP(), r2.getO(), r2.getPosition(), r2.getAngle(), r2.isOverlap());
-                poly2 = new Polygon(r1.getP(), r1.getO(), r1.getPosition(), r1.getAngle(), r1.isOverlap());
+                poly1 = r2.getP();
+                poly2 = r1.getP();
             }
 
-            for ( int a = 0; a < poly1.getP().length; a++ ) {
-                int b = (a + 1) % poly1.getP().length;
+            for ( int a = 0; a < poly1.length; a++ ) {
+                int b = (a + 1) % poly1.length;
                 Vec2df axisProjection = new Vec2df(
-                        -(poly1.getP()[b].getY() - poly1.getP()[a].getY()),
-                        (poly1.getP()[b].getX() - poly1.getP()[a].getX())
+                        -(poly1[b].getY() - poly1[a].getY()),
+                        (poly1[b].getX() - poly1[a].getX())
                 );
                 float d = axisProjection.mag();
+                if ( d == 0 ) {
+                    continue;
+                }
                 axisProjection.multiply(1 / d);
 
                 float minR1 = Float.MAX_VALUE;
                 float maxR1 = -Float.MAX_VALUE;
 
-                for ( int p = 0; p < poly1.getP().length; p++ ) {
-                    float q = (poly1.getP()[p].getX() * axisProjection.getX() + poly1.getP()[p].getY() * axisProjection.getY());
+                for ( int p = 0; p < poly1.length; p++ ) {
+                    float q = (poly1[p].getX() * axisProjection.getX() + poly1[p].getY() * axisProjection.getY());
                     minR1 = Float.min(minR1, q);
                     maxR1 = Float.max(maxR1, q);
                 }
@@ -53,8 +56,8 @@ public class ConvexPolygonCollisions {
                 float minR2 = Float.MAX_VALUE;
                 float maxR2 = -Float.MAX_VALUE;
 
-                for ( int p = 0; p < poly2.getP().length; p++ ) {
-                    float q = (poly2.getP()[p].getX() * axisProjection.getX() + poly2.getP()[p].getY() * axisProjection.getY());
+                for ( int p = 0; p < poly2.length; p++ ) {
+                    float q = (poly2[p].getX() * axisProjection.getX() + poly2[p].getY() * axisProjection.getY());
                     minR2 = Float.min(minR2, q);
                     maxR2 = Float.max(maxR2, q);
                 }
@@ -72,37 +75,42 @@ public class ConvexPolygonCollisions {
     /**
      * This method contains the algorithm "SAT"
      * This method does a displacement over r1 polygon
+     * If the positions of the polygons are the same,
+     * r1 is moved along the x axis
      * @param r1 the polygon 1
      * @param r2 the polygon 2
      * @return if there is a overlap between the two polygons
      */
     public static boolean shapeOverlapStaticSAT(Polygon r1, Polygon r2) {
-        Polygon poly1 = new Polygon(r1.getP(), r1.getO(), r1.getPosition(), r1.getAngle(), r1.isOverlap());
-        Polygon poly2 = new Polygon(r2.getP(), r2.getO(), r2.getPosition(), r2.getAngle(), r2.isOverlap());
+        Vec2df[] poly1 = r1.getP();
+        Vec2df[] poly2 = r2.getP();
 
         float overlap = Float.MAX_VALUE;
 
         for ( int shape = 0; shape < 2; shape++ ) {
 
             if ( shape == 1 ) {
-                poly1 = new Polygon(r2.getP(), r2.getO(), r2.getPosition(), r2.getAngle(), r2.isOverlap());
-                poly2 = new Polygon(r1.getP(), r1.getO(), r1.getPosition(), r1.getAngle(), r1.isOverlap());
+                poly1 = r2.getP();
+                poly2 = r1.getP();
             }
 
-            for ( int a = 0; a < poly1.getP().length; a++ ) {
-                int b = (a + 1) % poly1.getP().length;
+            for ( int a = 0; a < poly1.length; a++ ) {
+                int b = (a + 1) % poly1.length;
                 Vec2df axisProjection = new Vec2df(
-                        -(poly1.getP()[b].getY() - poly1.getP()[a].getY()),
-                        (poly1.getP()[b].getX() - poly1.getP()[a].getX())
+                        -(poly1[b].getY() - poly1[a].getY()),
+                        (poly1[b].getX() - poly1[a].getX())
                 );
                 float d = axisProjection.mag();
+                if ( d == 0 ) {
+                    continue;
+                }
                 axisProjection.multiply(1 / d);
 
                 float minR1 = Float.MAX_VALUE;
                 float maxR1 = -Float.MAX_VALUE;
 
-                for ( int p = 0; p < poly1.getP().length; p++ ) {
-                    float q = (poly1.getP()[p].getX() * axisProjection.getX() + poly1.getP()[p].getY() * axisProjection.getY());
+                for ( int p = 0; p < poly1.length; p++ ) {
+                    float q = (poly1[p].getX() * axisProjection.getX() + poly1[p].getY() * axisProjection.getY());
                     minR1 = Float.min(minR1, q);
                     maxR1 = Float.max(maxR1, q);
                 }
@@ -110,8 +118,8 @@ public class ConvexPolygonCollisions {
                 float minR2 = Float.MAX_VALUE;
                 float maxR2 = -Float.MAX_VALUE;
 
-                for ( int p = 0; p < poly2.getP().length; p++ ) {
-                    float q = (poly2.getP()[p].getX() * axisProjection.getX() + poly2.getP()[p].getY() * axisProjection.getY());
+                for ( int p = 0; p < poly2.length; p++ ) {
+                    float q = (poly2[p].getX() * axisProjection.getX() + poly2[p].getY() * axisProjection.getY());
                     minR2 = Float.min(minR2, q);
                     maxR2 = Float.max(maxR2, q);
                 }
@@ -129,10 +137,943 @@ public class ConvexPolygonCollisions {
 
         Vec2df d = new Vec2df(r2.getPosition().getX() - r1.getPosition().getX(), r2.getPosition().getY() - r1.getPosition().getY());
         float s = d.mag();
+        if ( s == 0 ) {
+            d.setX(1);
+            d.setY(0);
+            s = 1;
+        }
         r1.getPosition().addToX(- overlap * d.getX() / s);
         r1.getPosition().addToY(- overlap * d.getY() / s);
 
         return false;
     }
 
+    /**
+     * This method contains the algorithm "DIAGS"
+     * The diagonals of each polygon, from its position to each point,
+     * are tested against the edges of the other polygon
+     * This method doesn't make any allocation
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return if there is a overlap between the two polygons
+     */
+    public static boolean shapeOverlapDIAGS(Polygon r1, Polygon r2) {
+        Polygon poly1 = r1;
+        Polygon poly2 = r2;
+
+        for ( int shape = 0; shape < 2; shape++ ) {
+
+            if ( shape == 1 ) {
+                poly1 = r2;
+                poly2 = r1;
+            }
+
+            Vec2df[] p1 = poly1.getP();
+            Vec2df[] p2 = poly2.getP();
+            float lineR1sX = poly1.getPosition().getX();
+            float lineR1sY = poly1.getPosition().getY();
+
+            // Check diagonals of this polygon...
+            for ( int p = 0; p < p1.length; p++ ) {
+                float lineR1eX = p1[p].getX();
+                float lineR1eY = p1[p].getY();
+
+                // ...against edges of the other
+                for ( int q = 0; q < p2.length; q++ ) {
+                    Vec2df lineR2s = p2[q];
+                    Vec2df lineR2e = p2[(q + 1) % p2.length];
+
+                    // Standard "off the shelf" line segment intersection
+                    float h = (lineR2e.getX() - lineR2s.getX()) * (lineR1sY - lineR1eY) - (lineR1sX - lineR1eX) * (lineR2e.getY() - lineR2s.getY());
+                    float t1 = ((lineR2s.getY() - lineR2e.getY()) * (lineR1sX - lineR2s.getX()) + (lineR2e.getX() - lineR2s.getX()) * (lineR1sY - lineR2s.getY())) / h;
+                    float t2 = ((lineR1sY - lineR1eY) * (lineR1sX - lineR2s.getX()) + (lineR1eX - lineR1sX) * (lineR1sY - lineR2s.getY())) / h;
+
+                    if ( t1 >= 0.0f && t1 < 1.0f && t2 >= 0.0f && t2 < 1.0f ) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method contains the algorithm "DIAGS"
+     * This method does a displacement over r1 polygon: each diagonal
+     * which crosses an edge of the other polygon pushes r1 back by
+     * the part of the diagonal which is beyond the edge
+     * The first diagonal which crosses an edge is the same one found
+     * by shapeOverlapDIAGS, so r1 is moved if and only if it finds a overlap
+     * This method doesn't make any allocation
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return if r1 has been moved, that is if there was a overlap between the two polygons
+     */
+    public static boolean shapeOverlapStaticDIAGS(Polygon r1, Polygon r2) {
+        Polygon poly1 = r1;
+        Polygon poly2 = r2;
+        boolean moved = false;
+
+        for ( int shape = 0; shape < 2; shape++ ) {
+
+            if ( shape == 1 ) {
+                poly1 = r2;
+                poly2 = r1;
+            }
+
+            Vec2df[] p1 = poly1.getP();
+            Vec2df[] p2 = poly2.getP();
+
+            // Check diagonals of this polygon...
+            for ( int p = 0; p < p1.length; p++ ) {
+                float lineR1sX = poly1.getPosition().getX();
+                float lineR1sY = poly1.getPosition().getY();
+                float lineR1eX = p1[p].getX();
+                float lineR1eY = p1[p].getY();
+
+                float displacementX = 0;
+                float displacementY = 0;
+
+                // ...against edges of the other
+                for ( int q = 0; q < p2.length; q++ ) {
+                    Vec2df lineR2s = p2[q];
+                    Vec2df lineR2e = p2[(q + 1) % p2.length];
+
+                    // Standard "off the shelf" line segment intersection
+                    float h = (lineR2e.getX() - lineR2s.getX()) * (lineR1sY - lineR1eY) - (lineR1sX - lineR1eX) * (lineR2e.getY() - lineR2s.getY());
+                    float t1 = ((lineR2s.getY() - lineR2e.getY()) * (lineR1sX - lineR2s.getX()) + (lineR2e.getX() - lineR2s.getX()) * (lineR1sY - lineR2s.getY())) / h;
+                    float t2 = ((lineR1sY - lineR1eY) * (lineR1sX - lineR2s.getX()) + (lineR1eX - lineR1sX) * (lineR1sY - lineR2s.getY())) / h;
+
+                    if ( t1 >= 0.0f && t1 < 1.0f && t2 >= 0.0f && t2 < 1.0f ) {
+                        displacementX += (1.0f - t1) * (lineR1eX - lineR1sX);
+                        displacementY += (1.0f - t1) * (lineR1eY - lineR1sY);
+                        moved = true;
+                    }
+                }
+
+                r1.getPosition().addToX(displacementX * (shape == 0 ? -1 : +1));
+                r1.getPosition().addToY(displacementY * (shape == 0 ? -1 : +1));
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * This method contains the algorithm "SAT"
+     * It gives the same result as shapeOverlapSAT, but it reads
+     * the points straight from the polygons and keeps the axis
+     * in local variables, so it doesn't make any allocation
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return if there is a overlap between the two polygons
+     */
+    public static boolean shapeOverlapSATNoAlloc(Polygon r1, Polygon r2) {
+        return minOverlapOnAxes(r1.getP(), r2.getP(), Float.MAX_VALUE) >= 0 &&
+                minOverlapOnAxes(r2.getP(), r1.getP(), Float.MAX_VALUE) >= 0;
+    }
+
+    /**
+     * This method contains the algorithm "SAT"
+     * This method does a displacement over r1 polygon
+     * It gives the same result as shapeOverlapStaticSAT, but
+     * it doesn't make any allocation
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return if there is a overlap between the two polygons
+     */
+    public static boolean shapeOverlapStaticSATNoAlloc(Polygon r1, Polygon r2) {
+        float overlap = minOverlapOnAxes(r1.getP(), r2.getP(), Float.MAX_VALUE);
+        if ( overlap < 0 ) {
+            return false;
+        }
+        overlap = minOverlapOnAxes(r2.getP(), r1.getP(), overlap);
+        if ( overlap < 0 ) {
+            return false;
+        }
+
+        moveApart(r1, r2, overlap);
+        return false;
+    }
+
+    /**
+     * This method contains the algorithm "SAT"
+     * The axes are the normals of the edges cached by the polygons,
+     * so no square root is calculated, and the parallel edges are only
+     * tested once. The polygons must be updated before
+     * The result can differ from shapeOverlapSAT only when the polygons
+     * are touching, by the rounding of the rotated normals
+     * This method doesn't make any allocation
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return if there is a overlap between the two polygons
+     */
+    public static boolean shapeOverlapSATCached(Polygon r1, Polygon r2) {
+        return minOverlapOnNormals(r1, r2, Float.MAX_VALUE) >= 0 &&
+                minOverlapOnNormals(r2, r1, Float.MAX_VALUE) >= 0;
+    }
+
+    /**
+     * This method contains the algorithm "SAT"
+     * This method does a displacement over r1 polygon
+     * The axes are the normals of the edges cached by the polygons
+     * This method doesn't make any allocation
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return if there is a overlap between the two polygons
+     */
+    public static boolean shapeOverlapStaticSATCached(Polygon r1, Polygon r2) {
+        float overlap = shapeOverlapDepthSATCached(r1, r2);
+        if ( overlap < 0 ) {
+            return false;
+        }
+
+        moveApart(r1, r2, overlap);
+        return false;
+    }
+
+    /**
+     * This method contains the algorithm "SAT"
+     * It doesn't move the polygons, it only returns how much they overlap
+     * The axes are the normals of the edges cached by the polygons
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return the smallest overlap over all the axes, or a negative value
+     * if there is not a overlap between the two polygons
+     */
+    public static float shapeOverlapDepthSATCached(Polygon r1, Polygon r2) {
+        float overlap = minOverlapOnNormals(r1, r2, Float.MAX_VALUE);
+        if ( overlap < 0 ) {
+            return -1;
+        }
+        return minOverlapOnNormals(r2, r1, overlap);
+    }
+
+    /**
+     * This method contains the algorithm "SAT" and returns which axis
+     * separates the polygons. The axes are numbered first with the cached
+     * normals of r1 and then with the cached normals of r2
+     * The search starts at a given axis, so the axis which separated the
+     * polygons in the last frame can be tested first
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @param firstAxis the first axis to test
+     * @return the index of the first separating axis found,
+     * or -1 if there is a overlap between the two polygons
+     */
+    public static int findSeparatingAxis(Polygon r1, Polygon r2, int firstAxis) {
+        int count1 = r1.getAxisCount();
+        int total = count1 + r2.getAxisCount();
+        if ( firstAxis < 0 || firstAxis >= total ) {
+            firstAxis = 0;
+        }
+        for ( int k = 0; k < total; k++ ) {
+            int axis = firstAxis + k < total ? firstAxis + k : firstAxis + k - total;
+            float axisX = axis < count1 ? r1.getNormalX()[axis] : r2.getNormalX()[axis - count1];
+            float axisY = axis < count1 ? r1.getNormalY()[axis] : r2.getNormalY()[axis - count1];
+            if ( separatedOnAxis(r1.getP(), r2.getP(), axisX, axisY) ) {
+                return axis;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * This method projects two polygons over one axis
+     * @param p1 the points of the polygon 1
+     * @param p2 the points of the polygon 2
+     * @param axisX the x coordinate of the axis
+     * @param axisY the y coordinate of the axis
+     * @return if the projections don't overlap
+     */
+    private static boolean separatedOnAxis(Vec2df[] p1, Vec2df[] p2, float axisX, float axisY) {
+        float minR1 = Float.MAX_VALUE;
+        float maxR1 = -Float.MAX_VALUE;
+
+        for ( Vec2df p : p1 ) {
+            float q = (p.getX() * axisX + p.getY() * axisY);
+            minR1 = Float.min(minR1, q);
+            maxR1 = Float.max(maxR1, q);
+        }
+
+        float minR2 = Float.MAX_VALUE;
+        float maxR2 = -Float.MAX_VALUE;
+
+        for ( Vec2df p : p2 ) {
+            float q = (p.getX() * axisX + p.getY() * axisY);
+            minR2 = Float.min(minR2, q);
+            maxR2 = Float.max(maxR2, q);
+        }
+
+        return !(maxR2 >= minR1 && maxR1 >= minR2);
+    }
+
+    /**
+     * This method projects the two polygons over the cached
+     * normals of the first one
+     * @param r1 the polygon which gives the axes
+     * @param r2 the other polygon
+     * @param overlap the smallest overlap found until now
+     * @return the smallest overlap, or a negative value if there is a separating axis
+     */
+    private static float minOverlapOnNormals(Polygon r1, Polygon r2, float overlap) {
+        Vec2df[] p1 = r1.getP();
+        Vec2df[] p2 = r2.getP();
+        float[] normalX = r1.getNormalX();
+        float[] normalY = r1.getNormalY();
+        for ( int a = 0; a < r1.getAxisCount(); a++ ) {
+            float axisX = normalX[a];
+            float axisY = normalY[a];
+
+            float minR1 = Float.MAX_VALUE;
+            float maxR1 = -Float.MAX_VALUE;
+
+            for ( Vec2df p : p1 ) {
+                float q = (p.getX() * axisX + p.getY() * axisY);
+                minR1 = Float.min(minR1, q);
+                maxR1 = Float.max(maxR1, q);
+            }
+
+            float minR2 = Float.MAX_VALUE;
+            float maxR2 = -Float.MAX_VALUE;
+
+            for ( Vec2df p : p2 ) {
+                float q = (p.getX() * axisX + p.getY() * axisY);
+                minR2 = Float.min(minR2, q);
+                maxR2 = Float.max(maxR2, q);
+            }
+
+            overlap = Float.min(Float.min(maxR1, maxR2) - Float.max(minR1, minR2), overlap);
+
+            if ( !(maxR2 >= minR1 && maxR1 >= minR2) ) {
+                return -1;
+            }
+        }
+        return overlap;
+    }
+
+    /**
+     * This method moves r1 out of r2 by the overlap found by the SAT,
+     * along the direction from the position of r2 to the position of r1
+     * If the positions of the polygons are the same,
+     * r1 is moved along the x axis
+     * @param r1 the polygon 1, which is moved
+     * @param r2 the polygon 2
+     * @param overlap the smallest overlap over all the axes
+     */
+    static void moveApart(Polygon r1, Polygon r2, float overlap) {
+        float dx = r2.getPosition().getX() - r1.getPosition().getX();
+        float dy = r2.getPosition().getY() - r1.getPosition().getY();
+        float s = (float)Math.sqrt(dx * dx + dy * dy);
+        if ( s == 0 ) {
+            dx = 1;
+            dy = 0;
+            s = 1;
+        }
+        r1.getPosition().addToX(- overlap * dx / s);
+        r1.getPosition().addToY(- overlap * dy / s);
+    }
+
+    /**
+     * This method contains the algorithm "SAT"
+     * It doesn't move the polygons, it only returns how much they overlap
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return the smallest overlap over all the axes, or a negative value
+     * if there is not a overlap between the two polygons
+     */
+    public static float shapeOverlapDepthSAT(Polygon r1, Polygon r2) {
+        float overlap = minOverlapOnAxes(r1.getP(), r2.getP(), Float.MAX_VALUE);
+        if ( overlap < 0 ) {
+            return -1;
+        }
+        overlap = minOverlapOnAxes(r2.getP(), r1.getP(), overlap);
+        return overlap < 0 ? -1 : overlap;
+    }
+
+    /**
+     * This method contains the algorithm "SAT" like shapeOverlapDepthSAT,
+     * and it also tells how many axes were projected, so the callers
+     * can count the work without testing the pair again
+     * This method doesn't make any allocation
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @param result the result where the overlap and the number of axes projected are written
+     * @return if there is a overlap between the two polygons
+     */
+    public static boolean shapeOverlapDepthSAT(Polygon r1, Polygon r2, SATResult result) {
+        Vec2df[] p1 = r1.getP();
+        Vec2df[] p2 = r2.getP();
+        int axisCount = p1.length + p2.length;
+        float overlap = minOverlapOnAxes(p1, p2, Float.MAX_VALUE);
+        if ( overlap < 0 ) {
+            result.set(false, -1, separatingEdge(overlap) + 1, axisCount);
+            return false;
+        }
+        overlap = minOverlapOnAxes(p2, p1, overlap);
+        if ( overlap < 0 ) {
+            result.set(false, -1, p1.length + separatingEdge(overlap) + 1, axisCount);
+            return false;
+        }
+        result.set(true, overlap, axisCount, axisCount);
+        return true;
+    }
+
+    /**
+     * This method contains the algorithm "SAT" and fills a contact manifold
+     * The normal of the manifold is the minimum translation vector,
+     * from r1 to r2, and the contact points are found clipping the edge
+     * of one polygon against the edge of the other which faces it
+     * If the polygons don't overlap, the normal is the separating axis
+     * and the depth is the (negative) gap between them
+     * This method doesn't make any allocation
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @param manifold the manifold where the result is written
+     * @return if there is a overlap between the two polygons
+     */
+    public static boolean collideSAT(Polygon r1, Polygon r2, ContactManifold manifold) {
+        Vec2df[] p1 = r1.getP();
+        Vec2df[] p2 = r2.getP();
+        float depth = Float.MAX_VALUE;
+        float normalX = 0;
+        float normalY = 0;
+        boolean referenceIsR1 = true;
+
+        for ( int shape = 0; shape < 2; shape++ ) {
+            Vec2df[] poly = shape == 0 ? p1 : p2;
+            for ( int a = 0; a < poly.length; a++ ) {
+                int b = (a + 1) % poly.length;
+                float axisX = -(poly[b].getY() - poly[a].getY());
+                float axisY = (poly[b].getX() - poly[a].getX());
+                float d = (float)Math.sqrt(axisX * axisX + axisY * axisY);
+                if ( d == 0 ) {
+                    continue;
+                }
+                axisX *= 1 / d;
+                axisY *= 1 / d;
+
+                float minR1 = Float.MAX_VALUE;
+                float maxR1 = -Float.MAX_VALUE;
+                for ( Vec2df p : p1 ) {
+                    float q = (p.getX() * axisX + p.getY() * axisY);
+                    minR1 = Float.min(minR1, q);
+                    maxR1 = Float.max(maxR1, q);
+                }
+
+                float minR2 = Float.MAX_VALUE;
+                float maxR2 = -Float.MAX_VALUE;
+                for ( Vec2df p : p2 ) {
+                    float q = (p.getX() * axisX + p.getY() * axisY);
+                    minR2 = Float.min(minR2, q);
+                    maxR2 = Float.max(maxR2, q);
+                }
+
+                // How much r2 must move along the axis, or against it, to stop overlapping
+                float forward = maxR1 - minR2;
+                float backward = maxR2 - minR1;
+
+                if ( forward < 0 ) {
+                    manifold.set(false, axisX, axisY, forward);
+                    return false;
+                }
+                if ( backward < 0 ) {
+                    manifold.set(false, -axisX, -axisY, backward);
+                    return false;
+                }
+                if ( forward < depth ) {
+                    depth = forward;
+                    normalX = axisX;
+                    normalY = axisY;
+                    referenceIsR1 = shape == 0;
+                }
+                if ( backward < depth ) {
+                    depth = backward;
+                    normalX = -axisX;
+                    normalY = -axisY;
+                    referenceIsR1 = shape == 0;
+                }
+            }
+        }
+
+        manifold.set(true, normalX, normalY, depth);
+        addContactPoints(r1, r2, referenceIsR1, manifold);
+        return true;
+    }
+
+    /**
+     * This method contains the algorithm "SAT" with the cached normals,
+     * it fills the normal and the depth of a contact manifold like
+     * collideSAT, but it doesn't find the contact points
+     * It is for the solvers, which only need the minimum translation vector
+     * The polygons must be updated before
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @param manifold the manifold where the result is written
+     * @return if there is a overlap between the two polygons
+     */
+    public static boolean penetrationSATCached(Polygon r1, Polygon r2, ContactManifold manifold) {
+        Vec2df[] p1 = r1.getP();
+        Vec2df[] p2 = r2.getP();
+        float depth = Float.MAX_VALUE;
+        float normalX = 0;
+        float normalY = 0;
+
+        for ( int shape = 0; shape < 2; shape++ ) {
+            Polygon axes = shape == 0 ? r1 : r2;
+            float[] axesX = axes.getNormalX();
+            float[] axesY = axes.getNormalY();
+            for ( int a = 0; a < axes.getAxisCount(); a++ ) {
+                float axisX = axesX[a];
+                float axisY = axesY[a];
+
+                float minR1 = Float.MAX_VALUE;
+                float maxR1 = -Float.MAX_VALUE;
+                for ( Vec2df p : p1 ) {
+                    float q = (p.getX() * axisX + p.getY() * axisY);
+                    minR1 = Float.min(minR1, q);
+                    maxR1 = Float.max(maxR1, q);
+                }
+
+                float minR2 = Float.MAX_VALUE;
+                float maxR2 = -Float.MAX_VALUE;
+                for ( Vec2df p : p2 ) {
+                    float q = (p.getX() * axisX + p.getY() * axisY);
+                    minR2 = Float.min(minR2, q);
+                    maxR2 = Float.max(maxR2, q);
+                }
+
+                float forward = maxR1 - minR2;
+                float backward = maxR2 - minR1;
+
+                if ( forward < 0 ) {
+                    manifold.set(false, axisX, axisY, forward);
+                    return false;
+                }
+                if ( backward < 0 ) {
+                    manifold.set(false, -axisX, -axisY, backward);
+                    return false;
+                }
+                if ( forward < depth ) {
+                    depth = forward;
+                    normalX = axisX;
+                    normalY = axisY;
+                }
+                if ( backward < depth ) {
+                    depth = backward;
+                    normalX = -axisX;
+                    normalY = -axisY;
+                }
+            }
+        }
+
+        manifold.set(true, normalX, normalY, depth);
+        return true;
+    }
+
+    /**
+     * This method contains the swept version of the algorithm "SAT"
+     * The polygons move with a constant velocity during the step,
+     * from the positions where they were updated. For each axis the
+     * interval of time where the projections overlap is calculated, and
+     * the polygons hit if the intervals of all the axes overlap inside the step
+     * So a fast polygon can't pass through a thin one between two steps
+     * This method doesn't make any allocation
+     * @param r1 the polygon 1, updated at the beginning of the step
+     * @param velocity1X the x displacement of the polygon 1 during the step
+     * @param velocity1Y the y displacement of the polygon 1 during the step
+     * @param r2 the polygon 2, updated at the beginning of the step
+     * @param velocity2X the x displacement of the polygon 2 during the step
+     * @param velocity2Y the y displacement of the polygon 2 during the step
+     * @param result the result where the time of impact and the normal are written
+     * @return if the polygons hit during the step
+     */
+    public static boolean sweepSAT(Polygon r1, float velocity1X, float velocity1Y,
+                                   Polygon r2, float velocity2X, float velocity2Y, TimeOfImpact result) {
+        // Only the relative velocity matters, the polygon 1 is still and the polygon 2 moves
+        float velocityX = velocity2X - velocity1X;
+        float velocityY = velocity2Y - velocity1Y;
+        result.reset();
+        boolean hit = sweepOnNormals(r1, r1, r2, velocityX, velocityY, result) &&
+                sweepOnNormals(r2, r1, r2, velocityX, velocityY, result) &&
+                result.getTime() <= 1;
+        result.finish(hit);
+        return hit;
+    }
+
+    /**
+     * This method calculates the interval of time where the projections
+     * of the polygons overlap on each axis of a polygon
+     * @param axes the polygon whose normals are the axes
+     * @param r1 the polygon 1, still
+     * @param r2 the polygon 2, moving
+     * @param velocityX the x coordinate of the velocity of the polygon 2
+     * @param velocityY the y coordinate of the velocity of the polygon 2
+     * @param result the result where the intervals are accumulated
+     * @return false if the polygons can't hit during the step
+     */
+    private static boolean sweepOnNormals(Polygon axes, Polygon r1, Polygon r2, float velocityX, float velocityY, TimeOfImpact result) {
+        Vec2df[] p1 = r1.getP();
+        Vec2df[] p2 = r2.getP();
+        float[] normalX = axes.getNormalX();
+        float[] normalY = axes.getNormalY();
+        for ( int a = 0; a < axes.getAxisCount(); a++ ) {
+            float axisX = normalX[a];
+            float axisY = normalY[a];
+
+            float minR1 = Float.MAX_VALUE;
+            float maxR1 = -Float.MAX_VALUE;
+
+            for ( Vec2df p : p1 ) {
+                float q = (p.getX() * axisX + p.getY() * axisY);
+                minR1 = Float.min(minR1, q);
+                maxR1 = Float.max(maxR1, q);
+            }
+
+            float minR2 = Float.MAX_VALUE;
+            float maxR2 = -Float.MAX_VALUE;
+
+            for ( Vec2df p : p2 ) {
+                float q = (p.getX() * axisX + p.getY() * axisY);
+                minR2 = Float.min(minR2, q);
+                maxR2 = Float.max(maxR2, q);
+            }
+
+            float speed = velocityX * axisX + velocityY * axisY;
+            float enter, exit;
+            if ( maxR2 < minR1 ) {
+                // The polygon 2 is behind the polygon 1 on this axis, it must move forward
+                if ( speed <= 0 ) {
+                    return false;
+                }
+                enter = (minR1 - maxR2) / speed;
+                exit = (maxR1 - minR2) / speed;
+                if ( !result.addInterval(enter, exit, -axisX, -axisY) ) {
+                    return false;
+                }
+            } else if ( maxR1 < minR2 ) {
+                // The polygon 2 is in front of the polygon 1 on this axis, it must move backward
+                if ( speed >= 0 ) {
+                    return false;
+                }
+                enter = (maxR1 - minR2) / speed;
+                exit = (minR1 - maxR2) / speed;
+                if ( !result.addInterval(enter, exit, axisX, axisY) ) {
+                    return false;
+                }
+            } else {
+                // The projections already overlap, they stop overlapping when the polygon 2 leaves by one side
+                float forward = maxR1 - minR2;
+                float backward = maxR2 - minR1;
+                if ( forward < backward ) {
+                    result.addInitialOverlap(forward, axisX, axisY);
+                } else {
+                    result.addInitialOverlap(backward, -axisX, -axisY);
+                }
+                if ( speed > 0 ) {
+                    exit = forward / speed;
+                } else if ( speed < 0 ) {
+                    exit = -backward / speed;
+                } else {
+                    exit = Float.MAX_VALUE;
+                }
+                if ( !result.addInterval(0, exit, axisX, axisY) ) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method finds the contact points of two overlapping polygons
+     * The reference edge is the edge of one polygon which faces the normal,
+     * and the incident edge is the edge of the other polygon which faces
+     * against it. The incident edge is clipped by the sides of the reference
+     * edge, and the points which are behind the reference edge are the contacts
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @param referenceIsR1 if the reference edge is an edge of r1
+     * @param manifold the manifold, with the normal from r1 to r2 already set
+     */
+    static void addContactPoints(Polygon r1, Polygon r2, boolean referenceIsR1, ContactManifold manifold) {
+        Vec2df[] reference = referenceIsR1 ? r1.getP() : r2.getP();
+        Vec2df[] incident = referenceIsR1 ? r2.getP() : r1.getP();
+        float nx = referenceIsR1 ? manifold.getNormalX() : -manifold.getNormalX();
+        float ny = referenceIsR1 ? manifold.getNormalY() : -manifold.getNormalY();
+
+        int r = supportIndex(reference, nx, ny);
+        int rEdge = facingEdge(reference, r, nx, ny);
+        Vec2df v1 = reference[rEdge];
+        Vec2df v2 = reference[(rEdge + 1) % reference.length];
+
+        int k = supportIndex(incident, -nx, -ny);
+        int kEdge = facingEdge(incident, k, nx, ny);
+        float ax = incident[kEdge].getX();
+        float ay = incident[kEdge].getY();
+        float bx = incident[(kEdge + 1) % incident.length].getX();
+        float by = incident[(kEdge + 1) % incident.length].getY();
+
+        float tx = v2.getX() - v1.getX();
+        float ty = v2.getY() - v1.getY();
+
+        // Clip against the side of v1: keep the points with dot(t, p) >= dot(t, v1)
+        float offset = tx * v1.getX() + ty * v1.getY();
+        float da = tx * ax + ty * ay - offset;
+        float db = tx * bx + ty * by - offset;
+        boolean clipped = da >= 0 || db >= 0;
+        if ( da < 0 && db >= 0 ) {
+            float t = da / (da - db);
+            ax += t * (bx - ax);
+            ay += t * (by - ay);
+        } else if ( db < 0 && da >= 0 ) {
+            float t = db / (db - da);
+            bx += t * (ax - bx);
+            by += t * (ay - by);
+        }
+
+        // Clip against the side of v2: keep the points with dot(t, p) <= dot(t, v2)
+        offset = tx * v2.getX() + ty * v2.getY();
+        da = offset - (tx * ax + ty * ay);
+        db = offset - (tx * bx + ty * by);
+        clipped &= da >= 0 || db >= 0;
+        if ( da < 0 && db >= 0 ) {
+            float t = da / (da - db);
+            ax += t * (bx - ax);
+            ay += t * (by - ay);
+        } else if ( db < 0 && da >= 0 ) {
+            float t = db / (db - da);
+            bx += t * (ax - bx);
+            by += t * (ay - by);
+        }
+
+        if ( clipped ) {
+            float face = nx * v1.getX() + ny * v1.getY();
+            float separationA = nx * ax + ny * ay - face;
+            float separationB = nx * bx + ny * by - face;
+            if ( separationA <= 0 ) {
+                manifold.addPoint(ax, ay, -separationA);
+            }
+            if ( separationB <= 0 ) {
+                manifold.addPoint(bx, by, -separationB);
+            }
+        }
+        if ( manifold.getPointCount() == 0 ) {
+            manifold.addPoint(incident[k].getX(), incident[k].getY(), manifold.getDepth());
+        }
+    }
+
+    /**
+     * This method returns the point with the biggest projection over a direction
+     * @param p the points
+     * @param dx the x coordinate of the direction
+     * @param dy the y coordinate of the direction
+     * @return the index of the point
+     */
+    static int supportIndex(Vec2df[] p, float dx, float dy) {
+        int best = 0;
+        float bestProjection = -Float.MAX_VALUE;
+        for ( int i = 0; i < p.length; i++ ) {
+            float q = p[i].getX() * dx + p[i].getY() * dy;
+            if ( q > bestProjection ) {
+                bestProjection = q;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * This method chooses, from the two edges which share a point,
+     * the one which is more perpendicular to a direction
+     * @param p the points
+     * @param i the index of the shared point
+     * @param dx the x coordinate of the direction
+     * @param dy the y coordinate of the direction
+     * @return the index of the first point of the chosen edge
+     */
+    private static int facingEdge(Vec2df[] p, int i, float dx, float dy) {
+        int prev = (i - 1 + p.length) % p.length;
+        int next = (i + 1) % p.length;
+        float e1x = p[i].getX() - p[prev].getX();
+        float e1y = p[i].getY() - p[prev].getY();
+        float e2x = p[next].getX() - p[i].getX();
+        float e2y = p[next].getY() - p[i].getY();
+        float d1 = e1x * dx + e1y * dy;
+        float d2 = e2x * dx + e2y * dy;
+        // |cos| of each edge with the direction, compared without square roots
+        return d1 * d1 * (e2x * e2x + e2y * e2y) <= d2 * d2 * (e1x * e1x + e1y * e1y) ? prev : i;
+    }
+
+    /**
+     * This method projects the two polygons over the axes
+     * perpendicular to the edges of the first one
+     * The intervals of one axis don't overlap if and only if
+     * its overlap is negative, so a negative value is returned
+     * as soon as a separating axis is found: -1 minus the index
+     * of the edge, which is read with separatingEdge
+     * @param poly1 the points of the polygon which gives the axes
+     * @param poly2 the points of the other polygon
+     * @param overlap the smallest overlap found until now
+     * @return the smallest overlap, or a negative value if there is a separating axis
+     */
+    private static float minOverlapOnAxes(Vec2df[] poly1, Vec2df[] poly2, float overlap) {
+        for ( int a = 0; a < poly1.length; a++ ) {
+            int b = (a + 1) % poly1.length;
+            float axisX = -(poly1[b].getY() - poly1[a].getY());
+            float axisY = (poly1[b].getX() - poly1[a].getX());
+            float d = (float)Math.sqrt(axisX * axisX + axisY * axisY);
+            // An edge of zero length has no normal, so it can't separate the polygons
+            if ( d == 0 ) {
+                continue;
+            }
+            axisX *= 1 / d;
+            axisY *= 1 / d;
+
+            float minR1 = Float.MAX_VALUE;
+            float maxR1 = -Float.MAX_VALUE;
+
+            for ( Vec2df p : poly1 ) {
+                float q = (p.getX() * axisX + p.getY() * axisY);
+                minR1 = Float.min(minR1, q);
+                maxR1 = Float.max(maxR1, q);
+            }
+
+            float minR2 = Float.MAX_VALUE;
+            float maxR2 = -Float.MAX_VALUE;
+
+            for ( Vec2df p : poly2 ) {
+                float q = (p.getX() * axisX + p.getY() * axisY);
+                minR2 = Float.min(minR2, q);
+                maxR2 = Float.max(maxR2, q);
+            }
+
+            overlap = Float.min(Float.min(maxR1, maxR2) - Float.max(minR1, minR2), overlap);
+
+            if ( !(maxR2 >= minR1 && maxR1 >= minR2) ) {
+                return -1 - a;
+            }
+        }
+        return overlap;
+    }
+
+    /**
+     * This method reads the separating edge from the
+     * negative value returned by minOverlapOnAxes
+     * @param overlap the negative value
+     * @return the index of the edge
+     */
+    private static int separatingEdge(float overlap) {
+        return (int) -overlap - 1;
+    }
+
+    /**
+     * This method checks if a point is inside a polygon
+     * The point is inside if it is on the same side of all the edges
+     * @param r the polygon
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @return if the point is inside the polygon or over its edges
+     */
+    public static boolean pointInPolygon(Polygon r, float x, float y) {
+        Vec2df[] p = r.getP();
+        boolean positive = false;
+        boolean negative = false;
+        for ( int a = 0; a < p.length; a++ ) {
+            int b = (a + 1) % p.length;
+            float cross = (p[b].getX() - p[a].getX()) * (y - p[a].getY()) - (p[b].getY() - p[a].getY()) * (x - p[a].getX());
+            positive |= cross > 0;
+            negative |= cross < 0;
+            if ( positive && negative ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method casts a ray against a polygon
+     * The ray is clipped against the half-planes of all the edges,
+     * it hits the polygon if a part of it remains inside all of them
+     * @param r the polygon
+     * @param originX the x coordinate of the origin of the ray
+     * @param originY the y coordinate of the origin of the ray
+     * @param directionX the x coordinate of the direction of the ray
+     * @param directionY the y coordinate of the direction of the ray
+     * @param maxT the maximum fraction of the direction to test
+     * @return the fraction of the direction where the ray enters the polygon,
+     * 0 if the origin is inside, or -1 if the ray doesn't hit the polygon
+     */
+    public static float rayCastPolygon(Polygon r, float originX, float originY, float directionX, float directionY, float maxT) {
+        Vec2df[] p = r.getP();
+        // The sign of the area tells the winding, so the normals of the edges point outside
+        float area = 0;
+        for ( int a = 0; a < p.length; a++ ) {
+            int b = (a + 1) % p.length;
+            area += p[a].getX() * p[b].getY() - p[b].getX() * p[a].getY();
+        }
+        float winding = area >= 0 ? 1 : -1;
+
+        float tEnter = 0;
+        float tExit = maxT;
+        for ( int a = 0; a < p.length; a++ ) {
+            int b = (a + 1) % p.length;
+            float normalX = winding * (p[b].getY() - p[a].getY());
+            float normalY = -winding * (p[b].getX() - p[a].getX());
+            float num = normalX * (p[a].getX() - originX) + normalY * (p[a].getY() - originY);
+            float den = normalX * directionX + normalY * directionY;
+            if ( den == 0 ) {
+                if ( num < 0 ) {
+                    return -1;
+                }
+            } else if ( den < 0 ) {
+                tEnter = Float.max(tEnter, num / den);
+            } else {
+                tExit = Float.min(tExit, num / den);
+            }
+            if ( tEnter > tExit ) {
+                return -1;
+            }
+        }
+        return tEnter;
+    }
+
+    /**
+     * This method contains the algorithm "SAT" between a polygon
+     * and an axis aligned box
+     * @param r the polygon, with its bounding box updated
+     * @param minX the left side of the box
+     * @param minY the top side of the box
+     * @param maxX the right side of the box
+     * @param maxY the bottom side of the box
+     * @return if there is a overlap between the polygon and the box
+     */
+    public static boolean polygonOverlapAABB(Polygon r, float minX, float minY, float maxX, float maxY) {
+        if ( r.getMinX() > maxX || r.getMaxX() < minX || r.getMinY() > maxY || r.getMaxY() < minY ) {
+            return false;
+        }
+        Vec2df[] p = r.getP();
+        for ( int a = 0; a < p.length; a++ ) {
+            int b = (a + 1) % p.length;
+            float axisX = -(p[b].getY() - p[a].getY());
+            float axisY = (p[b].getX() - p[a].getX());
+
+            float minR1 = Float.MAX_VALUE;
+            float maxR1 = -Float.MAX_VALUE;
+            for ( Vec2df point : p ) {
+                float q = (point.getX() * axisX + point.getY() * axisY);
+                minR1 = Float.min(minR1, q);
+                maxR1 = Float.max(maxR1, q);
+            }
+
+            // The corners of the box with the smallest and biggest projections
+            float minR2 = (axisX >= 0 ? minX : maxX) * axisX + (axisY >= 0 ? minY : maxY) * axisY;
+            float maxR2 = (axisX >= 0 ? maxX : minX) * axisX + (axisY >= 0 ? maxY : minY) * axisY;
+
+            if ( !(maxR2 >= minR1 && maxR1 >= minR2) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
@@ -0,0 +1,97 @@
+package convexPolygonCollisions;
+
+/**
+ * This class holds the deterministic mode of the simulation
+ * The float and double arithmetic of Java is the same on every JVM,
+ * but Math.sin and Math.cos are not: they can be intrinsics which
+ * differ in the last bit between JVMs and processors
+ * When the mode is enabled, the polygons are rotated with the sines
+ * and cosines of a table built once with StrictMath, interpolated
+ * linearly. The models of PolygonFactory are always built with StrictMath.
+ * So the same inputs give the same bits on every run, JVM and number
+ * of threads, which allows lockstep simulations and replays
+ * The lookup is also faster than Math.sin and Math.cos
+ * The mode must be set before the simulation starts
+ *
+ * @class Determinism
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class Determinism {
+
+    /**
+     * The number of intervals of the table, a power of two
+     */
+    public static final int TABLE_SIZE = 4096;
+
+    /**
+     * The mask which wraps an index of the table
+     */
+    private static final int MASK = TABLE_SIZE - 1;
+
+    /**
+     * The number of intervals of the table by radian
+     */
+    private static final float SCALE = (float)(TABLE_SIZE / (2.0 * Math.PI));
+
+    /**
+     * The sine of each interval of the table, with one more
+     * value at the end, so an interval can always be interpolated
+     */
+    private static final float[] SIN = new float[TABLE_SIZE + 1];
+
+    static {
+        for ( int i = 0; i <= TABLE_SIZE; i++ ) {
+            SIN[i] = (float)StrictMath.sin(2.0 * StrictMath.PI * i / TABLE_SIZE);
+        }
+    }
+
+    /**
+     * The flag to indicate the deterministic mode is enabled
+     */
+    private static volatile boolean enabled = false;
+
+    /**
+     * This method looks up the sine of a fraction of the table
+     * @param index the angle, in intervals of the table
+     * @return the interpolated sine
+     */
+    private static float lookup(float index) {
+        float floor = (float)Math.floor(index);
+        float fraction = index - floor;
+        int i = (int)(long)floor & MASK;
+        return SIN[i] + (SIN[i + 1] - SIN[i]) * fraction;
+    }
+
+    /**
+     * This method returns the sine of an angle from the table
+     * The error is about 1e-6 for the angles of the first turns,
+     * it grows with the angle, as the float loses precision
+     * @param angle the angle, in radians
+     * @return the sine
+     */
+    public static float sin(float angle) {
+        return lookup(angle * SCALE);
+    }
+
+    /**
+     * This method returns the cosine of an angle from the table
+     * The error is about 1e-6 for the angles of the first turns,
+     * it grows with the angle, as the float loses precision
+     * @param angle the angle, in radians
+     * @return the cosine
+     */
+    public static float cos(float angle) {
+        return lookup(angle * SCALE + TABLE_SIZE / 4);
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Determinism.enabled = enabled;
+    }
+}
@@ -0,0 +1,809 @@
+package convexPolygonCollisions;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is a broad-phase which uses a dynamic bounding
+ * volume hierarchy: a binary tree of axis aligned bounding boxes
+ * It works well with polygons of very different sizes
+ * The leaves keep "fat" bounding boxes, bigger than the polygons
+ * by a margin, so the polygons which move slowly don't need
+ * to be inserted again every frame
+ * The tree is balanced with rotations, so inserting, removing
+ * and moving a polygon is O(log n)
+ * The nodes are stored in primitive arrays, the free nodes
+ * are linked by the parent array and reused
+ * Besides the pairs, the tree answers point, box and ray queries,
+ * which finish with an exact test against the polygons
+ * The queries use an internal stack, so one tree must not
+ * be queried by several threads at the same time, unless each
+ * thread gives its own stack to the overloads which take one
+ *
+ * @class DynamicAABBTree
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class DynamicAABBTree implements BroadPhase {
+
+    /**
+     * The index of no node
+     */
+    private static final int NULL_NODE = -1;
+
+    /**
+     * The margin added to each side of the bounding boxes of the leaves
+     */
+    private final float margin;
+
+    /**
+     * The bounding boxes of the nodes
+     */
+    private float[] nodeMinX, nodeMinY, nodeMaxX, nodeMaxY;
+
+    /**
+     * The parent of each node, or the next free node for the free nodes
+     */
+    private int[] parent;
+
+    /**
+     * The children of each node, NULL_NODE for the leaves
+     */
+    private int[] child1, child2;
+
+    /**
+     * The height of each node, 0 for the leaves
+     */
+    private int[] height;
+
+    /**
+     * The polygon index of each leaf
+     */
+    private int[] nodeBody;
+
+    /**
+     * The root of the tree
+     */
+    private int root = NULL_NODE;
+
+    /**
+     * The first free node
+     */
+    private int freeList = NULL_NODE;
+
+    /**
+     * The number of nodes, used or free
+     */
+    private int numNodes = 0;
+
+    /**
+     * The polygon which is inserted for each index
+     */
+    private Polygon[] bodies = new Polygon[0];
+
+    /**
+     * The leaf of each polygon
+     */
+    private int[] bodyLeaf = new int[0];
+
+    /**
+     * The number of polygons inserted
+     */
+    private int numBodies = 0;
+
+    /**
+     * The stack used to traverse the tree
+     */
+    private int[] stack = new int[64];
+
+    /**
+     * The number of candidate pairs found in the last frame
+     */
+    private int candidatePairs = 0;
+
+    /**
+     * The number of bounding boxes tested in the last frame
+     */
+    private int testedPairs = 0;
+
+    /**
+     * The number of polygons inserted again in the last frame
+     */
+    private int movedBodies = 0;
+
+    /**
+     * Constructor
+     * @param margin the margin of the fat bounding boxes
+     */
+    public DynamicAABBTree(float margin) {
+        this.margin = margin;
+        int capacity = 16;
+        nodeMinX = new float[capacity];
+        nodeMinY = new float[capacity];
+        nodeMaxX = new float[capacity];
+        nodeMaxY = new float[capacity];
+        parent = new int[capacity];
+        child1 = new int[capacity];
+        child2 = new int[capacity];
+        height = new int[capacity];
+        nodeBody = new int[capacity];
+    }
+
+    /**
+     * Default constructor, the margin is 4 units
+     */
+    public DynamicAABBTree() {
+        this(4);
+    }
+
+    ////////////////////////////////////////////////////////////////
+    // Nodes
+
+    /**
+     * This method gets a free node, or makes a new one
+     * @return the index of the node
+     */
+    private int allocateNode() {
+        int node;
+        if ( freeList != NULL_NODE ) {
+            node = freeList;
+            freeList = parent[node];
+        } else {
+            if ( numNodes == parent.length ) {
+                int capacity = parent.length * 2;
+                nodeMinX = Arrays.copyOf(nodeMinX, capacity);
+                nodeMinY = Arrays.copyOf(nodeMinY, capacity);
+                nodeMaxX = Arrays.copyOf(nodeMaxX, capacity);
+                nodeMaxY = Arrays.copyOf(nodeMaxY, capacity);
+                parent = Arrays.copyOf(parent, capacity);
+                child1 = Arrays.copyOf(child1, capacity);
+                child2 = Arrays.copyOf(child2, capacity);
+                height = Arrays.copyOf(height, capacity);
+                nodeBody = Arrays.copyOf(nodeBody, capacity);
+            }
+            node = numNodes++;
+        }
+        parent[node] = NULL_NODE;
+        child1[node] = NULL_NODE;
+        child2[node] = NULL_NODE;
+        height[node] = 0;
+        nodeBody[node] = -1;
+        return node;
+    }
+
+    /**
+     * This method adds a node to the free nodes
+     * @param node the index of the node
+     */
+    private void freeNode(int node) {
+        parent[node] = freeList;
+        height[node] = -1;
+        freeList = node;
+    }
+
+    /**
+     * This method returns the perimeter of the union of two nodes,
+     * which is the cost used to build the tree
+     * @param a one node
+     * @param b the other node
+     * @return the perimeter of the union
+     */
+    private float unionPerimeter(int a, int b) {
+        float width = Float.max(nodeMaxX[a], nodeMaxX[b]) - Float.min(nodeMinX[a], nodeMinX[b]);
+        float heightY = Float.max(nodeMaxY[a], nodeMaxY[b]) - Float.min(nodeMinY[a], nodeMinY[b]);
+        return 2 * (width + heightY);
+    }
+
+    /**
+     * This method returns the perimeter of a node
+     * @param a the node
+     * @return the perimeter of the node
+     */
+    private float perimeter(int a) {
+        return 2 * ((nodeMaxX[a] - nodeMinX[a]) + (nodeMaxY[a] - nodeMinY[a]));
+    }
+
+    /**
+     * This method sets the bounding box and the height
+     * of a node from its children
+     * @param node the node
+     */
+    private void fitToChildren(int node) {
+        int a = child1[node];
+        int b = child2[node];
+        nodeMinX[node] = Float.min(nodeMinX[a], nodeMinX[b]);
+        nodeMinY[node] = Float.min(nodeMinY[a], nodeMinY[b]);
+        nodeMaxX[node] = Float.max(nodeMaxX[a], nodeMaxX[b]);
+        nodeMaxY[node] = Float.max(nodeMaxY[a], nodeMaxY[b]);
+        height[node] = 1 + Math.max(height[a], height[b]);
+    }
+
+    /**
+     * This method inserts a leaf in the tree
+     * It descends choosing the sibling with the smallest
+     * increase of perimeter, and then rebalances up to the root
+     * @param leaf the leaf
+     */
+    private void insertLeaf(int leaf) {
+        if ( root == NULL_NODE ) {
+            root = leaf;
+            parent[root] = NULL_NODE;
+            return;
+        }
+
+        int index = root;
+        while ( child1[index] != NULL_NODE ) {
+            int c1 = child1[index];
+            int c2 = child2[index];
+
+            float area = perimeter(index);
+            float combinedArea = unionPerimeter(index, leaf);
+            // The cost of making a new parent for this node and the leaf
+            float cost = 2 * combinedArea;
+            // The minimum cost of pushing the leaf further down the tree
+            float inheritanceCost = 2 * (combinedArea - area);
+
+            float cost1 = descendCost(c1, leaf) + inheritanceCost;
+            float cost2 = descendCost(c2, leaf) + inheritanceCost;
+
+            if ( cost < cost1 && cost < cost2 ) {
+                break;
+            }
+            index = cost1 < cost2 ? c1 : c2;
+        }
+
+        int sibling = index;
+        int oldParent = parent[sibling];
+        int newParent = allocateNode();
+        parent[newParent] = oldParent;
+        child1[newParent] = sibling;
+        child2[newParent] = leaf;
+        parent[sibling] = newParent;
+        parent[leaf] = newParent;
+        fitToChildren(newParent);
+
+        if ( oldParent != NULL_NODE ) {
+            if ( child1[oldParent] == sibling ) {
+                child1[oldParent] = newParent;
+            } else {
+                child2[oldParent] = newParent;
+            }
+        } else {
+            root = newParent;
+        }
+
+        refitUpwards(parent[leaf]);
+    }
+
+    /**
+     * This method returns the cost of descending into a child
+     * when a leaf is inserted
+     * @param child the child
+     * @param leaf the leaf which is inserted
+     * @return the cost of descending into the child
+     */
+    private float descendCost(int child, int leaf) {
+        if ( child1[child] == NULL_NODE ) {
+            return unionPerimeter(child, leaf);
+        }
+        return unionPerimeter(child, leaf) - perimeter(child);
+    }
+
+    /**
+     * This method removes a leaf from the tree
+     * Its parent is removed too, and the sibling takes its place
+     * @param leaf the leaf
+     */
+    private void removeLeaf(int leaf) {
+        if ( leaf == root ) {
+            root = NULL_NODE;
+            return;
+        }
+
+        int parentNode = parent[leaf];
+        int grandParent = parent[parentNode];
+        int sibling = child1[parentNode] == leaf ? child2[parentNode] : child1[parentNode];
+
+        if ( grandParent != NULL_NODE ) {
+            if ( child1[grandParent] == parentNode ) {
+                child1[grandParent] = sibling;
+            } else {
+                child2[grandParent] = sibling;
+            }
+            parent[sibling] = grandParent;
+            freeNode(parentNode);
+            refitUpwards(grandParent);
+        } else {
+            root = sibling;
+            parent[sibling] = NULL_NODE;
+            freeNode(parentNode);
+        }
+    }
+
+    /**
+     * This method balances and fits the nodes from a node up to the root
+     * @param index the first node
+     */
+    private void refitUpwards(int index) {
+        while ( index != NULL_NODE ) {
+            index = balance(index);
+            fitToChildren(index);
+            index = parent[index];
+        }
+    }
+
+    /**
+     * This method makes a left or right rotation if the node
+     * is imbalanced
+     * @param a the node
+     * @return the node which takes the place of a
+     */
+    private int balance(int a) {
+        if ( child1[a] == NULL_NODE || height[a] < 2 ) {
+            return a;
+        }
+
+        int b = child1[a];
+        int c = child2[a];
+        int balance = height[c] - height[b];
+
+        if ( balance > 1 ) {
+            return rotate(a, c, b);
+        }
+        if ( balance < -1 ) {
+            return rotate(a, b, c);
+        }
+        return a;
+    }
+
+    /**
+     * This method rotates the tallest child of a node up
+     * @param a the node
+     * @param up the tallest child, which goes up
+     * @param other the other child
+     * @return the child which takes the place of a
+     */
+    private int rotate(int a, int up, int other) {
+        int f = child1[up];
+        int g = child2[up];
+
+        child1[up] = a;
+        parent[up] = parent[a];
+        parent[a] = up;
+
+        if ( parent[up] != NULL_NODE ) {
+            if ( child1[parent[up]] == a ) {
+                child1[parent[up]] = up;
+            } else {
+                child2[parent[up]] = up;
+            }
+        } else {
+            root = up;
+        }
+
+        // The tallest grandchild stays with up, the other one goes to a
+        int keep = height[f] > height[g] ? f : g;
+        int give = keep == f ? g : f;
+        child2[up] = keep;
+        if ( child1[a] == up ) {
+            child1[a] = give;
+        } else {
+            child2[a] = give;
+        }
+        parent[give] = a;
+        fitToChildren(a);
+        fitToChildren(up);
+        return up;
+    }
+
+    ////////////////////////////////////////////////////////////////
+    // Polygons
+
+    /**
+     * This method inserts a polygon with a fat bounding box
+     * @param body the index of the polygon
+     */
+    private void insertBody(int body) {
+        int leaf = allocateNode();
+        nodeBody[leaf] = body;
+        setFatBounds(leaf, bodies[body]);
+        insertLeaf(leaf);
+        bodyLeaf[body] = leaf;
+    }
+
+    /**
+     * This method removes a polygon
+     * @param body the index of the polygon
+     */
+    private void removeBody(int body) {
+        int leaf = bodyLeaf[body];
+        removeLeaf(leaf);
+        freeNode(leaf);
+    }
+
+    /**
+     * This method sets the bounding box of a leaf as
+     * the bounding box of the polygon plus the margin
+     * @param leaf the leaf
+     * @param polygon the polygon
+     */
+    private void setFatBounds(int leaf, Polygon polygon) {
+        nodeMinX[leaf] = polygon.getMinX() - margin;
+        nodeMinY[leaf] = polygon.getMinY() - margin;
+        nodeMaxX[leaf] = polygon.getMaxX() + margin;
+        nodeMaxY[leaf] = polygon.getMaxY() + margin;
+    }
+
+    /**
+     * This method checks if the bounding box of a polygon
+     * is still inside the fat bounding box of its leaf
+     * @param leaf the leaf
+     * @param polygon the polygon
+     * @return if the leaf doesn't need to be moved
+     */
+    private boolean fatBoundsContain(int leaf, Polygon polygon) {
+        return nodeMinX[leaf] <= polygon.getMinX() && nodeMinY[leaf] <= polygon.getMinY() &&
+                nodeMaxX[leaf] >= polygon.getMaxX() && nodeMaxY[leaf] >= polygon.getMaxY();
+    }
+
+    /**
+     * This method updates the tree with the polygons
+     * Only the polygons which leave their fat bounding box,
+     * and the new polygons, are inserted again
+     * @param polygons the polygons, updated
+     */
+    public void update(List<Polygon> polygons) {
+        int n = polygons.size();
+        if ( bodies.length < n ) {
+            int capacity = Math.max(n, bodies.length * 2);
+            bodies = Arrays.copyOf(bodies, capacity);
+            bodyLeaf = Arrays.copyOf(bodyLeaf, capacity);
+        }
+        movedBodies = 0;
+        for ( int i = 0; i < n; i++ ) {
+            Polygon polygon = polygons.get(i);
+            if ( i < numBodies && bodies[i] == polygon && fatBoundsContain(bodyLeaf[i], polygon) ) {
+                continue;
+            }
+            if ( i < numBodies ) {
+                removeBody(i);
+            }
+            bodies[i] = polygon;
+            insertBody(i);
+            movedBodies++;
+        }
+        for ( int i = n; i < numBodies; i++ ) {
+            removeBody(i);
+            bodies[i] = null;
+        }
+        numBodies = n;
+    }
+
+    @Override
+    public void findPairs(List<Polygon> polygons, PairList pairs) {
+        pairs.clear();
+        update(polygons);
+        candidatePairs = 0;
+        testedPairs = 0;
+        for ( int body = 0; body < numBodies; body++ ) {
+            Polygon polygon = bodies[body];
+            int leaf = bodyLeaf[body];
+            int top = push(0, root);
+            while ( top > 0 ) {
+                int node = stack[--top];
+                if ( !overlap(node, nodeMinX[leaf], nodeMinY[leaf], nodeMaxX[leaf], nodeMaxY[leaf]) ) {
+                    continue;
+                }
+                if ( child1[node] != NULL_NODE ) {
+                    top = push(top, child1[node]);
+                    top = push(top, child2[node]);
+                    continue;
+                }
+                int other = nodeBody[node];
+                if ( other <= body ) {
+                    continue;
+                }
+                testedPairs++;
+                Polygon otherPolygon = bodies[other];
+                if ( polygon.getMinX() <= otherPolygon.getMaxX() && otherPolygon.getMinX() <= polygon.getMaxX() &&
+                        polygon.getMinY() <= otherPolygon.getMaxY() && otherPolygon.getMinY() <= polygon.getMaxY() ) {
+                    pairs.add(body, other);
+                    candidatePairs++;
+                }
+            }
+        }
+    }
+
+    /**
+     * This method pushes a node in the traversal stack
+     * @param top the number of nodes in the stack
+     * @param node the node
+     * @return the new number of nodes in the stack
+     */
+    private int push(int top, int node) {
+        if ( node == NULL_NODE ) {
+            return top;
+        }
+        if ( top == stack.length ) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[top] = node;
+        return top + 1;
+    }
+
+    /**
+     * This method checks if a node overlaps a box
+     * @param node the node
+     * @param minX the left side of the box
+     * @param minY the top side of the box
+     * @param maxX the right side of the box
+     * @param maxY the bottom side of the box
+     * @return if the node overlaps the box
+     */
+    private boolean overlap(int node, float minX, float minY, float maxX, float maxY) {
+        return nodeMinX[node] <= maxX && minX <= nodeMaxX[node] && nodeMinY[node] <= maxY && minY <= nodeMaxY[node];
+    }
+
+    ////////////////////////////////////////////////////////////////
+    // Queries
+
+    /**
+     * This method returns the number of positions of the stack
+     * of a query, which is the height of the tree plus one
+     * The stack of a query must be at least this size, and it
+     * must be checked again when the tree is updated
+     * @return the size of the stack of a query
+     */
+    public int getQueryStackSize() {
+        return getHeight() + 1;
+    }
+
+    /**
+     * This method returns the internal stack, big enough for a query
+     * @return the internal stack
+     */
+    private int[] internalStack() {
+        if ( stack.length < getQueryStackSize() ) {
+            stack = new int[Math.max(getQueryStackSize(), stack.length * 2)];
+        }
+        return stack;
+    }
+
+    /**
+     * This method checks the stack of a query given by the caller
+     * @param stack the stack
+     * @throws IllegalArgumentException if the stack is too small
+     */
+    private void checkStack(int[] stack) {
+        if ( stack.length < getQueryStackSize() ) {
+            throw new IllegalArgumentException("The stack has " + stack.length + " positions, the query needs " + getQueryStackSize());
+        }
+    }
+
+    /**
+     * This method pushes a node in the stack of a query
+     * The stack is never full, its size is checked before the query
+     * @param stack the stack
+     * @param top the number of nodes in the stack
+     * @param node the node
+     * @return the new number of nodes in the stack
+     */
+    private static int push(int[] stack, int top, int node) {
+        if ( node == NULL_NODE ) {
+            return top;
+        }
+        stack[top] = node;
+        return top + 1;
+    }
+
+    /**
+     * This method finds the polygons which contain a point
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param out the array where the indices of the polygons are written
+     * @return the number of polygons found, at most out.length
+     */
+    public int queryPoint(float x, float y, int[] out) {
+        return queryPoint(x, y, out, 0, out.length, internalStack());
+    }
+
+    /**
+     * This method finds the polygons which contain a point, with the stack
+     * of the caller, so several threads can query the tree at the same time
+     * if it isn't updated meanwhile
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param out the array where the indices of the polygons are written
+     * @param offset the first position of out to write
+     * @param maxResults the maximum number of polygons to write
+     * @param stack the stack of the query, of getQueryStackSize() positions at least
+     * @return the number of polygons found, at most maxResults
+     */
+    public int queryPoint(float x, float y, int[] out, int offset, int maxResults, int[] stack) {
+        checkStack(stack);
+        int found = 0;
+        int top = push(stack, 0, root);
+        while ( top > 0 && found < maxResults ) {
+            int node = stack[--top];
+            if ( !overlap(node, x, y, x, y) ) {
+                continue;
+            }
+            if ( child1[node] != NULL_NODE ) {
+                top = push(stack, top, child1[node]);
+                top = push(stack, top, child2[node]);
+            } else if ( ConvexPolygonCollisions.pointInPolygon(bodies[nodeBody[node]], x, y) ) {
+                out[offset + found++] = nodeBody[node];
+            }
+        }
+        return found;
+    }
+
+    /**
+     * This method finds the polygons which overlap a box
+     * @param minX the left side of the box
+     * @param minY the top side of the box
+     * @param maxX the right side of the box
+     * @param maxY the bottom side of the box
+     * @param out the array where the indices of the polygons are written
+     * @return the number of polygons found, at most out.length
+     */
+    public int queryAABB(float minX, float minY, float maxX, float maxY, int[] out) {
+        return queryAABB(minX, minY, maxX, maxY, out, 0, out.length, internalStack());
+    }
+
+    /**
+     * This method finds the polygons which overlap a box, with the stack
+     * of the caller, so several threads can query the tree at the same time
+     * if it isn't updated meanwhile
+     * @param minX the left side of the box
+     * @param minY the top side of the box
+     * @param maxX the right side of the box
+     * @param maxY the bottom side of the box
+     * @param out the array where the indices of the polygons are written
+     * @param offset the first position of out to write
+     * @param maxResults the maximum number of polygons to write
+     * @param stack the stack of the query, of getQueryStackSize() positions at least
+     * @return the number of polygons found, at most maxResults
+     */
+    public int queryAABB(float minX, float minY, float maxX, float maxY, int[] out, int offset, int maxResults, int[] stack) {
+        checkStack(stack);
+        int found = 0;
+        int top = push(stack, 0, root);
+        while ( top > 0 && found < maxResults ) {
+            int node = stack[--top];
+            if ( !overlap(node, minX, minY, maxX, maxY) ) {
+                continue;
+            }
+            if ( child1[node] != NULL_NODE ) {
+                top = push(stack, top, child1[node]);
+                top = push(stack, top, child2[node]);
+            } else if ( ConvexPolygonCollisions.polygonOverlapAABB(bodies[nodeBody[node]], minX, minY, maxX, maxY) ) {
+                out[offset + found++] = nodeBody[node];
+            }
+        }
+        return found;
+    }
+
+    /**
+     * This method finds the first polygon hit by a ray
+     * The points of the ray are origin + t * direction, with t in [0, maxT]
+     * @param originX the x coordinate of the origin of the ray
+     * @param originY the y coordinate of the origin of the ray
+     * @param directionX the x coordinate of the direction of the ray
+     * @param directionY the y coordinate of the direction of the ray
+     * @param maxT the maximum fraction of the direction to test
+     * @param fraction the array where the fraction of the hit is written, in its first position
+     * @return the index of the first polygon hit, or -1 if there is none
+     */
+    public int rayCast(float originX, float originY, float directionX, float directionY, float maxT, float[] fraction) {
+        return rayCast(originX, originY, directionX, directionY, maxT, fraction, 0, internalStack());
+    }
+
+    /**
+     * This method finds the first polygon hit by a ray, with the stack
+     * of the caller, so several threads can query the tree at the same time
+     * if it isn't updated meanwhile
+     * @param originX the x coordinate of the origin of the ray
+     * @param originY the y coordinate of the origin of the ray
+     * @param directionX the x coordinate of the direction of the ray
+     * @param directionY the y coordinate of the direction of the ray
+     * @param maxT the maximum fraction of the direction to test
+     * @param fraction the array where the fraction of the hit is written
+     * @param index the position of fraction to write
+     * @param stack the stack of the query, of getQueryStackSize() positions at least
+     * @return the index of the first polygon hit, or -1 if there is none
+     */
+    public int rayCast(float originX, float originY, float directionX, float directionY, float maxT,
+                       float[] fraction, int index, int[] stack) {
+        checkStack(stack);
+        int hit = -1;
+        float best = maxT;
+        int top = push(stack, 0, root);
+        while ( top > 0 ) {
+            int node = stack[--top];
+            if ( !rayOverlap(node, originX, originY, directionX, directionY, best) ) {
+                continue;
+            }
+            if ( child1[node] != NULL_NODE ) {
+                top = push(stack, top, child1[node]);
+                top = push(stack, top, child2[node]);
+                continue;
+            }
+            float t = ConvexPolygonCollisions.rayCastPolygon(bodies[nodeBody[node]], originX, originY, directionX, directionY, best);
+            if ( t >= 0 && (hit == -1 || t < best) ) {
+                best = t;
+                hit = nodeBody[node];
+            }
+        }
+        if ( hit != -1 ) {
+            fraction[index] = best;
+        }
+        return hit;
+    }
+
+    /**
+     * This method checks if a ray crosses the box of a node,
+     * using the slabs of the box
+     * @param node the node
+     * @param originX the x coordinate of the origin of the ray
+     * @param originY the y coordinate of the origin of the ray
+     * @param directionX the x coordinate of the direction of the ray
+     * @param directionY the y coordinate of the direction of the ray
+     * @param maxT the maximum fraction of the direction to test
+     * @return if the ray crosses the box
+     */
+    private boolean rayOverlap(int node, float originX, float originY, float directionX, float directionY, float maxT) {
+        float tEnter = 0;
+        float tExit = maxT;
+        if ( directionX == 0 ) {
+            if ( originX < nodeMinX[node] || originX > nodeMaxX[node] ) {
+                return false;
+            }
+        } else {
+            float t1 = (nodeMinX[node] - originX) / directionX;
+            float t2 = (nodeMaxX[node] - originX) / directionX;
+            tEnter = Float.max(tEnter, Float.min(t1, t2));
+            tExit = Float.min(tExit, Float.max(t1, t2));
+        }
+        if ( directionY == 0 ) {
+            if ( originY < nodeMinY[node] || originY > nodeMaxY[node] ) {
+                return false;
+            }
+        } else {
+            float t1 = (nodeMinY[node] - originY) / directionY;
+            float t2 = (nodeMaxY[node] - originY) / directionY;
+            tEnter = Float.max(tEnter, Float.min(t1, t2));
+            tExit = Float.min(tExit, Float.max(t1, t2));
+        }
+        return tEnter <= tExit;
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    @Override
+    public int getCandidatePairs() {
+        return candidatePairs;
+    }
+
+    @Override
+    public int getTestedPairs() {
+        return testedPairs;
+    }
+
+    /**
+     * This method returns the number of polygons which were
+     * inserted again in the last update
+     * @return the number of polygons moved inside the tree
+     */
+    public int getMovedBodies() {
+        return movedBodies;
+    }
+
+    /**
+     * This method returns the height of the tree
+     * @return the height of the root, or 0 if the tree is empty
+     */
+    public int getHeight() {
+        return root == NULL_NODE ? 0 : height[root];
+    }
+}
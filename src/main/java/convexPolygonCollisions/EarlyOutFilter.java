@@ -0,0 +1,156 @@
+package convexPolygonCollisions;
+
+/**
+ * This class is a cheap stage which runs before the SAT,
+ * it rejects the pairs of polygons which are clearly apart
+ * First it compares the bounding circles, which only need the
+ * positions and the radii of the models, and then the axis
+ * aligned bounding boxes of the transformed points
+ * Only the pairs which pass both tests project any axis
+ * The stage can be disabled, then all the pairs go to the SAT
+ * It counts how many pairs each test rejects, so the work it
+ * saves can be measured on different scenes, and it also adds
+ * them to the early exits of the metrics
+ *
+ * @class EarlyOutFilter
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class EarlyOutFilter {
+
+    /**
+     * The flag to indicate the stage is enabled
+     */
+    private boolean enabled = true;
+
+    /**
+     * The number of pairs tested
+     */
+    private long tests = 0;
+
+    /**
+     * The number of pairs rejected by the bounding circles
+     */
+    private long circleRejects = 0;
+
+    /**
+     * The number of pairs rejected by the bounding boxes
+     */
+    private long boundsRejects = 0;
+
+    /**
+     * The metrics where the rejected pairs are counted as early exits
+     */
+    private CollisionMetrics metrics = CollisionMetrics.DISABLED;
+
+    /**
+     * This method checks if the bounding circles of two polygons overlap
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return if the bounding circles overlap
+     */
+    public static boolean boundingCirclesOverlap(Polygon r1, Polygon r2) {
+        float dx = r2.getPosition().getX() - r1.getPosition().getX();
+        float dy = r2.getPosition().getY() - r1.getPosition().getY();
+        float radius = r1.getBoundingRadius() + r2.getBoundingRadius();
+        return dx * dx + dy * dy <= radius * radius;
+    }
+
+    /**
+     * This method checks if the bounding boxes of two polygons overlap
+     * The polygons must be updated before
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return if the bounding boxes overlap
+     */
+    public static boolean boundsOverlap(Polygon r1, Polygon r2) {
+        return r1.getMinX() <= r2.getMaxX() && r2.getMinX() <= r1.getMaxX() &&
+                r1.getMinY() <= r2.getMaxY() && r2.getMinY() <= r1.getMaxY();
+    }
+
+    /**
+     * This method checks if two polygons may overlap
+     * The polygons must be updated before
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return false if the polygons surely don't overlap,
+     * true if the SAT must test them
+     */
+    public boolean mayOverlap(Polygon r1, Polygon r2) {
+        if ( !enabled ) {
+            return true;
+        }
+        tests++;
+        if ( !boundingCirclesOverlap(r1, r2) ) {
+            circleRejects++;
+            metrics.increment(CollisionMetrics.Counter.EARLY_EXITS);
+            return false;
+        }
+        if ( !boundsOverlap(r1, r2) ) {
+            boundsRejects++;
+            metrics.increment(CollisionMetrics.Counter.EARLY_EXITS);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * This method contains the algorithm "SAT" with the cached
+     * normals, after the early out stage
+     * The polygons must be updated before
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return if there is a overlap between the two polygons
+     */
+    public boolean shapeOverlapSAT(Polygon r1, Polygon r2) {
+        return mayOverlap(r1, r2) && ConvexPolygonCollisions.shapeOverlapSATCached(r1, r2);
+    }
+
+    /**
+     * This method sets all the counters to zero
+     */
+    public void resetMetrics() {
+        tests = 0;
+        circleRejects = 0;
+        boundsRejects = 0;
+    }
+
+    /**
+     * This method returns the fraction of the tested pairs
+     * which have been rejected before the SAT
+     * @return the reject rate, between 0 and 1
+     */
+    public double getRejectRate() {
+        return tests == 0 ? 0 : (double) (circleRejects + boundsRejects) / tests;
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getTests() {
+        return tests;
+    }
+
+    public long getCircleRejects() {
+        return circleRejects;
+    }
+
+    public long getBoundsRejects() {
+        return boundsRejects;
+    }
+
+    public CollisionMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setMetrics(CollisionMetrics metrics) {
+        this.metrics = metrics;
+    }
+}
@@ -0,0 +1,640 @@
+package convexPolygonCollisions;
+
+import java.util.Arrays;
+
+/**
+ * This class contains the algorithm "GJK" (Gilbert-Johnson-Keerthi)
+ * and the algorithm "EPA" (Expanding Polytope Algorithm)
+ * GJK works over the Minkowski difference of two convex shapes: the shapes
+ * overlap if and only if the difference contains the origin. It builds a
+ * simplex (a point, a segment or a triangle) of support points which gets
+ * closer to the origin on each iteration, so its cost grows with the sum
+ * of the vertex counts instead of with their product like the SAT
+ * EPA expands the last simplex of GJK until it finds the edge
+ * of the difference which is closest to the origin, that is the
+ * minimum translation vector of the penetration
+ * The simplex of each pair of polygons is remembered, so the next
+ * frame starts from it, and usually ends in one or two iterations
+ * The pairs get their entries from a PairSlotPool, so the entries
+ * of the pairs which are not tested in a frame are removed in endFrame
+ * An instance keeps work arrays, so it must not be shared between threads
+ *
+ * @class GJK
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class GJK {
+
+    /**
+     * The maximum number of iterations of GJK
+     */
+    private static final int MAX_ITERATIONS = 64;
+
+    /**
+     * The maximum number of iterations of EPA
+     */
+    private static final int MAX_EPA_ITERATIONS = 128;
+
+    /**
+     * The relative tolerance of the convergence
+     */
+    private static final float TOLERANCE = 1e-5f;
+
+    /**
+     * The relative tolerance of the convergence of EPA
+     */
+    private static final float EPA_TOLERANCE = 1e-4f;
+
+    /**
+     * The points of the simplex, in the Minkowski difference
+     */
+    private final float[] simplexX = new float[3], simplexY = new float[3];
+
+    /**
+     * The indices of the support points of the two shapes of each point of the simplex
+     */
+    private final int[] simplexA = new int[3], simplexB = new int[3];
+
+    /**
+     * The number of points of the simplex
+     */
+    private int simplexCount;
+
+    /**
+     * The point of the simplex closest to the origin
+     */
+    private float closestX, closestY;
+
+    /**
+     * The points of the polytope of EPA, in counter clockwise order
+     */
+    private float[] polytopeX = new float[16], polytopeY = new float[16];
+
+    /**
+     * The number of points of the polytope
+     */
+    private int polytopeCount;
+
+    /**
+     * The normal and the depth found by EPA
+     */
+    private float penetrationX, penetrationY, penetrationDepth;
+
+    /**
+     * The entries of the pairs whose simplex is cached
+     */
+    private final PairSlotPool entries;
+
+    /**
+     * The number of points of the simplex of each entry
+     */
+    private final int[] entryCount;
+
+    /**
+     * The indices of the support points of the simplex of each entry,
+     * three per entry, of the polygon with the lower id and the other one
+     */
+    private final int[] entryA, entryB;
+
+    /**
+     * The number of runs of GJK
+     */
+    private long tests = 0;
+
+    /**
+     * The number of iterations of GJK
+     */
+    private long iterations = 0;
+
+    /**
+     * The number of runs which started from a cached simplex
+     */
+    private long warmStarts = 0;
+
+    /**
+     * Constructor
+     * @param maxEntries the maximum number of pairs whose simplex is remembered
+     */
+    public GJK(int maxEntries) {
+        entries = new PairSlotPool(maxEntries);
+        entryCount = new int[entries.getMaxSlots()];
+        entryA = new int[entries.getMaxSlots() * 3];
+        entryB = new int[entries.getMaxSlots() * 3];
+    }
+
+    /**
+     * Default constructor
+     */
+    public GJK() {
+        this(1 << 14);
+    }
+
+    /**
+     * This method starts a new frame
+     */
+    public void beginFrame() {
+        entries.beginFrame();
+    }
+
+    /**
+     * This method removes the simplices of the pairs
+     * which were not tested in the current frame
+     * @return the number of entries removed
+     */
+    public int endFrame() {
+        return entries.endFrame();
+    }
+
+    /**
+     * This method checks if two convex shapes overlap, without warm starting
+     * @param a the shape 1
+     * @param b the shape 2
+     * @return if there is a overlap between the two shapes
+     */
+    public boolean shapeOverlap(SupportShape a, SupportShape b) {
+        simplexCount = 0;
+        return run(a, b, true);
+    }
+
+    /**
+     * This method checks if two polygons overlap, starting from
+     * the simplex of the last time the pair was tested
+     * The polygons must be updated before
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return if there is a overlap between the two polygons
+     */
+    public boolean shapeOverlap(Polygon r1, Polygon r2) {
+        int entry = loadSimplex(r1, r2);
+        boolean overlap = run(r1, r2, true);
+        storeSimplex(r1, r2, entry);
+        return overlap;
+    }
+
+    /**
+     * This method calculates the distance between two convex shapes, without warm starting
+     * @param a the shape 1
+     * @param b the shape 2
+     * @return the distance, 0 if the shapes overlap
+     */
+    public float distance(SupportShape a, SupportShape b) {
+        simplexCount = 0;
+        return run(a, b, false) ? 0 : (float)Math.sqrt(closestX * closestX + closestY * closestY);
+    }
+
+    /**
+     * This method calculates the distance between two polygons, starting
+     * from the simplex of the last time the pair was tested
+     * The polygons must be updated before
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return the distance, 0 if the polygons overlap
+     */
+    public float distance(Polygon r1, Polygon r2) {
+        int entry = loadSimplex(r1, r2);
+        boolean overlap = run(r1, r2, false);
+        storeSimplex(r1, r2, entry);
+        return overlap ? 0 : (float)Math.sqrt(closestX * closestX + closestY * closestY);
+    }
+
+    /**
+     * This method contains the algorithms "GJK" and "EPA" and fills a contact manifold
+     * like ConvexPolygonCollisions.collideSAT: the normal goes from r1 to r2,
+     * and the contact points are found clipping the edges which face the normal
+     * If the polygons don't overlap, the normal is the direction of the closest
+     * points and the depth is the (negative) distance between them
+     * The polygons must be updated before
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @param manifold the manifold where the result is written
+     * @return if there is a overlap between the two polygons
+     */
+    public boolean collide(Polygon r1, Polygon r2, ContactManifold manifold) {
+        int entry = loadSimplex(r1, r2);
+        boolean overlap = run(r1, r2, false);
+        storeSimplex(r1, r2, entry);
+        if ( !overlap ) {
+            float distance = (float)Math.sqrt(closestX * closestX + closestY * closestY);
+            // The closest point of the difference r1 - r2 points from r2 to r1
+            manifold.set(false, -closestX / distance, -closestY / distance, -distance);
+            return false;
+        }
+        if ( !expand(r1, r2) ) {
+            // The polygons only touch, there is no penetration
+            float dx = r2.getPosition().getX() - r1.getPosition().getX();
+            float dy = r2.getPosition().getY() - r1.getPosition().getY();
+            float s = (float)Math.sqrt(dx * dx + dy * dy);
+            manifold.set(true, s == 0 ? 1 : dx / s, s == 0 ? 0 : dy / s, 0);
+        } else {
+            manifold.set(true, penetrationX, penetrationY, penetrationDepth);
+        }
+        ConvexPolygonCollisions.addContactPoints(r1, r2, referenceIsFirst(r1, r2, manifold.getNormalX(), manifold.getNormalY()), manifold);
+        return true;
+    }
+
+    /**
+     * This method chooses the polygon which owns the reference edge of the
+     * contact, the one with an edge whose normal is closer to the contact normal
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @param nx the x coordinate of the normal
+     * @param ny the y coordinate of the normal
+     * @return if the reference edge is an edge of r1
+     */
+    private static boolean referenceIsFirst(Polygon r1, Polygon r2, float nx, float ny) {
+        return maxAlignment(r1, nx, ny) + 1e-4f >= maxAlignment(r2, nx, ny);
+    }
+
+    /**
+     * This method finds the normal of a polygon most parallel to a direction
+     * The parallel edges share one axis, so the absolute value is used
+     * @param r the polygon
+     * @param nx the x coordinate of the direction
+     * @param ny the y coordinate of the direction
+     * @return the maximum absolute dot product
+     */
+    private static float maxAlignment(Polygon r, float nx, float ny) {
+        float[] normalX = r.getNormalX();
+        float[] normalY = r.getNormalY();
+        float best = 0;
+        for ( int a = 0; a < r.getAxisCount(); a++ ) {
+            best = Float.max(best, Math.abs(normalX[a] * nx + normalY[a] * ny));
+        }
+        return best;
+    }
+
+    /**
+     * This method finds the entry of a pair and copies its simplex
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return the entry of the pair, or -1 if it is not cached
+     */
+    private int loadSimplex(Polygon r1, Polygon r2) {
+        boolean swapped = r1.getId() > r2.getId();
+        int entry = entries.find(PairSlotPool.key(r1, r2));
+        simplexCount = 0;
+        if ( entry == PairSlotPool.NO_SLOT ) {
+            return PairSlotPool.NO_SLOT;
+        }
+        int[] indicesA = swapped ? entryB : entryA;
+        int[] indicesB = swapped ? entryA : entryB;
+        for ( int k = 0; k < entryCount[entry]; k++ ) {
+            // A polygon can change its model, then the cached indices are not valid any more
+            int ia = indicesA[entry * 3 + k];
+            int ib = indicesB[entry * 3 + k];
+            if ( ia >= r1.getP().length || ib >= r2.getP().length ) {
+                simplexCount = 0;
+                break;
+            }
+            setPoint(simplexCount++, r1, r2, ia, ib);
+        }
+        if ( simplexCount > 0 ) {
+            warmStarts++;
+        }
+        return entry;
+    }
+
+    /**
+     * This method stores the simplex of a pair
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @param entry the entry of the pair, or -1 if it is not cached
+     */
+    private void storeSimplex(Polygon r1, Polygon r2, int entry) {
+        boolean swapped = r1.getId() > r2.getId();
+        if ( entry == PairSlotPool.NO_SLOT ) {
+            entry = entries.acquire(PairSlotPool.key(r1, r2));
+            if ( entry == PairSlotPool.NO_SLOT ) {
+                return;
+            }
+        }
+        int[] indicesA = swapped ? entryB : entryA;
+        int[] indicesB = swapped ? entryA : entryB;
+        for ( int k = 0; k < simplexCount; k++ ) {
+            indicesA[entry * 3 + k] = simplexA[k];
+            indicesB[entry * 3 + k] = simplexB[k];
+        }
+        entryCount[entry] = simplexCount;
+    }
+
+    /**
+     * This method sets a point of the simplex
+     * @param k the position in the simplex
+     * @param a the shape 1
+     * @param b the shape 2
+     * @param ia the index of the support point of the shape 1
+     * @param ib the index of the support point of the shape 2
+     */
+    private void setPoint(int k, SupportShape a, SupportShape b, int ia, int ib) {
+        simplexA[k] = ia;
+        simplexB[k] = ib;
+        simplexX[k] = a.getSupportX(ia) - b.getSupportX(ib);
+        simplexY[k] = a.getSupportY(ia) - b.getSupportY(ib);
+    }
+
+    /**
+     * This method runs GJK from the current simplex
+     * When the shapes don't overlap, the closest point of the
+     * difference to the origin is left in closestX and closestY
+     * @param a the shape 1
+     * @param b the shape 2
+     * @param exitOnSeparatingAxis if it must stop as soon as an axis separates the
+     *                             shapes, without calculating the distance
+     * @return if there is a overlap between the two shapes
+     */
+    private boolean run(SupportShape a, SupportShape b, boolean exitOnSeparatingAxis) {
+        tests++;
+        if ( simplexCount == 0 ) {
+            setPoint(0, a, b, a.supportIndex(1, 0), b.supportIndex(-1, 0));
+            simplexCount = 1;
+        }
+        for ( int it = 0; it < MAX_ITERATIONS; it++ ) {
+            iterations++;
+            if ( reduce() ) {
+                return true;
+            }
+            float vv = closestX * closestX + closestY * closestY;
+            if ( vv == 0 ) {
+                return true;
+            }
+            int ia = a.supportIndex(-closestX, -closestY);
+            int ib = b.supportIndex(closestX, closestY);
+            float wx = a.getSupportX(ia) - b.getSupportX(ib);
+            float wy = a.getSupportY(ia) - b.getSupportY(ib);
+            float vw = closestX * wx + closestY * wy;
+            if ( exitOnSeparatingAxis && vw > 0 ) {
+                return false;
+            }
+            if ( vv - vw <= TOLERANCE * vv ) {
+                return false;
+            }
+            for ( int k = 0; k < simplexCount; k++ ) {
+                if ( simplexA[k] == ia && simplexB[k] == ib ) {
+                    return false;
+                }
+            }
+            setPoint(simplexCount++, a, b, ia, ib);
+        }
+        return false;
+    }
+
+    /**
+     * This method finds the point of the simplex closest to the origin,
+     * and removes the points of the simplex which are not needed for it
+     * @return if the simplex is a triangle which contains the origin
+     */
+    private boolean reduce() {
+        if ( simplexCount == 1 ) {
+            closestX = simplexX[0];
+            closestY = simplexY[0];
+            return false;
+        }
+        if ( simplexCount == 2 ) {
+            reduceToSegment(0, 1);
+            return false;
+        }
+
+        float area = cross(simplexX[1] - simplexX[0], simplexY[1] - simplexY[0], simplexX[2] - simplexX[0], simplexY[2] - simplexY[0]);
+        if ( area != 0 ) {
+            float e0 = cross(simplexX[1] - simplexX[0], simplexY[1] - simplexY[0], -simplexX[0], -simplexY[0]);
+            float e1 = cross(simplexX[2] - simplexX[1], simplexY[2] - simplexY[1], -simplexX[1], -simplexY[1]);
+            float e2 = cross(simplexX[0] - simplexX[2], simplexY[0] - simplexY[2], -simplexX[2], -simplexY[2]);
+            if ( area > 0 ? e0 >= 0 && e1 >= 0 && e2 >= 0 : e0 <= 0 && e1 <= 0 && e2 <= 0 ) {
+                return true;
+            }
+        }
+
+        // The origin is outside, the closest feature is one of the edges
+        int bestI = 0;
+        int bestJ = 1;
+        float bestDistance = Float.MAX_VALUE;
+        for ( int i = 0; i < 3; i++ ) {
+            int j = (i + 1) % 3;
+            float t = segmentParameter(i, j);
+            float px = simplexX[i] + t * (simplexX[j] - simplexX[i]);
+            float py = simplexY[i] + t * (simplexY[j] - simplexY[i]);
+            float distance = px * px + py * py;
+            if ( distance < bestDistance ) {
+                bestDistance = distance;
+                bestI = i;
+                bestJ = j;
+            }
+        }
+        reduceToSegment(bestI, bestJ);
+        return false;
+    }
+
+    /**
+     * This method leaves in the simplex the closest feature of a segment
+     * to the origin: one of its points or the whole segment
+     * @param i the first point of the segment
+     * @param j the second point of the segment
+     */
+    private void reduceToSegment(int i, int j) {
+        float t = segmentParameter(i, j);
+        if ( t <= 0 ) {
+            keep(i, -1);
+        } else if ( t >= 1 ) {
+            keep(j, -1);
+        } else {
+            closestX = simplexX[i] + t * (simplexX[j] - simplexX[i]);
+            closestY = simplexY[i] + t * (simplexY[j] - simplexY[i]);
+            keep(i, j);
+            return;
+        }
+        closestX = simplexX[0];
+        closestY = simplexY[0];
+    }
+
+    /**
+     * This method calculates the parameter of the point
+     * of a segment of the simplex closest to the origin
+     * @param i the first point of the segment
+     * @param j the second point of the segment
+     * @return the parameter, between 0 and 1
+     */
+    private float segmentParameter(int i, int j) {
+        float ex = simplexX[j] - simplexX[i];
+        float ey = simplexY[j] - simplexY[i];
+        float length2 = ex * ex + ey * ey;
+        if ( length2 == 0 ) {
+            return 0;
+        }
+        float t = -(simplexX[i] * ex + simplexY[i] * ey) / length2;
+        return Float.min(Float.max(t, 0), 1);
+    }
+
+    /**
+     * This method leaves one or two points in the simplex
+     * @param i the first point to keep
+     * @param j the second point to keep, or -1
+     */
+    private void keep(int i, int j) {
+        float xi = simplexX[i], yi = simplexY[i];
+        int ai = simplexA[i], bi = simplexB[i];
+        if ( j >= 0 ) {
+            float xj = simplexX[j], yj = simplexY[j];
+            int aj = simplexA[j], bj = simplexB[j];
+            simplexX[1] = xj;
+            simplexY[1] = yj;
+            simplexA[1] = aj;
+            simplexB[1] = bj;
+        }
+        simplexX[0] = xi;
+        simplexY[0] = yi;
+        simplexA[0] = ai;
+        simplexB[0] = bi;
+        simplexCount = j >= 0 ? 2 : 1;
+    }
+
+    /**
+     * This method runs EPA from the simplex left by GJK
+     * @param a the shape 1
+     * @param b the shape 2
+     * @return false if the simplex can't be made a triangle with area,
+     * it happens when the shapes only touch
+     */
+    private boolean expand(SupportShape a, SupportShape b) {
+        if ( simplexCount == 2 ) {
+            // The origin is on the segment, a third point at one side makes a triangle which contains it
+            float nx = -(simplexY[1] - simplexY[0]);
+            float ny = simplexX[1] - simplexX[0];
+            setPoint(2, a, b, a.supportIndex(nx, ny), b.supportIndex(-nx, -ny));
+            if ( cross(simplexX[1] - simplexX[0], simplexY[1] - simplexY[0], simplexX[2] - simplexX[0], simplexY[2] - simplexY[0]) == 0 ) {
+                setPoint(2, a, b, a.supportIndex(-nx, -ny), b.supportIndex(nx, ny));
+            }
+            simplexCount = 3;
+        }
+        if ( simplexCount < 3 ) {
+            return false;
+        }
+        float area = cross(simplexX[1] - simplexX[0], simplexY[1] - simplexY[0], simplexX[2] - simplexX[0], simplexY[2] - simplexY[0]);
+        if ( area == 0 ) {
+            return false;
+        }
+        polytopeX[0] = simplexX[0];
+        polytopeY[0] = simplexY[0];
+        int second = area > 0 ? 1 : 2;
+        polytopeX[1] = simplexX[second];
+        polytopeY[1] = simplexY[second];
+        polytopeX[2] = simplexX[3 - second];
+        polytopeY[2] = simplexY[3 - second];
+        polytopeCount = 3;
+
+        for ( int it = 0; it < MAX_EPA_ITERATIONS; it++ ) {
+            // The edge closest to the origin
+            int closest = -1;
+            float closestDistance = Float.MAX_VALUE;
+            float normalX = 0;
+            float normalY = 0;
+            for ( int i = 0; i < polytopeCount; i++ ) {
+                int j = (i + 1) % polytopeCount;
+                float ex = polytopeX[j] - polytopeX[i];
+                float ey = polytopeY[j] - polytopeY[i];
+                float length = (float)Math.sqrt(ex * ex + ey * ey);
+                if ( length == 0 ) {
+                    continue;
+                }
+                // The outward normal of a counter clockwise edge
+                float nx = ey / length;
+                float ny = -ex / length;
+                float distance = nx * polytopeX[i] + ny * polytopeY[i];
+                if ( distance < closestDistance ) {
+                    closestDistance = distance;
+                    closest = i;
+                    normalX = nx;
+                    normalY = ny;
+                }
+            }
+            if ( closest < 0 ) {
+                return false;
+            }
+            penetrationX = normalX;
+            penetrationY = normalY;
+            penetrationDepth = Float.max(closestDistance, 0);
+
+            int ia = a.supportIndex(normalX, normalY);
+            int ib = b.supportIndex(-normalX, -normalY);
+            float wx = a.getSupportX(ia) - b.getSupportX(ib);
+            float wy = a.getSupportY(ia) - b.getSupportY(ib);
+            float support = normalX * wx + normalY * wy;
+            if ( support - closestDistance <= EPA_TOLERANCE * Float.max(1, Math.abs(support)) ) {
+                return true;
+            }
+            insertPoint(closest + 1, wx, wy);
+        }
+        return true;
+    }
+
+    /**
+     * This method inserts a point in the polytope
+     * @param position the position of the new point
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     */
+    private void insertPoint(int position, float x, float y) {
+        if ( polytopeCount == polytopeX.length ) {
+            polytopeX = Arrays.copyOf(polytopeX, polytopeCount * 2);
+            polytopeY = Arrays.copyOf(polytopeY, polytopeCount * 2);
+        }
+        System.arraycopy(polytopeX, position, polytopeX, position + 1, polytopeCount - position);
+        System.arraycopy(polytopeY, position, polytopeY, position + 1, polytopeCount - position);
+        polytopeX[position] = x;
+        polytopeY[position] = y;
+        polytopeCount++;
+    }
+
+    /**
+     * This method calculates the 2D cross product of two vectors
+     * @param ax the x coordinate of the vector a
+     * @param ay the y coordinate of the vector a
+     * @param bx the x coordinate of the vector b
+     * @param by the y coordinate of the vector b
+     * @return ax * by - ay * bx
+     */
+    private static float cross(float ax, float ay, float bx, float by) {
+        return ax * by - ay * bx;
+    }
+
+    /**
+     * This method removes all the cached simplices
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * This method sets all the counters to zero
+     */
+    public void resetMetrics() {
+        tests = 0;
+        iterations = 0;
+        warmStarts = 0;
+    }
+
+    /**
+     * This method returns the mean number of iterations of GJK
+     * @return the mean number of iterations per test
+     */
+    public double getIterationsPerTest() {
+        return tests == 0 ? 0 : (double) iterations / tests;
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getTests() {
+        return tests;
+    }
+
+    public long getIterations() {
+        return iterations;
+    }
+
+    public long getWarmStarts() {
+        return warmStarts;
+    }
+}
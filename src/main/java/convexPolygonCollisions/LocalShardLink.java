@@ -0,0 +1,96 @@
+package convexPolygonCollisions;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class runs a shard in the same process, on its own thread
+ * The batches are passed by reference, nothing is serialized
+ *
+ * @class LocalShardLink
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class LocalShardLink implements ShardLink {
+
+    /**
+     * The shard
+     */
+    private final WorldShard shard;
+
+    /**
+     * The thread where the shard runs
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The step which is running, or null
+     */
+    private Future<Integer> running = null;
+
+    /**
+     * Constructor
+     * @param shard the shard
+     */
+    public LocalShardLink(WorldShard shard) {
+        this.shard = shard;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-" + shard.getIndex());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void beginStep(BodyBatch migrants, BodyBatch ghosts, boolean advance) {
+        running = executor.submit(() -> {
+            shard.addOwned(migrants);
+            shard.setGhosts(ghosts);
+            return shard.step(advance);
+        });
+    }
+
+    @Override
+    public int endStep() throws IOException {
+        try {
+            return running.get();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the shard " + shard.getIndex());
+        } catch ( ExecutionException e ) {
+            throw new IOException("The shard " + shard.getIndex() + " has failed", e.getCause());
+        } finally {
+            running = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    @Override
+    public int getOwnedCount() {
+        return shard.getOwnedCount();
+    }
+
+    @Override
+    public BodyBatch getMigrants(int shard) {
+        return this.shard.getMigrants(shard);
+    }
+
+    @Override
+    public BodyBatch getGhosts(int shard) {
+        return this.shard.getGhosts(shard);
+    }
+
+    public WorldShard getShard() {
+        return shard;
+    }
+}
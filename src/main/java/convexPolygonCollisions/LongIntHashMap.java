@@ -0,0 +1,186 @@
+package convexPolygonCollisions;
+
+import java.util.Arrays;
+
+/**
+ * This class is a hash map from long keys to int values
+ * It uses open addressing with linear probing over primitive
+ * arrays, so the keys are never boxed
+ * The removal shifts back the next entries of the cluster,
+ * so there are no "deleted" marks which slow down the search
+ *
+ * @class LongIntHashMap
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class LongIntHashMap {
+
+    /**
+     * The keys of the slots
+     */
+    private long[] keys;
+
+    /**
+     * The values of the slots
+     */
+    private int[] values;
+
+    /**
+     * The flags which indicate a slot is used
+     */
+    private boolean[] used;
+
+    /**
+     * The number of entries
+     */
+    private int size = 0;
+
+    /**
+     * The mask for the index of the slots,
+     * the number of slots is always a power of two
+     */
+    private int mask;
+
+    /**
+     * Constructor
+     * @param expectedSize the number of entries expected
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Default constructor
+     */
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * This method mixes the bits of the key
+     * @param key the key
+     * @return the index of the first slot for the key
+     */
+    private int slot(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+
+    /**
+     * This method returns the value of a key
+     * @param key the key
+     * @param missing the value returned if the key is not in the map
+     * @return the value of the key, or missing
+     */
+    public int get(long key, int missing) {
+        for ( int i = slot(key); used[i]; i = (i + 1) & mask ) {
+            if ( keys[i] == key ) {
+                return values[i];
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * This method puts a value for a key
+     * @param key the key
+     * @param value the new value of the key
+     */
+    public void put(long key, int value) {
+        int i = slot(key);
+        while ( used[i] ) {
+            if ( keys[i] == key ) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        used[i] = true;
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        if ( size * 2 > keys.length ) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * This method removes a key
+     * @param key the key
+     * @return if the key was in the map
+     */
+    public boolean remove(long key) {
+        int i = slot(key);
+        while ( used[i] ) {
+            if ( keys[i] == key ) {
+                shiftBack(i);
+                size--;
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * This method fills the hole left by a removed entry,
+     * moving back the next entries of the cluster which
+     * can't be found if the hole stays empty
+     * @param hole the slot of the removed entry
+     */
+    private void shiftBack(int hole) {
+        int i = hole;
+        while ( true ) {
+            i = (i + 1) & mask;
+            if ( !used[i] ) {
+                break;
+            }
+            int home = slot(keys[i]);
+            // The entry can move to the hole if its home slot is not between the hole and i
+            if ( ((i - home) & mask) >= ((i - hole) & mask) ) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        used[hole] = false;
+    }
+
+    /**
+     * This method rebuilds the map with more slots
+     * @param capacity the new number of slots
+     */
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        size = 0;
+        for ( int i = 0; i < oldKeys.length; i++ ) {
+            if ( oldUsed[i] ) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * This method removes all the entries
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,178 @@
+package convexPolygonCollisions;
+
+/**
+ * This class chooses the algorithm of the narrow-phase for each pair
+ * The SAT is faster for polygons with few vertices, but its cost grows
+ * with the product of the vertex counts, so for polygons with many
+ * vertices, like the regular polygons used as circles, GJK is faster
+ * In the mode AUTO the pairs whose total number of vertices reaches
+ * a threshold go to GJK, and the others to the SAT
+ * An instance keeps the simplices of GJK, so it must not be shared between threads
+ *
+ * @class NarrowPhaseStrategy
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class NarrowPhaseStrategy {
+
+    /**
+     * The algorithms which can be chosen
+     */
+    public enum Mode {
+        SAT,
+        GJK,
+        AUTO
+    }
+
+    /**
+     * The default number of vertices of a pair from which GJK is used
+     */
+    public static final int DEFAULT_VERTEX_THRESHOLD = 16;
+
+    /**
+     * The GJK instance, with the simplices of the pairs
+     */
+    private final GJK gjk;
+
+    /**
+     * The algorithm chosen
+     */
+    private Mode mode;
+
+    /**
+     * The total number of vertices of a pair from which GJK is used
+     */
+    private int vertexThreshold;
+
+    /**
+     * The number of pairs tested with the SAT
+     */
+    private long satPairs = 0;
+
+    /**
+     * The number of pairs tested with GJK
+     */
+    private long gjkPairs = 0;
+
+    /**
+     * Constructor
+     * @param mode the algorithm chosen
+     * @param vertexThreshold the total number of vertices of a pair from which GJK is used
+     */
+    public NarrowPhaseStrategy(Mode mode, int vertexThreshold) {
+        this.gjk = new GJK();
+        this.mode = mode;
+        this.vertexThreshold = vertexThreshold;
+    }
+
+    /**
+     * Default constructor, the mode is AUTO
+     */
+    public NarrowPhaseStrategy() {
+        this(Mode.AUTO, DEFAULT_VERTEX_THRESHOLD);
+    }
+
+    /**
+     * This method checks which algorithm is used for a pair
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return if the pair is tested with GJK
+     */
+    public boolean usesGJK(Polygon r1, Polygon r2) {
+        switch ( mode ) {
+            case SAT:
+                return false;
+            case GJK:
+                return true;
+            default:
+                return r1.getP().length + r2.getP().length >= vertexThreshold;
+        }
+    }
+
+    /**
+     * This method starts a new frame
+     */
+    public void beginFrame() {
+        gjk.beginFrame();
+    }
+
+    /**
+     * This method ends the frame, removing the simplices
+     * of the pairs which were not tested in it
+     */
+    public void endFrame() {
+        gjk.endFrame();
+    }
+
+    /**
+     * This method checks if two polygons overlap with the algorithm chosen
+     * The polygons must be updated before
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return if there is a overlap between the two polygons
+     */
+    public boolean shapeOverlap(Polygon r1, Polygon r2) {
+        if ( usesGJK(r1, r2) ) {
+            gjkPairs++;
+            return gjk.shapeOverlap(r1, r2);
+        }
+        satPairs++;
+        return ConvexPolygonCollisions.shapeOverlapSATCached(r1, r2);
+    }
+
+    /**
+     * This method fills a contact manifold with the algorithm chosen
+     * The polygons must be updated before
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @param manifold the manifold where the result is written
+     * @return if there is a overlap between the two polygons
+     */
+    public boolean collide(Polygon r1, Polygon r2, ContactManifold manifold) {
+        if ( usesGJK(r1, r2) ) {
+            gjkPairs++;
+            return gjk.collide(r1, r2, manifold);
+        }
+        satPairs++;
+        return ConvexPolygonCollisions.collideSAT(r1, r2, manifold);
+    }
+
+    /**
+     * This method sets all the counters to zero
+     */
+    public void resetMetrics() {
+        satPairs = 0;
+        gjkPairs = 0;
+        gjk.resetMetrics();
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public GJK getGJK() {
+        return gjk;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getVertexThreshold() {
+        return vertexThreshold;
+    }
+
+    public long getSatPairs() {
+        return satPairs;
+    }
+
+    public long getGjkPairs() {
+        return gjkPairs;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public void setVertexThreshold(int vertexThreshold) {
+        this.vertexThreshold = vertexThreshold;
+    }
+}
@@ -0,0 +1,111 @@
+package convexPolygonCollisions;
+
+import java.util.Arrays;
+
+/**
+ * This class is a list of pairs of polygon indices,
+ * stored in a primitive array so adding pairs
+ * doesn't create objects
+ * Each pair is kept with the smallest index first
+ *
+ * @class PairList
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class PairList {
+
+    /**
+     * The pairs, packed as (first << 32) | second
+     */
+    private long[] pairs;
+
+    /**
+     * The number of pairs
+     */
+    private int size = 0;
+
+    /**
+     * Constructor
+     * @param capacity the initial capacity
+     */
+    public PairList(int capacity) {
+        pairs = new long[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Default constructor
+     */
+    public PairList() {
+        this(64);
+    }
+
+    /**
+     * This method adds a pair, the smallest index
+     * is stored as the first one
+     * @param a the index of one polygon
+     * @param b the index of the other polygon
+     */
+    public void add(int a, int b) {
+        if ( size == pairs.length ) {
+            pairs = Arrays.copyOf(pairs, pairs.length * 2);
+        }
+        pairs[size++] = a < b ? pack(a, b) : pack(b, a);
+    }
+
+    /**
+     * This method packs two indices in a long
+     * @param first the first index
+     * @param second the second index
+     * @return the packed pair
+     */
+    public static long pack(int first, int second) {
+        return ((long) first << 32) | (second & 0xFFFFFFFFL);
+    }
+
+    /**
+     * This method removes all the pairs
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * This method sorts the pairs by the first index and then
+     * by the second one, which is the same order of the
+     * classic loop "for m, for n > m"
+     */
+    public void sort() {
+        Arrays.sort(pairs, 0, size);
+    }
+
+    /**
+     * This method returns the first index of a pair
+     * @param i the position of the pair in the list
+     * @return the smallest index of the pair
+     */
+    public int getFirst(int i) {
+        return (int) (pairs[i] >>> 32);
+    }
+
+    /**
+     * This method returns the second index of a pair
+     * @param i the position of the pair in the list
+     * @return the biggest index of the pair
+     */
+    public int getSecond(int i) {
+        return (int) pairs[i];
+    }
+
+    /**
+     * This method returns a pair packed as a long
+     * @param i the position of the pair in the list
+     * @return the packed pair
+     */
+    public long get(int i) {
+        return pairs[i];
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,176 @@
+package convexPolygonCollisions;
+
+/**
+ * This class gives a slot to each pair of polygons remembered by a cache,
+ * like the last separating axis or the last simplex of the pair. The caches
+ * keep their data in arrays indexed by the slot
+ * The pairs are identified by the ids of the polygons, and each slot is
+ * stamped with the last frame it was used, so the slots of the pairs which
+ * are not tested in a frame (because they are not candidates of the
+ * broad-phase any more) are freed in endFrame
+ * The slots in use are kept in a list, so endFrame only visits them
+ * The number of slots is limited: when all of them are used
+ * the new pairs don't get a slot
+ *
+ * @class PairSlotPool
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class PairSlotPool {
+
+    /**
+     * The value returned when a pair has no slot
+     */
+    public static final int NO_SLOT = -1;
+
+    /**
+     * The maximum number of slots
+     */
+    private final int maxSlots;
+
+    /**
+     * The map from the packed ids of a pair to its slot
+     */
+    private final LongIntHashMap map;
+
+    /**
+     * The packed ids of the pair of each slot
+     */
+    private final long[] slotKey;
+
+    /**
+     * The last frame each slot was used
+     */
+    private final int[] slotFrame;
+
+    /**
+     * The free slots
+     */
+    private final int[] freeSlots;
+
+    /**
+     * The number of free slots
+     */
+    private int numFreeSlots;
+
+    /**
+     * The slots in use
+     */
+    private final int[] usedSlots;
+
+    /**
+     * The number of slots in use
+     */
+    private int numUsedSlots = 0;
+
+    /**
+     * The current frame
+     */
+    private int frame = 0;
+
+    /**
+     * Constructor
+     * @param maxSlots the maximum number of pairs which have a slot
+     */
+    public PairSlotPool(int maxSlots) {
+        this.maxSlots = Math.max(maxSlots, 1);
+        map = new LongIntHashMap(this.maxSlots);
+        slotKey = new long[this.maxSlots];
+        slotFrame = new int[this.maxSlots];
+        freeSlots = new int[this.maxSlots];
+        usedSlots = new int[this.maxSlots];
+        clear();
+    }
+
+    /**
+     * This method packs the ids of a pair, the smallest id first,
+     * so the key doesn't depend on the order of the polygons
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return the key of the pair
+     */
+    public static long key(Polygon r1, Polygon r2) {
+        int id1 = r1.getId();
+        int id2 = r2.getId();
+        return id1 < id2 ? PairList.pack(id1, id2) : PairList.pack(id2, id1);
+    }
+
+    /**
+     * This method starts a new frame
+     */
+    public void beginFrame() {
+        frame++;
+    }
+
+    /**
+     * This method frees the slots of the pairs
+     * which were not used in the current frame
+     * @return the number of slots freed
+     */
+    public int endFrame() {
+        int removed = 0;
+        for ( int i = numUsedSlots - 1; i >= 0; i-- ) {
+            int slot = usedSlots[i];
+            if ( slotFrame[slot] != frame ) {
+                map.remove(slotKey[slot]);
+                freeSlots[numFreeSlots++] = slot;
+                usedSlots[i] = usedSlots[--numUsedSlots];
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * This method finds the slot of a pair and marks it as used in the current frame
+     * @param key the key of the pair
+     * @return the slot, or NO_SLOT if the pair has no slot
+     */
+    public int find(long key) {
+        int slot = map.get(key, NO_SLOT);
+        if ( slot != NO_SLOT ) {
+            slotFrame[slot] = frame;
+        }
+        return slot;
+    }
+
+    /**
+     * This method gives a slot to a pair which has none,
+     * marked as used in the current frame
+     * @param key the key of the pair
+     * @return the slot, or NO_SLOT if all the slots are used
+     */
+    public int acquire(long key) {
+        if ( numFreeSlots == 0 ) {
+            return NO_SLOT;
+        }
+        int slot = freeSlots[--numFreeSlots];
+        slotKey[slot] = key;
+        slotFrame[slot] = frame;
+        usedSlots[numUsedSlots++] = slot;
+        map.put(key, slot);
+        return slot;
+    }
+
+    /**
+     * This method frees all the slots
+     */
+    public void clear() {
+        map.clear();
+        numUsedSlots = 0;
+        for ( int i = 0; i < maxSlots; i++ ) {
+            freeSlots[i] = maxSlots - 1 - i;
+        }
+        numFreeSlots = maxSlots;
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public int size() {
+        return numUsedSlots;
+    }
+
+    public int getMaxSlots() {
+        return maxSlots;
+    }
+}
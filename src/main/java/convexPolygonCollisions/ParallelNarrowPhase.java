@@ -0,0 +1,254 @@
+package convexPolygonCollisions;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class runs the narrow-phase over the candidate pairs
+ * of a broad-phase with several threads
+ * The pairs are split in batches which run on a ForkJoinPool
+ * Each batch only writes the results of its own pairs, in arrays
+ * indexed by the position of the pair, so the threads don't
+ * share mutable state
+ * The static resolution has two phases: first all the contacts are
+ * collected in parallel without moving any polygon, and then they
+ * are applied in the order of the pairs. So the results don't
+ * depend on the number of threads
+ * Each batch adds its counts to the metrics once, the metrics are
+ * striped so the batches don't fight over them. The owner of the
+ * metrics ends the ticks
+ *
+ * @class ParallelNarrowPhase
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class ParallelNarrowPhase {
+
+    /**
+     * The pool where the batches run
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The maximum number of pairs of a batch
+     */
+    private final int batchSize;
+
+    /**
+     * The polygons of the current call, copied from the list
+     */
+    private Polygon[] bodies = new Polygon[0];
+
+    /**
+     * The overlap flag of each pair
+     */
+    private boolean[] overlaps = new boolean[0];
+
+    /**
+     * The displacement of the first polygon of each pair
+     */
+    private float[] displacementX = new float[0], displacementY = new float[0];
+
+    /**
+     * The metrics of the narrow-phase
+     */
+    private CollisionMetrics metrics = CollisionMetrics.DISABLED;
+
+    /**
+     * Constructor
+     * @param pool the pool where the batches run
+     * @param batchSize the maximum number of pairs of a batch
+     */
+    public ParallelNarrowPhase(ForkJoinPool pool, int batchSize) {
+        this.pool = pool;
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    /**
+     * Default constructor, it uses the common pool
+     */
+    public ParallelNarrowPhase() {
+        this(ForkJoinPool.commonPool(), 256);
+    }
+
+    /**
+     * This method makes sure there is space for the results
+     * @param polygons the polygons
+     * @param numPairs the number of pairs
+     */
+    private void prepare(List<Polygon> polygons, int numPairs) {
+        bodies = polygons.toArray(bodies);
+        if ( overlaps.length < numPairs ) {
+            int capacity = Math.max(numPairs, overlaps.length * 2);
+            overlaps = new boolean[capacity];
+            displacementX = new float[capacity];
+            displacementY = new float[capacity];
+        }
+    }
+
+    /**
+     * This method runs the SAT over all the candidate pairs,
+     * counting the axes projected
+     * @param polygons the polygons, updated
+     * @param candidates the candidate pairs, indices of the polygons
+     * @param out the list where the overlapping pairs are added,
+     *            it is cleared first, and it is sorted at the end
+     */
+    public void detect(List<Polygon> polygons, PairList candidates, PairList out) {
+        prepare(polygons, candidates.size());
+        long start = metrics.start();
+        pool.invoke(new DetectTask(candidates, 0, candidates.size()));
+        metrics.stop(CollisionMetrics.Phase.NARROW_PHASE, start);
+        out.clear();
+        for ( int i = 0; i < candidates.size(); i++ ) {
+            if ( overlaps[i] ) {
+                out.add(candidates.getFirst(i), candidates.getSecond(i));
+            }
+        }
+        out.sort();
+        Arrays.fill(bodies, null);
+    }
+
+    /**
+     * This method resolves all the candidate pairs like shapeOverlapStaticSAT,
+     * moving the first polygon of each pair out of the second one
+     * All the displacements are calculated from the positions at the
+     * beginning of the call, and then they are applied in the order of the pairs
+     * @param polygons the polygons, updated
+     * @param candidates the candidate pairs, indices of the polygons
+     * @return the number of pairs which were overlapping
+     */
+    public int resolveStatic(List<Polygon> polygons, PairList candidates) {
+        prepare(polygons, candidates.size());
+        long start = metrics.start();
+        pool.invoke(new ContactTask(candidates, 0, candidates.size()));
+        metrics.stop(CollisionMetrics.Phase.NARROW_PHASE, start);
+        start = metrics.start();
+        int contacts = 0;
+        for ( int i = 0; i < candidates.size(); i++ ) {
+            if ( overlaps[i] ) {
+                Polygon r1 = bodies[candidates.getFirst(i)];
+                r1.getPosition().addToX(displacementX[i]);
+                r1.getPosition().addToY(displacementY[i]);
+                contacts++;
+            }
+        }
+        metrics.stop(CollisionMetrics.Phase.RESOLUTION, start);
+        Arrays.fill(bodies, null);
+        return contacts;
+    }
+
+    /**
+     * This class is the task which splits the pairs in batches
+     * and runs the SAT over each batch, counting the axes projected
+     */
+    private class DetectTask extends RecursiveAction {
+
+        private final PairList candidates;
+
+        private final int from, to;
+
+        DetectTask(PairList candidates, int from, int to) {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if ( to - from > batchSize ) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new DetectTask(candidates, from, middle), new DetectTask(candidates, middle, to));
+                return;
+            }
+            int overlapping = 0;
+            long axes = 0;
+            int earlyExits = 0;
+            SATResult result = new SATResult();
+            for ( int i = from; i < to; i++ ) {
+                overlaps[i] = ConvexPolygonCollisions.shapeOverlapDepthSAT(
+                        bodies[candidates.getFirst(i)], bodies[candidates.getSecond(i)], result);
+                axes += result.getAxesProjected();
+                if ( result.isEarlyExit() ) {
+                    earlyExits++;
+                }
+                if ( overlaps[i] ) {
+                    overlapping++;
+                }
+            }
+            metrics.add(CollisionMetrics.Counter.PAIRS_TESTED, to - from);
+            metrics.add(CollisionMetrics.Counter.OVERLAPS, overlapping);
+            metrics.add(CollisionMetrics.Counter.AXES_PROJECTED, axes);
+            metrics.add(CollisionMetrics.Counter.EARLY_EXITS, earlyExits);
+        }
+    }
+
+    /**
+     * This class is the task which splits the pairs in batches
+     * and collects the contacts of each batch, without moving the polygons
+     */
+    private class ContactTask extends RecursiveAction {
+
+        private final PairList candidates;
+
+        private final int from, to;
+
+        ContactTask(PairList candidates, int from, int to) {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if ( to - from > batchSize ) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ContactTask(candidates, from, middle), new ContactTask(candidates, middle, to));
+                return;
+            }
+            int overlapping = 0;
+            long axes = 0;
+            int earlyExits = 0;
+            SATResult result = new SATResult();
+            for ( int i = from; i < to; i++ ) {
+                Polygon r1 = bodies[candidates.getFirst(i)];
+                Polygon r2 = bodies[candidates.getSecond(i)];
+                overlaps[i] = ConvexPolygonCollisions.shapeOverlapDepthSAT(r1, r2, result);
+                axes += result.getAxesProjected();
+                if ( result.isEarlyExit() ) {
+                    earlyExits++;
+                }
+                if ( overlaps[i] ) {
+                    float overlap = result.getDepth();
+                    float dx = r2.getPosition().getX() - r1.getPosition().getX();
+                    float dy = r2.getPosition().getY() - r1.getPosition().getY();
+                    float s = (float)Math.sqrt(dx * dx + dy * dy);
+                    if ( s == 0 ) {
+                        dx = 1;
+                        dy = 0;
+                        s = 1;
+                    }
+                    displacementX[i] = - overlap * dx / s;
+                    displacementY[i] = - overlap * dy / s;
+                    overlapping++;
+                }
+            }
+            metrics.add(CollisionMetrics.Counter.PAIRS_TESTED, to - from);
+            metrics.add(CollisionMetrics.Counter.OVERLAPS, overlapping);
+            metrics.add(CollisionMetrics.Counter.AXES_PROJECTED, axes);
+            metrics.add(CollisionMetrics.Counter.EARLY_EXITS, earlyExits);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public CollisionMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(CollisionMetrics metrics) {
+        this.metrics = metrics;
+    }
+}
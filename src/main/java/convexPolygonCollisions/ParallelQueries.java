@@ -0,0 +1,181 @@
+package convexPolygonCollisions;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class runs many ray casts and point queries against the
+ * polygons of a DynamicAABBTree with several threads
+ * The queries are split in batches which run on a ForkJoinPool,
+ * each batch has its own stack for the traversal of the tree,
+ * and it only writes the results of its own queries, in the arrays
+ * of the caller indexed by the position of the query
+ * The tree and the polygons must not be updated during a call
+ *
+ * @class ParallelQueries
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class ParallelQueries {
+
+    /**
+     * The pool where the batches run
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The maximum number of queries of a batch
+     */
+    private final int batchSize;
+
+    /**
+     * Constructor
+     * @param pool the pool where the batches run
+     * @param batchSize the maximum number of queries of a batch
+     */
+    public ParallelQueries(ForkJoinPool pool, int batchSize) {
+        this.pool = pool;
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    /**
+     * Default constructor, it uses the common pool
+     */
+    public ParallelQueries() {
+        this(ForkJoinPool.commonPool(), 256);
+    }
+
+    /**
+     * This method casts many rays against the polygons of a tree
+     * The points of the ray i are origin[i] + t * direction[i], with t in [0, maxT]
+     * @param tree the tree, updated with the polygons
+     * @param originX the x coordinates of the origins of the rays
+     * @param originY the y coordinates of the origins of the rays
+     * @param directionX the x coordinates of the directions of the rays
+     * @param directionY the y coordinates of the directions of the rays
+     * @param maxT the maximum fraction of the directions to test
+     * @param numRays the number of rays
+     * @param hitBody the array where the index of the first polygon hit by each ray is written, -1 if there is none
+     * @param hitFraction the array where the fraction of each hit is written, only for the rays which hit
+     */
+    public void rayCast(DynamicAABBTree tree, float[] originX, float[] originY, float[] directionX, float[] directionY,
+                        float maxT, int numRays, int[] hitBody, float[] hitFraction) {
+        pool.invoke(new RayTask(tree, originX, originY, directionX, directionY, maxT, hitBody, hitFraction, 0, numRays));
+    }
+
+    /**
+     * This method finds the polygons which contain many points
+     * The polygons of the point i are written in hitBodies, from the
+     * position i * maxPerPoint, and their number in hitCount[i]
+     * @param tree the tree, updated with the polygons
+     * @param x the x coordinates of the points
+     * @param y the y coordinates of the points
+     * @param numPoints the number of points
+     * @param maxPerPoint the maximum number of polygons written for each point
+     * @param hitBodies the array where the indices of the polygons are written, of numPoints * maxPerPoint positions
+     * @param hitCount the array where the number of polygons of each point is written
+     */
+    public void queryPoint(DynamicAABBTree tree, float[] x, float[] y, int numPoints,
+                           int maxPerPoint, int[] hitBodies, int[] hitCount) {
+        pool.invoke(new PointTask(tree, x, y, maxPerPoint, hitBodies, hitCount, 0, numPoints));
+    }
+
+    /**
+     * This class is the task which splits the rays in batches
+     * and casts the rays of each batch
+     */
+    private class RayTask extends RecursiveAction {
+
+        private final DynamicAABBTree tree;
+
+        private final float[] originX, originY, directionX, directionY;
+
+        private final float maxT;
+
+        private final int[] hitBody;
+
+        private final float[] hitFraction;
+
+        private final int from, to;
+
+        RayTask(DynamicAABBTree tree, float[] originX, float[] originY, float[] directionX, float[] directionY,
+                float maxT, int[] hitBody, float[] hitFraction, int from, int to) {
+            this.tree = tree;
+            this.originX = originX;
+            this.originY = originY;
+            this.directionX = directionX;
+            this.directionY = directionY;
+            this.maxT = maxT;
+            this.hitBody = hitBody;
+            this.hitFraction = hitFraction;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if ( to - from > batchSize ) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RayTask(tree, originX, originY, directionX, directionY, maxT, hitBody, hitFraction, from, middle),
+                        new RayTask(tree, originX, originY, directionX, directionY, maxT, hitBody, hitFraction, middle, to));
+                return;
+            }
+            int[] stack = new int[tree.getQueryStackSize()];
+            for ( int i = from; i < to; i++ ) {
+                hitBody[i] = tree.rayCast(originX[i], originY[i], directionX[i], directionY[i], maxT, hitFraction, i, stack);
+            }
+        }
+    }
+
+    /**
+     * This class is the task which splits the points in batches
+     * and finds the polygons of the points of each batch
+     */
+    private class PointTask extends RecursiveAction {
+
+        private final DynamicAABBTree tree;
+
+        private final float[] x, y;
+
+        private final int maxPerPoint;
+
+        private final int[] hitBodies, hitCount;
+
+        private final int from, to;
+
+        PointTask(DynamicAABBTree tree, float[] x, float[] y, int maxPerPoint, int[] hitBodies, int[] hitCount, int from, int to) {
+            this.tree = tree;
+            this.x = x;
+            this.y = y;
+            this.maxPerPoint = maxPerPoint;
+            this.hitBodies = hitBodies;
+            this.hitCount = hitCount;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if ( to - from > batchSize ) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PointTask(tree, x, y, maxPerPoint, hitBodies, hitCount, from, middle),
+                        new PointTask(tree, x, y, maxPerPoint, hitBodies, hitCount, middle, to));
+                return;
+            }
+            int[] stack = new int[tree.getQueryStackSize()];
+            for ( int i = from; i < to; i++ ) {
+                hitCount[i] = tree.queryPoint(x[i], y[i], hitBodies, i * maxPerPoint, maxPerPoint, stack);
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+}
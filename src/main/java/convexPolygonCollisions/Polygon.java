@@ -1,9 +1,10 @@
 package convexPolygonCollisions;
 
-import engine.gfx.HexColors;
-import engine.gfx.Renderer;
 import engine.vectors.points2d.Vec2df;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * This class represents a Polygon
  * a polygon is conformed by points and stretch lines
@@ -13,7 +14,24 @@ import engine.vectors.points2d.Vec2df;
  * @author Sergio Martí Torregrosa
  * @date 14/11/2020
  */
-public class Polygon {
+public class Polygon implements SupportShape {
+
+    /**
+     * The value of the id before it is assigned
+     */
+    private static final int NO_ID = -1;
+
+    /**
+     * The id of the next polygon registered
+     */
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    /**
+     * The unique id of the polygon, used to identify pairs of polygons
+     * in the caches. It is assigned the first time it is asked for,
+     * so only the polygons tested by a cache take an id
+     */
+    private int id = NO_ID;
 
     /**
      * The transformed points of the polygon
@@ -40,6 +58,55 @@ public class Polygon {
      */
     private boolean overlap;
 
+    /**
+     * The axis aligned bounding box of the transformed points,
+     * it is calculated when the polygon is updated
+     */
+    private float minX, minY, maxX, maxY;
+
+    /**
+     * The flag to indicate the points must be transformed again,
+     * it is set when the angle, the position or the model change
+     */
+    private boolean dirty = true;
+
+    /**
+     * The position used the last time the points were transformed,
+     * so a change made directly over the position vector is detected
+     */
+    private float transformedX, transformedY;
+
+    /**
+     * The unit normals of the edges of the model, used as the axes of
+     * the SAT. The parallel edges share one axis, so a regular polygon
+     * with an even number of vertices only has half of the axes
+     */
+    private float[] modelNormalX, modelNormalY;
+
+    /**
+     * The normals of the edges rotated by the angle,
+     * they are calculated when the polygon is built and updated
+     */
+    private float[] normalX, normalY;
+
+    /**
+     * The number of different axes
+     */
+    private int axisCount;
+
+    /**
+     * The radius of the circle centered on the position
+     * which contains all the points of the model
+     */
+    private float boundingRadius;
+
+    /**
+     * The scale of the model, so the polygons of different sizes
+     * can share the model of a unit shape. With a scale of 1
+     * the points are the same as without a scale
+     */
+    private float scale = 1;
+
     /**
      * Full parameter constructor
      * @param p the transformed points
@@ -54,6 +121,8 @@ public class Polygon {
         this.position = position;
         this.angle = angle;
         this.overlap = overlap;
+        buildNormals();
+        buildBoundingRadius();
     }
 
     /**
@@ -71,6 +140,8 @@ public class Polygon {
         this.o = copyVec2dfArray(o);
         this.angle = angle;
         this.overlap = overlap;
+        buildNormals();
+        buildBoundingRadius();
     }
 
     /**
@@ -90,6 +161,9 @@ public class Polygon {
      */
     public Polygon(Polygon polygon) {
         this(polygon.getPosition(), polygon.getP(), polygon.getO(), polygon.getAngle(), polygon.isOverlap());
+        this.scale = polygon.getScale();
+        buildBoundingRadius();
+        updateBounds();
     }
 
     /**
@@ -106,41 +180,194 @@ public class Polygon {
         return p2;
     }
 
+    /**
+     * This method calculates the unit normals of the edges of the model
+     * The scale is positive, so it doesn't change them
+     * The normals of the edges parallel to a previous edge are skipped,
+     * and so are the edges with zero length, which have no normal
+     */
+    private void buildNormals() {
+        if ( modelNormalX == null || modelNormalX.length < o.length ) {
+            modelNormalX = new float[o.length];
+            modelNormalY = new float[o.length];
+            normalX = new float[o.length];
+            normalY = new float[o.length];
+        }
+        axisCount = 0;
+        for ( int a = 0; a < o.length; a++ ) {
+            int b = (a + 1) % o.length;
+            float axisX = -(o[b].getY() - o[a].getY());
+            float axisY = (o[b].getX() - o[a].getX());
+            float d = (float)Math.sqrt(axisX * axisX + axisY * axisY);
+            if ( d == 0 ) {
+                continue;
+            }
+            axisX /= d;
+            axisY /= d;
+            boolean parallel = false;
+            for ( int k = 0; k < axisCount && !parallel; k++ ) {
+                parallel = Math.abs(axisX * modelNormalY[k] - axisY * modelNormalX[k]) < 1e-6f;
+            }
+            if ( !parallel ) {
+                modelNormalX[axisCount] = axisX;
+                modelNormalY[axisCount] = axisY;
+                axisCount++;
+            }
+        }
+        rotateNormals(Determinism.isEnabled() ? Determinism.cos(angle) : Math.cos(angle),
+                Determinism.isEnabled() ? Determinism.sin(angle) : Math.sin(angle));
+    }
+
+    /**
+     * This method rotates the normals of the model by the angle, so
+     * the normals of a new polygon match its points before any update
+     * @param cos the cosine of the angle
+     * @param sin the sine of the angle
+     */
+    private void rotateNormals(double cos, double sin) {
+        for ( int i = 0; i < axisCount; i++ ) {
+            normalX[i] = (float)(modelNormalX[i] * cos - modelNormalY[i] * sin);
+            normalY[i] = (float)(modelNormalX[i] * sin + modelNormalY[i] * cos);
+        }
+    }
+
+    /**
+     * This method calculates the radius of the bounding circle
+     * The rotation doesn't change it, so it only depends on the model
+     */
+    private void buildBoundingRadius() {
+        float radius2 = 0;
+        for ( Vec2df point : o ) {
+            radius2 = Float.max(radius2, point.getX() * point.getX() + point.getY() * point.getY());
+        }
+        boundingRadius = (float)Math.sqrt(radius2) * scale;
+    }
+
     /**
      * This method updates the points of the polygon
      * by the position and the angle.
-     * This method makes the 2D rotation and the translation
+     * This method scales the model and makes the 2D rotation and the translation
+     * and calculates the bounding box of the new points
+     * If the polygon hasn't changed since the last update
+     * the points are not transformed again
      */
     public void update() {
+        updateIfDirty();
+    }
+
+    /**
+     * This method updates the points of the polygon like update,
+     * and tells if they had to be transformed
+     * @return if the points have been transformed,
+     * false if the polygon hasn't changed since the last update
+     */
+    public boolean updateIfDirty() {
+        float x = position.getX();
+        float y = position.getY();
+        if ( !dirty && x == transformedX && y == transformedY ) {
+            return false;
+        }
+        double cos = Determinism.isEnabled() ? Determinism.cos(angle) : Math.cos(angle);
+        double sin = Determinism.isEnabled() ? Determinism.sin(angle) : Math.sin(angle);
         for ( int i = 0; i < o.length; i++ ) {
-            p[i].setX((float)(o[i].getX() * Math.cos(angle) - o[i].getY() * Math.sin(angle)) + position.getX());
-            p[i].setY((float)(o[i].getX() * Math.sin(angle) + o[i].getY() * Math.cos(angle)) + position.getY());
+            // Multiplying by a scale of 1 is exact, so the points don't change
+            float ox = o[i].getX() * scale;
+            float oy = o[i].getY() * scale;
+            p[i].setX((float)(ox * cos - oy * sin) + x);
+            p[i].setY((float)(ox * sin + oy * cos) + y);
+        }
+        rotateNormals(cos, sin);
+        updateBounds();
+        transformedX = x;
+        transformedY = y;
+        dirty = false;
+        return true;
+    }
+
+    /**
+     * This method updates all the polygons of a list,
+     * only the polygons which have changed are transformed
+     * @param polygons the polygons
+     * @return the number of polygons which were not transformed
+     */
+    public static int updateAll(List<Polygon> polygons) {
+        int skipped = 0;
+        for ( int i = 0; i < polygons.size(); i++ ) {
+            if ( !polygons.get(i).updateIfDirty() ) {
+                skipped++;
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * This method forces the points to be transformed in the next update
+     * It must be called after changing the model points in place, because
+     * it also calculates again the normals of the edges and the bounding radius
+     */
+    public void markDirty() {
+        dirty = true;
+        buildNormals();
+        buildBoundingRadius();
+    }
+
+    /**
+     * This method calculates the axis aligned bounding box
+     * of the transformed points
+     */
+    public void updateBounds() {
+        minX = Float.MAX_VALUE;
+        minY = Float.MAX_VALUE;
+        maxX = -Float.MAX_VALUE;
+        maxY = -Float.MAX_VALUE;
+        for ( Vec2df point : p ) {
+            minX = Float.min(minX, point.getX());
+            minY = Float.min(minY, point.getY());
+            maxX = Float.max(maxX, point.getX());
+            maxY = Float.max(maxY, point.getY());
         }
     }
 
     /**
-     * This method draws the polygon on screen
-     * Only draws a wire polygon and a line from the center
-     * to the first point
-     * @param r the renderer class with all drawing methods
+     * This method returns the unique id of the polygon,
+     * assigning it the first time it is asked for
+     * @return the id
      */
-    public void drawYourSelf(Renderer r) {
-        for (int i = 0; i < p.length; i++) {
-            r.drawLine(
-                    (int)p[i].getX(),
-                    (int)p[i].getY(),
-                    (int)p[(i + 1) % p.length].getX(),
-                    (int)p[(i + 1) % p.length].getY(),
-                    (overlap ? HexColors.RED : HexColors.WHITE)
-            );
+    public int getId() {
+        int id = this.id;
+        return id != NO_ID ? id : register();
+    }
+
+    /**
+     * This method assigns the next id to the polygon
+     * The ids are never reused, so two pairs can't get the same key
+     * in a cache: when all of them are taken no more polygons can be cached
+     * @return the id
+     */
+    private synchronized int register() {
+        if ( id == NO_ID ) {
+            int next = NEXT_ID.getAndUpdate(value -> value == Integer.MAX_VALUE ? value : value + 1);
+            if ( next == Integer.MAX_VALUE ) {
+                throw new IllegalStateException("All the ids of the polygons are taken");
+            }
+            id = next;
         }
-        r.drawLine(
-                (int)p[0].getX(),
-                (int)p[0].getY(),
-                (int)position.getX(),
-                (int)position.getY(),
-                (overlap ? HexColors.RED : HexColors.WHITE)
-        );
+        return id;
+    }
+
+    @Override
+    public int supportIndex(float dx, float dy) {
+        return ConvexPolygonCollisions.supportIndex(p, dx, dy);
+    }
+
+    @Override
+    public float getSupportX(int index) {
+        return p[index].getX();
+    }
+
+    @Override
+    public float getSupportY(int index) {
+        return p[index].getY();
     }
 
     @Override
@@ -179,20 +406,72 @@ public class Polygon {
         return overlap;
     }
 
+    public float getMinX() {
+        return minX;
+    }
+
+    public float getMinY() {
+        return minY;
+    }
+
+    public float getMaxX() {
+        return maxX;
+    }
+
+    public float getMaxY() {
+        return maxY;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public float[] getNormalX() {
+        return normalX;
+    }
+
+    public float[] getNormalY() {
+        return normalY;
+    }
+
+    public int getAxisCount() {
+        return axisCount;
+    }
+
+    public float getBoundingRadius() {
+        return boundingRadius;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
     public void setP(Vec2df[] p) {
         this.p = p;
+        this.dirty = true;
     }
 
     public void setO(Vec2df[] o) {
         this.o = o;
+        this.dirty = true;
+        buildNormals();
+        buildBoundingRadius();
     }
 
     public void setPosition(Vec2df position) {
         this.position = position;
+        this.dirty = true;
     }
 
     public void setAngle(float angle) {
         this.angle = angle;
+        this.dirty = true;
+    }
+
+    public void setScale(float scale) {
+        this.scale = scale;
+        this.dirty = true;
+        buildBoundingRadius();
     }
 
     public void setOverlap(boolean overlap) {
@@ -0,0 +1,505 @@
+package convexPolygonCollisions;
+
+import engine.vectors.points2d.Vec2df;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This class stores many polygons in contiguous primitive arrays
+ * ("structure of arrays"), instead of one Polygon object
+ * with Vec2df arrays for each body
+ * Each body has a position, an angle and a range of vertices,
+ * which starts at vertexStart[body] and has vertexCount[body] elements
+ * inside the model and world vertex arrays
+ * The methods readFrom, writeTo and toPolygon keep the
+ * Polygon class usable while moving to this storage
+ *
+ * @class PolygonBuffer
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class PolygonBuffer {
+
+    /**
+     * The number of bodies stored
+     */
+    private int size = 0;
+
+    /**
+     * The number of vertices stored, for all the bodies
+     */
+    private int vertexSize = 0;
+
+    /**
+     * The x coordinate of the position of each body
+     */
+    private float[] positionX;
+
+    /**
+     * The y coordinate of the position of each body
+     */
+    private float[] positionY;
+
+    /**
+     * The angle of each body
+     */
+    private float[] angle;
+
+    /**
+     * The index of the first vertex of each body
+     */
+    private int[] vertexStart;
+
+    /**
+     * The number of vertices of each body
+     */
+    private int[] vertexCount;
+
+    /**
+     * The x coordinates of the "model" vertices
+     */
+    private float[] modelX;
+
+    /**
+     * The y coordinates of the "model" vertices
+     */
+    private float[] modelY;
+
+    /**
+     * The x coordinates of the transformed vertices
+     */
+    private float[] worldX;
+
+    /**
+     * The y coordinates of the transformed vertices
+     */
+    private float[] worldY;
+
+    /**
+     * Constructor
+     * @param bodyCapacity the initial number of bodies
+     * @param vertexCapacity the initial number of vertices, for all the bodies
+     */
+    public PolygonBuffer(int bodyCapacity, int vertexCapacity) {
+        bodyCapacity = Math.max(bodyCapacity, 1);
+        vertexCapacity = Math.max(vertexCapacity, 1);
+        positionX = new float[bodyCapacity];
+        positionY = new float[bodyCapacity];
+        angle = new float[bodyCapacity];
+        vertexStart = new int[bodyCapacity];
+        vertexCount = new int[bodyCapacity];
+        modelX = new float[vertexCapacity];
+        modelY = new float[vertexCapacity];
+        worldX = new float[vertexCapacity];
+        worldY = new float[vertexCapacity];
+    }
+
+    /**
+     * Default constructor
+     */
+    public PolygonBuffer() {
+        this(16, 64);
+    }
+
+    /**
+     * This method makes sure there is space for more bodies and vertices
+     * @param numBodies the number of bodies to add
+     * @param numVertices the number of vertices to add
+     */
+    private void ensureCapacity(int numBodies, int numVertices) {
+        if ( size + numBodies > positionX.length ) {
+            int capacity = Math.max(size + numBodies, positionX.length * 2);
+            positionX = Arrays.copyOf(positionX, capacity);
+            positionY = Arrays.copyOf(positionY, capacity);
+            angle = Arrays.copyOf(angle, capacity);
+            vertexStart = Arrays.copyOf(vertexStart, capacity);
+            vertexCount = Arrays.copyOf(vertexCount, capacity);
+        }
+        if ( vertexSize + numVertices > modelX.length ) {
+            int capacity = Math.max(vertexSize + numVertices, modelX.length * 2);
+            modelX = Arrays.copyOf(modelX, capacity);
+            modelY = Arrays.copyOf(modelY, capacity);
+            worldX = Arrays.copyOf(worldX, capacity);
+            worldY = Arrays.copyOf(worldY, capacity);
+        }
+    }
+
+    /**
+     * This method adds a new body
+     * The vertices are not transformed until transform is called
+     * @param x the x coordinate of the position
+     * @param y the y coordinate of the position
+     * @param angle the angle of the body
+     * @param numVertices the number of vertices of the body
+     * @return the index of the new body
+     */
+    public int add(float x, float y, float angle, int numVertices) {
+        ensureCapacity(1, numVertices);
+        int body = size++;
+        positionX[body] = x;
+        positionY[body] = y;
+        this.angle[body] = angle;
+        vertexStart[body] = vertexSize;
+        vertexCount[body] = numVertices;
+        vertexSize += numVertices;
+        return body;
+    }
+
+    /**
+     * This method adds a new body, copying the model
+     * from primitive arrays
+     * @param x the x coordinate of the position
+     * @param y the y coordinate of the position
+     * @param angle the angle of the body
+     * @param modelX the x coordinates of the model
+     * @param modelY the y coordinates of the model
+     * @return the index of the new body
+     * @throws IllegalArgumentException if the arrays of the model have different lengths
+     */
+    public int add(float x, float y, float angle, float[] modelX, float[] modelY) {
+        if ( modelX.length != modelY.length ) {
+            throw new IllegalArgumentException("The model has " + modelX.length + " x coordinates and " + modelY.length + " y coordinates");
+        }
+        int body = add(x, y, angle, modelX.length);
+        System.arraycopy(modelX, 0, this.modelX, vertexStart[body], modelX.length);
+        System.arraycopy(modelY, 0, this.modelY, vertexStart[body], modelY.length);
+        return body;
+    }
+
+    /**
+     * This method adds a new body, copying the values of a polygon
+     * The model, the position, the angle and the transformed points are copied
+     * The model is copied with the scale of the polygon applied
+     * @param polygon the polygon to copy
+     * @return the index of the new body
+     */
+    public int add(Polygon polygon) {
+        int body = add(polygon.getPosition().getX(), polygon.getPosition().getY(), polygon.getAngle(), polygon.getO().length);
+        int start = vertexStart[body];
+        float scale = polygon.getScale();
+        for ( int i = 0; i < polygon.getO().length; i++ ) {
+            modelX[start + i] = polygon.getO()[i].getX() * scale;
+            modelY[start + i] = polygon.getO()[i].getY() * scale;
+            worldX[start + i] = polygon.getP()[i].getX();
+            worldY[start + i] = polygon.getP()[i].getY();
+        }
+        return body;
+    }
+
+    /**
+     * This method removes all the bodies
+     * The arrays are kept, so they can be reused
+     */
+    public void clear() {
+        size = 0;
+        vertexSize = 0;
+    }
+
+    /**
+     * This method updates the vertices of one body by its position
+     * and its angle. It gives the same values as Polygon.update
+     * @param body the index of the body
+     */
+    public void transform(int body) {
+        double cos = Determinism.isEnabled() ? Determinism.cos(angle[body]) : Math.cos(angle[body]);
+        double sin = Determinism.isEnabled() ? Determinism.sin(angle[body]) : Math.sin(angle[body]);
+        float x = positionX[body];
+        float y = positionY[body];
+        int end = vertexStart[body] + vertexCount[body];
+        for ( int i = vertexStart[body]; i < end; i++ ) {
+            worldX[i] = (float)(modelX[i] * cos - modelY[i] * sin) + x;
+            worldY[i] = (float)(modelX[i] * sin + modelY[i] * cos) + y;
+        }
+    }
+
+    /**
+     * This method updates the vertices of all the bodies
+     */
+    public void transformAll() {
+        for ( int body = 0; body < size; body++ ) {
+            transform(body);
+        }
+    }
+
+    /**
+     * This method contains the algorithm "SAT" over two bodies of the buffer
+     * @param body1 the index of the body 1
+     * @param body2 the index of the body 2
+     * @return if there is a overlap between the two bodies
+     */
+    public boolean shapeOverlapSAT(int body1, int body2) {
+        return shapeOverlapSAT(body1, body2, ScalarProjectionKernel.INSTANCE);
+    }
+
+    /**
+     * This method contains the algorithm "SAT" over two bodies of the buffer,
+     * with a chosen kernel for the projections
+     * @param body1 the index of the body 1
+     * @param body2 the index of the body 2
+     * @param kernel the kernel which projects the vertices
+     * @return if there is a overlap between the two bodies
+     */
+    public boolean shapeOverlapSAT(int body1, int body2, ProjectionKernel kernel) {
+        return minOverlapOnAxes(body1, body2, Float.MAX_VALUE, kernel) >= 0 &&
+                minOverlapOnAxes(body2, body1, Float.MAX_VALUE, kernel) >= 0;
+    }
+
+    /**
+     * This method contains the algorithm "SAT" over two bodies of the buffer
+     * This method does a displacement over the position of body 1
+     * @param body1 the index of the body 1
+     * @param body2 the index of the body 2
+     * @return if there is a overlap between the two bodies
+     */
+    public boolean shapeOverlapStaticSAT(int body1, int body2) {
+        return shapeOverlapStaticSAT(body1, body2, ScalarProjectionKernel.INSTANCE);
+    }
+
+    /**
+     * This method contains the algorithm "SAT" over two bodies of the buffer,
+     * with a chosen kernel for the projections
+     * This method does a displacement over the position of body 1
+     * @param body1 the index of the body 1
+     * @param body2 the index of the body 2
+     * @param kernel the kernel which projects the vertices
+     * @return if there is a overlap between the two bodies
+     */
+    public boolean shapeOverlapStaticSAT(int body1, int body2, ProjectionKernel kernel) {
+        float overlap = minOverlapOnAxes(body1, body2, Float.MAX_VALUE, kernel);
+        if ( overlap < 0 ) {
+            return false;
+        }
+        overlap = minOverlapOnAxes(body2, body1, overlap, kernel);
+        if ( overlap < 0 ) {
+            return false;
+        }
+
+        float dx = positionX[body2] - positionX[body1];
+        float dy = positionY[body2] - positionY[body1];
+        float s = (float)Math.sqrt(dx * dx + dy * dy);
+        if ( s == 0 ) {
+            dx = 1;
+            dy = 0;
+            s = 1;
+        }
+        positionX[body1] -= overlap * dx / s;
+        positionY[body1] -= overlap * dy / s;
+
+        return false;
+    }
+
+    /**
+     * This method projects the two bodies over the axes
+     * perpendicular to the edges of the first one
+     * @param body1 the body which gives the axes
+     * @param body2 the other body
+     * @param overlap the smallest overlap found until now
+     * @param kernel the kernel which projects the vertices
+     * @return the smallest overlap, or a negative value if there is a separating axis
+     */
+    private float minOverlapOnAxes(int body1, int body2, float overlap, ProjectionKernel kernel) {
+        int start1 = vertexStart[body1];
+        int count1 = vertexCount[body1];
+        int start2 = vertexStart[body2];
+        int count2 = vertexCount[body2];
+
+        for ( int a = 0; a < count1; a++ ) {
+            int b = (a + 1) % count1;
+            float axisX = -(worldY[start1 + b] - worldY[start1 + a]);
+            float axisY = (worldX[start1 + b] - worldX[start1 + a]);
+            float d = (float)Math.sqrt(axisX * axisX + axisY * axisY);
+            // An edge of zero length has no normal, so it can't separate the bodies
+            if ( d == 0 ) {
+                continue;
+            }
+            axisX *= 1 / d;
+            axisY *= 1 / d;
+
+            float axisOverlap = kernel.axisOverlap(worldX, worldY, start1, count1, start2, count2, axisX, axisY);
+            overlap = Float.min(axisOverlap, overlap);
+
+            if ( !(axisOverlap >= 0) ) {
+                return -1;
+            }
+        }
+        return overlap;
+    }
+
+    /**
+     * This method copies the position and the angle of a polygon
+     * into a body of the buffer
+     * @param body the index of the body
+     * @param polygon the polygon to read
+     */
+    public void readFrom(int body, Polygon polygon) {
+        positionX[body] = polygon.getPosition().getX();
+        positionY[body] = polygon.getPosition().getY();
+        angle[body] = polygon.getAngle();
+    }
+
+    /**
+     * This method copies the position, the angle and the
+     * transformed vertices of a body into a polygon
+     * The polygon must have the same number of vertices as the body
+     * @param body the index of the body
+     * @param polygon the polygon to write
+     */
+    public void writeTo(int body, Polygon polygon) {
+        polygon.getPosition().setX(positionX[body]);
+        polygon.getPosition().setY(positionY[body]);
+        polygon.setAngle(angle[body]);
+        int start = vertexStart[body];
+        for ( int i = 0; i < vertexCount[body]; i++ ) {
+            polygon.getP()[i].setX(worldX[start + i]);
+            polygon.getP()[i].setY(worldY[start + i]);
+        }
+    }
+
+    /**
+     * This method writes the bodies as flat arrays, one after the other:
+     * the positions, the angles, the vertex counts and the model vertices
+     * The byte order is the order of the buffer
+     * @param out the buffer, it must have space for all the arrays
+     */
+    void writeArrays(ByteBuffer out) {
+        out.asFloatBuffer().put(positionX, 0, size);
+        out.position(out.position() + size * Float.BYTES);
+        out.asFloatBuffer().put(positionY, 0, size);
+        out.position(out.position() + size * Float.BYTES);
+        out.asFloatBuffer().put(angle, 0, size);
+        out.position(out.position() + size * Float.BYTES);
+        out.asIntBuffer().put(vertexCount, 0, size);
+        out.position(out.position() + size * Integer.BYTES);
+        out.asFloatBuffer().put(modelX, 0, vertexSize);
+        out.position(out.position() + vertexSize * Float.BYTES);
+        out.asFloatBuffer().put(modelY, 0, vertexSize);
+        out.position(out.position() + vertexSize * Float.BYTES);
+    }
+
+    /**
+     * This method replaces all the bodies by the ones of the flat arrays
+     * written by writeArrays, and transforms them
+     * The arrays are copied in bulk, no object is made for the vertices
+     * The sizes and the vertex counts are checked before anything is
+     * copied, so when they are wrong the bodies of the buffer are kept
+     * @param in the buffer, at the start of the arrays
+     * @param numBodies the number of bodies
+     * @param numVertices the number of vertices, for all the bodies
+     * @throws IllegalArgumentException if the arrays don't fit in the buffer
+     * or the vertex counts don't add up to numVertices
+     */
+    void readArrays(ByteBuffer in, int numBodies, int numVertices) {
+        if ( numBodies < 0 || numVertices < 0 || in.remaining() < 4L * numBodies * Float.BYTES + 2L * numVertices * Float.BYTES ) {
+            throw new IllegalArgumentException("The buffer doesn't hold " + numBodies + " bodies and " + numVertices + " vertices");
+        }
+        int counts = in.position() + 3 * numBodies * Float.BYTES;
+        int start = 0;
+        for ( int body = 0; body < numBodies; body++ ) {
+            int count = in.getInt(counts + body * Integer.BYTES);
+            if ( count < 0 || count > numVertices - start ) {
+                throw new IllegalArgumentException("The body " + body + " has " + count + " vertices, only "
+                        + (numVertices - start) + " are left");
+            }
+            start += count;
+        }
+        if ( start != numVertices ) {
+            throw new IllegalArgumentException("The vertex counts don't add up to " + numVertices);
+        }
+
+        clear();
+        ensureCapacity(numBodies, numVertices);
+        in.asFloatBuffer().get(positionX, 0, numBodies);
+        in.position(in.position() + numBodies * Float.BYTES);
+        in.asFloatBuffer().get(positionY, 0, numBodies);
+        in.position(in.position() + numBodies * Float.BYTES);
+        in.asFloatBuffer().get(angle, 0, numBodies);
+        in.position(in.position() + numBodies * Float.BYTES);
+        in.asIntBuffer().get(vertexCount, 0, numBodies);
+        in.position(in.position() + numBodies * Integer.BYTES);
+        in.asFloatBuffer().get(modelX, 0, numVertices);
+        in.position(in.position() + numVertices * Float.BYTES);
+        in.asFloatBuffer().get(modelY, 0, numVertices);
+        in.position(in.position() + numVertices * Float.BYTES);
+
+        start = 0;
+        for ( int body = 0; body < numBodies; body++ ) {
+            vertexStart[body] = start;
+            start += vertexCount[body];
+        }
+        size = numBodies;
+        vertexSize = numVertices;
+        transformAll();
+    }
+
+    /**
+     * This method builds a new polygon with the values of a body
+     * @param body the index of the body
+     * @return a new polygon
+     */
+    public Polygon toPolygon(int body) {
+        int start = vertexStart[body];
+        Vec2df[] o = new Vec2df[vertexCount[body]];
+        Vec2df[] p = new Vec2df[vertexCount[body]];
+        for ( int i = 0; i < vertexCount[body]; i++ ) {
+            o[i] = new Vec2df(modelX[start + i], modelY[start + i]);
+            p[i] = new Vec2df(worldX[start + i], worldY[start + i]);
+        }
+        return new Polygon(p, o, new Vec2df(positionX[body], positionY[body]), angle[body], false);
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public int size() {
+        return size;
+    }
+
+    public int getVertexSize() {
+        return vertexSize;
+    }
+
+    public float getPositionX(int body) {
+        return positionX[body];
+    }
+
+    public float getPositionY(int body) {
+        return positionY[body];
+    }
+
+    public float getAngle(int body) {
+        return angle[body];
+    }
+
+    public int getVertexStart(int body) {
+        return vertexStart[body];
+    }
+
+    public int getVertexCount(int body) {
+        return vertexCount[body];
+    }
+
+    public float[] getModelX() {
+        return modelX;
+    }
+
+    public float[] getModelY() {
+        return modelY;
+    }
+
+    public float[] getWorldX() {
+        return worldX;
+    }
+
+    public float[] getWorldY() {
+        return worldY;
+    }
+
+    public void setPosition(int body, float x, float y) {
+        positionX[body] = x;
+        positionY[body] = y;
+    }
+
+    public void setAngle(int body, float angle) {
+        this.angle[body] = angle;
+    }
+}
@@ -2,10 +2,16 @@ package convexPolygonCollisions;
 
 import engine.vectors.points2d.Vec2df;
 
+import java.util.Arrays;
+
 /**
  * This class contains all static methods
  * for build different Polygons.
  * Triangles, rectangles, and any regular polygon
+ * The shared polygons use the same model of size 1
+ * and a scale, instead of their own model
+ * The models are built with StrictMath, so they are the same
+ * bits on every JVM, as the deterministic mode needs
  *
  * @class PolygonFactory
  * @author Sergio Martí Torregrosa
@@ -13,6 +19,15 @@ import engine.vectors.points2d.Vec2df;
  */
 public class PolygonFactory {
 
+    /**
+     * The models of the regular polygons of size 1, indexed by their
+     * number of vertices. They are built the first time they are used
+     * and shared by all the polygons made by makeSharedRegularPolygon
+     * They are always built with StrictMath, so they are the same
+     * whether the deterministic mode is enabled before or after
+     */
+    private static Vec2df[][] unitShapes = new Vec2df[0][];
+
     /**
      * This method builds a regular polygon
      * @param numVertices the number of vertices of the polygon
@@ -26,12 +41,56 @@ public class PolygonFactory {
         Vec2df[] p = new Vec2df[numVertices];
         double theta = Math.PI * 2.0 / (double)numVertices;
         for ( int i = 0; i < numVertices; i++ ) {
-            o[i] = new Vec2df(size * (float)Math.cos(theta * i), size * (float)Math.sin(theta * i));
-            p[i] = new Vec2df(size * (float)Math.cos(theta * i), size * (float)Math.sin(theta * i));
+            float x = size * (float)StrictMath.cos(theta * i);
+            float y = size * (float)StrictMath.sin(theta * i);
+            o[i] = new Vec2df(x, y);
+            p[i] = new Vec2df(x, y);
         }
         return new Polygon(p, o, position, angle, false);
     }
 
+    /**
+     * This method returns the model of the regular polygon of size 1
+     * The model is shared, it must not be changed
+     * @param numVertices the number of vertices of the polygon
+     * @return the shared model
+     */
+    public static synchronized Vec2df[] getUnitShape(int numVertices) {
+        if ( numVertices >= unitShapes.length ) {
+            unitShapes = Arrays.copyOf(unitShapes, Math.max(numVertices + 1, unitShapes.length * 2));
+        }
+        if ( unitShapes[numVertices] == null ) {
+            Vec2df[] o = new Vec2df[numVertices];
+            double theta = Math.PI * 2.0 / (double)numVertices;
+            for ( int i = 0; i < numVertices; i++ ) {
+                o[i] = new Vec2df((float)StrictMath.cos(theta * i), (float)StrictMath.sin(theta * i));
+            }
+            unitShapes[numVertices] = o;
+        }
+        return unitShapes[numVertices];
+    }
+
+    /**
+     * This method builds a regular polygon which shares the model
+     * of size 1 with the other polygons of the same number of vertices,
+     * the size is the scale of the polygon
+     * Once updated, the points are the same as the ones of makeRegularPolygon
+     * @param numVertices the number of vertices of the polygon
+     * @param position the position of the shape
+     * @param size the size of the shape
+     * @param angle the angle of the shape
+     * @return a new regular polygon, with a shared model
+     */
+    public static Polygon makeSharedRegularPolygon(int numVertices, Vec2df position, float size, float angle) {
+        Vec2df[] p = new Vec2df[numVertices];
+        for ( int i = 0; i < numVertices; i++ ) {
+            p[i] = new Vec2df(0, 0);
+        }
+        Polygon polygon = new Polygon(p, getUnitShape(numVertices), position, angle, false);
+        polygon.setScale(size);
+        return polygon;
+    }
+
     /**
      * This method builds a regular triangle
      * @param position the position of the triangle
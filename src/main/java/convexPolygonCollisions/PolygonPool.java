@@ -0,0 +1,143 @@
+package convexPolygonCollisions;
+
+import engine.vectors.points2d.Vec2df;
+
+import java.util.Arrays;
+
+/**
+ * This class keeps the released regular polygons to reuse them,
+ * so spawning and despawning bodies doesn't make garbage
+ * The polygons share the models of size 1 of PolygonFactory
+ * and have a scale, so one polygon can be reused with any size
+ * There is a free list for each number of vertices. Once the lists
+ * have grown to the number of bodies alive, acquire and release
+ * don't make any allocation
+ * A polygon keeps its id when it is reused, so the caches keyed
+ * by id may give it the hints of its previous life, which are only
+ * a first guess and are checked as usual
+ * The pool is not thread safe
+ *
+ * @class PolygonPool
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class PolygonPool {
+
+    /**
+     * The free polygons, indexed by their number of vertices
+     */
+    private Polygon[][] free = new Polygon[0][];
+
+    /**
+     * The number of free polygons of each number of vertices
+     */
+    private int[] freeCount = new int[0];
+
+    /**
+     * The number of polygons made by the pool
+     */
+    private int created = 0;
+
+    /**
+     * The number of polygons reused by the pool
+     */
+    private int reused = 0;
+
+    /**
+     * This method makes sure there is a free list for a number of vertices
+     * @param numVertices the number of vertices
+     */
+    private void ensureList(int numVertices) {
+        if ( numVertices >= free.length ) {
+            int capacity = Math.max(numVertices + 1, free.length * 2);
+            free = Arrays.copyOf(free, capacity);
+            freeCount = Arrays.copyOf(freeCount, capacity);
+        }
+        if ( free[numVertices] == null ) {
+            free[numVertices] = new Polygon[16];
+        }
+    }
+
+    /**
+     * This method gives a regular polygon, reused if there is a free one
+     * The polygon is updated and its overlap flag is cleared
+     * @param numVertices the number of vertices of the polygon
+     * @param x the x coordinate of the position
+     * @param y the y coordinate of the position
+     * @param size the size of the polygon
+     * @param angle the angle of the polygon
+     * @return the polygon
+     */
+    public Polygon acquire(int numVertices, float x, float y, float size, float angle) {
+        ensureList(numVertices);
+        if ( freeCount[numVertices] == 0 ) {
+            created++;
+            Polygon polygon = PolygonFactory.makeSharedRegularPolygon(numVertices, new Vec2df(x, y), size, angle);
+            polygon.update();
+            return polygon;
+        }
+        reused++;
+        Polygon polygon = free[numVertices][--freeCount[numVertices]];
+        free[numVertices][freeCount[numVertices]] = null;
+        polygon.getPosition().setX(x);
+        polygon.getPosition().setY(y);
+        polygon.setAngle(angle);
+        polygon.setScale(size);
+        polygon.setOverlap(false);
+        polygon.update();
+        return polygon;
+    }
+
+    /**
+     * This method gives back a polygon, so it can be reused
+     * The polygon must not be used after it is released,
+     * nor released twice
+     * @param polygon a polygon given by acquire
+     * @throws IllegalArgumentException if the polygon doesn't share its model with the pool
+     */
+    public void release(Polygon polygon) {
+        int numVertices = polygon.getO().length;
+        if ( polygon.getO() != PolygonFactory.getUnitShape(numVertices) ) {
+            throw new IllegalArgumentException("The polygon doesn't share the model of PolygonFactory");
+        }
+        ensureList(numVertices);
+        if ( freeCount[numVertices] == free[numVertices].length ) {
+            free[numVertices] = Arrays.copyOf(free[numVertices], freeCount[numVertices] * 2);
+        }
+        free[numVertices][freeCount[numVertices]++] = polygon;
+    }
+
+    /**
+     * This method forgets all the free polygons
+     */
+    public void clear() {
+        for ( Polygon[] list : free ) {
+            if ( list != null ) {
+                Arrays.fill(list, null);
+            }
+        }
+        Arrays.fill(freeCount, 0);
+    }
+
+    /**
+     * This method returns the number of free polygons
+     * @return the number of free polygons, of any number of vertices
+     */
+    public int getFreeCount() {
+        int count = 0;
+        for ( int c : freeCount ) {
+            count += c;
+        }
+        return count;
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getReused() {
+        return reused;
+    }
+}
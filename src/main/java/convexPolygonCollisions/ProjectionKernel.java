@@ -0,0 +1,31 @@
+package convexPolygonCollisions;
+
+/**
+ * This interface is the inner loop of the SAT over the primitive
+ * vertex layout of PolygonBuffer: it projects the vertices of two
+ * bodies over one axis and returns how much their intervals overlap
+ * The implementations must give the same bits as the scalar one,
+ * so the kernel can be chosen without changing any result
+ *
+ * @class ProjectionKernel
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public interface ProjectionKernel {
+
+    /**
+     * This method projects the vertices of two bodies over an axis
+     * @param x the x coordinates of the vertices
+     * @param y the y coordinates of the vertices
+     * @param start1 the first vertex of the body 1
+     * @param count1 the number of vertices of the body 1
+     * @param start2 the first vertex of the body 2
+     * @param count2 the number of vertices of the body 2
+     * @param axisX the x coordinate of the axis
+     * @param axisY the y coordinate of the axis
+     * @return min(maxR1, maxR2) - max(minR1, minR2), which is negative
+     * if and only if the intervals don't overlap
+     */
+    float axisOverlap(float[] x, float[] y, int start1, int count1, int start2, int count2, float axisX, float axisY);
+
+}
@@ -0,0 +1,74 @@
+package convexPolygonCollisions;
+
+/**
+ * This class chooses the best ProjectionKernel available
+ * The SIMD kernel is only used when it has been compiled from the
+ * optional source root src/vector/java and the JVM has been started with
+ * "--add-modules jdk.incubator.vector", otherwise the scalar kernel
+ * is used. The SIMD kernel is loaded by its name, so the main sources
+ * never link against the incubator module and build without it
+ *
+ * @class ProjectionKernels
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class ProjectionKernels {
+
+    /**
+     * The name of the module of the Vector API
+     */
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * The SIMD kernel, or null if it is not available
+     */
+    private static final ProjectionKernel VECTOR = loadVectorKernel();
+
+    /**
+     * This method loads the SIMD kernel
+     * @return the SIMD kernel, or null if the Vector API is not available
+     */
+    private static ProjectionKernel loadVectorKernel() {
+        if ( !ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent() ) {
+            return null;
+        }
+        try {
+            return (ProjectionKernel) Class.forName("convexPolygonCollisions.VectorProjectionKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch ( ReflectiveOperationException | LinkageError e ) {
+            return null;
+        }
+    }
+
+    /**
+     * This method returns if the SIMD kernel is available
+     * @return if the SIMD kernel is available
+     */
+    public static boolean isVectorAvailable() {
+        return VECTOR != null;
+    }
+
+    /**
+     * This method returns the SIMD kernel
+     * @return the SIMD kernel, or null if it is not available
+     */
+    public static ProjectionKernel vector() {
+        return VECTOR;
+    }
+
+    /**
+     * This method returns the scalar kernel
+     * @return the scalar kernel
+     */
+    public static ProjectionKernel scalar() {
+        return ScalarProjectionKernel.INSTANCE;
+    }
+
+    /**
+     * This method returns the best kernel available
+     * @return the SIMD kernel if it is available, or the scalar one
+     */
+    public static ProjectionKernel best() {
+        return VECTOR != null ? VECTOR : ScalarProjectionKernel.INSTANCE;
+    }
+}
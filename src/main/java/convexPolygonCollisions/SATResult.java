@@ -0,0 +1,81 @@
+package convexPolygonCollisions;
+
+/**
+ * This class holds the result of the SAT between two polygons: if they
+ * overlap, how much, and how many axes were projected until the result
+ * was known, so the callers can count the work done without testing
+ * the pair again
+ * The axes are the edges of the first polygon and then the edges of
+ * the second one, in the order shapeOverlapSAT tests them, so when the
+ * polygons don't overlap the last axis projected is the one which
+ * separates them
+ * An instance is meant to be reused by the caller, the SAT
+ * overwrites all its values
+ *
+ * @class SATResult
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class SATResult {
+
+    /**
+     * The flag to indicate the polygons overlap
+     */
+    private boolean overlap;
+
+    /**
+     * The smallest overlap over all the axes, -1 if the polygons don't overlap
+     */
+    private float depth;
+
+    /**
+     * The number of axes projected
+     */
+    private int axesProjected;
+
+    /**
+     * The number of axes of the pair, one per edge of each polygon
+     */
+    private int axisCount;
+
+    /**
+     * This method sets all the values of the result
+     * @param overlap if the polygons overlap
+     * @param depth the smallest overlap, -1 if the polygons don't overlap
+     * @param axesProjected the number of axes projected
+     * @param axisCount the number of axes of the pair
+     */
+    void set(boolean overlap, float depth, int axesProjected, int axisCount) {
+        this.overlap = overlap;
+        this.depth = depth;
+        this.axesProjected = axesProjected;
+        this.axisCount = axisCount;
+    }
+
+    /**
+     * This method checks if the SAT stopped before the last axis,
+     * because an earlier axis separates the polygons
+     * @return if the SAT exited early
+     */
+    public boolean isEarlyExit() {
+        return axesProjected < axisCount;
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public boolean isOverlap() {
+        return overlap;
+    }
+
+    public float getDepth() {
+        return depth;
+    }
+
+    public int getAxesProjected() {
+        return axesProjected;
+    }
+
+    public int getAxisCount() {
+        return axisCount;
+    }
+}
@@ -0,0 +1,40 @@
+package convexPolygonCollisions;
+
+/**
+ * This class is the scalar ProjectionKernel,
+ * it projects the vertices one by one
+ *
+ * @class ScalarProjectionKernel
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class ScalarProjectionKernel implements ProjectionKernel {
+
+    /**
+     * The shared instance, the kernel has no state
+     */
+    public static final ScalarProjectionKernel INSTANCE = new ScalarProjectionKernel();
+
+    @Override
+    public float axisOverlap(float[] x, float[] y, int start1, int count1, int start2, int count2, float axisX, float axisY) {
+        float minR1 = Float.MAX_VALUE;
+        float maxR1 = -Float.MAX_VALUE;
+
+        for ( int p = start1; p < start1 + count1; p++ ) {
+            float q = (x[p] * axisX + y[p] * axisY);
+            minR1 = Float.min(minR1, q);
+            maxR1 = Float.max(maxR1, q);
+        }
+
+        float minR2 = Float.MAX_VALUE;
+        float maxR2 = -Float.MAX_VALUE;
+
+        for ( int p = start2; p < start2 + count2; p++ ) {
+            float q = (x[p] * axisX + y[p] * axisY);
+            minR2 = Float.min(minR2, q);
+            maxR2 = Float.max(maxR2, q);
+        }
+
+        return Float.min(maxR1, maxR2) - Float.max(minR1, minR2);
+    }
+}
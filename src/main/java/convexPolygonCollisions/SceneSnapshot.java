@@ -0,0 +1,143 @@
+package convexPolygonCollisions;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class saves and loads the bodies of a PolygonBuffer as a binary file,
+ * so a big scene can be checkpointed and restored without building
+ * it again through PolygonFactory and the Vec2df objects
+ * The file is mapped in memory and the arrays are copied in bulk,
+ * all the values are little-endian
+ * The format is a header and the flat arrays of the buffer:
+ * magic (int), version (int), bodies (int), vertices (int), step (long),
+ * positionX, positionY, angle (float[bodies]), vertexCount (int[bodies]),
+ * modelX, modelY (float[vertices])
+ * The transformed vertices are not saved, they are computed on load
+ *
+ * @class SceneSnapshot
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class SceneSnapshot {
+
+    /**
+     * The first int of the file, the bytes "CPCS"
+     */
+    public static final int MAGIC = 0x53435043;
+
+    /**
+     * The version of the format written
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The size of the header, in bytes
+     */
+    public static final int HEADER_BYTES = 4 * Integer.BYTES + Long.BYTES;
+
+    /**
+     * This method computes the size of the file of a scene
+     * @param numBodies the number of bodies
+     * @param numVertices the number of vertices, for all the bodies
+     * @return the size of the file, in bytes
+     */
+    public static long fileSize(int numBodies, int numVertices) {
+        return HEADER_BYTES + 4L * Float.BYTES * numBodies + 2L * Float.BYTES * numVertices;
+    }
+
+    /**
+     * This method saves the bodies of a buffer
+     * The file is replaced if it exists
+     * @param path the file
+     * @param buffer the bodies
+     * @param step the step of the simulation, to restore it with the scene
+     * @throws IOException if the file can't be written, or the scene is bigger than 2 GB
+     */
+    public static void write(Path path, PolygonBuffer buffer, long step) throws IOException {
+        long size = fileSize(buffer.size(), buffer.getVertexSize());
+        if ( size > Integer.MAX_VALUE ) {
+            throw new IOException("The scene is too big to be mapped: " + size + " bytes");
+        }
+        try ( FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING) ) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(buffer.size());
+            out.putInt(buffer.getVertexSize());
+            out.putLong(step);
+            buffer.writeArrays(out);
+            out.force();
+        }
+    }
+
+    /**
+     * This method saves the bodies of a buffer, with the step 0
+     * @param path the file
+     * @param buffer the bodies
+     * @throws IOException if the file can't be written
+     */
+    public static void write(Path path, PolygonBuffer buffer) throws IOException {
+        write(path, buffer, 0);
+    }
+
+    /**
+     * This method loads a file into a buffer
+     * The bodies of the buffer are replaced and transformed
+     * @param path the file
+     * @param buffer the buffer to fill
+     * @return the step saved with the scene
+     * @throws IOException if the file can't be read or isn't a valid snapshot
+     */
+    public static long read(Path path, PolygonBuffer buffer) throws IOException {
+        try ( FileChannel channel = FileChannel.open(path, StandardOpenOption.READ) ) {
+            long size = channel.size();
+            if ( size < HEADER_BYTES ) {
+                throw new IOException("The file is too small to be a snapshot: " + path);
+            }
+            if ( size > Integer.MAX_VALUE ) {
+                throw new IOException("The file is too big to be mapped: " + size + " bytes");
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            in.order(ByteOrder.LITTLE_ENDIAN);
+            if ( in.getInt() != MAGIC ) {
+                throw new IOException("The file is not a snapshot: " + path);
+            }
+            int version = in.getInt();
+            if ( version < 1 || version > VERSION ) {
+                throw new IOException("The version " + version + " of the snapshot is not supported");
+            }
+            int numBodies = in.getInt();
+            int numVertices = in.getInt();
+            long step = in.getLong();
+            if ( numBodies < 0 || numVertices < 0 || fileSize(numBodies, numVertices) != size ) {
+                throw new IOException("The size of the snapshot doesn't match its header: " + path);
+            }
+            try {
+                buffer.readArrays(in, numBodies, numVertices);
+            } catch ( IllegalArgumentException e ) {
+                throw new IOException("The snapshot is corrupted: " + path, e);
+            }
+            return step;
+        }
+    }
+
+    /**
+     * This method loads a file into a new buffer
+     * @param path the file
+     * @return a new buffer with the bodies, transformed
+     * @throws IOException if the file can't be read or isn't a valid snapshot
+     */
+    public static PolygonBuffer read(Path path) throws IOException {
+        PolygonBuffer buffer = new PolygonBuffer();
+        read(path, buffer);
+        return buffer;
+    }
+
+}
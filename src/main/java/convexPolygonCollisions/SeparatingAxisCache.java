@@ -0,0 +1,205 @@
+package convexPolygonCollisions;
+
+/**
+ * This class remembers, for each pair of polygons, the axis which
+ * separated them the last time, so the SAT tests it first
+ * Between frames most pairs which don't overlap are separated by
+ * the same axis, so usually only one axis is projected
+ * The pairs get their entries from a PairSlotPool, so the entries of
+ * the pairs which are not tested in a frame (because they are not
+ * candidates of the broad-phase any more) are removed in endFrame
+ * The number of entries is limited: when the cache is full the
+ * new pairs are tested without being remembered
+ *
+ * @class SeparatingAxisCache
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class SeparatingAxisCache {
+
+    /**
+     * The entries of the pairs
+     */
+    private final PairSlotPool entries;
+
+    /**
+     * The last separating axis of each entry, -1 if the pair was overlapping
+     */
+    private final int[] entryAxis;
+
+    /**
+     * The number of tests of pairs
+     */
+    private long lookups = 0;
+
+    /**
+     * The number of tests where the cached axis was still separating
+     */
+    private long hits = 0;
+
+    /**
+     * The number of tests where the cached axis didn't separate any more
+     */
+    private long misses = 0;
+
+    /**
+     * The number of axes projected
+     */
+    private long axesTested = 0;
+
+    /**
+     * The number of pairs which couldn't be cached because the cache was full
+     */
+    private long overflows = 0;
+
+    /**
+     * The metrics where the projected axes are added, and the
+     * tests where the cached axis separates count as early exits
+     */
+    private CollisionMetrics metrics = CollisionMetrics.DISABLED;
+
+    /**
+     * Constructor
+     * @param maxEntries the maximum number of pairs remembered
+     */
+    public SeparatingAxisCache(int maxEntries) {
+        entries = new PairSlotPool(maxEntries);
+        entryAxis = new int[entries.getMaxSlots()];
+    }
+
+    /**
+     * This method starts a new frame
+     */
+    public void beginFrame() {
+        entries.beginFrame();
+    }
+
+    /**
+     * This method removes the entries of the pairs which
+     * were not tested in the current frame
+     * @return the number of entries removed
+     */
+    public int endFrame() {
+        return entries.endFrame();
+    }
+
+    /**
+     * This method contains the algorithm "SAT", testing first
+     * the axis which separated the pair the last time
+     * The polygons must be updated before
+     * @param r1 the polygon 1
+     * @param r2 the polygon 2
+     * @return if there is a overlap between the two polygons
+     */
+    public boolean shapeOverlapSAT(Polygon r1, Polygon r2) {
+        // The axes are numbered in the order of the ids, so they don't depend on the order of the arguments
+        if ( r1.getId() > r2.getId() ) {
+            Polygon swap = r1;
+            r1 = r2;
+            r2 = swap;
+        }
+        long key = PairSlotPool.key(r1, r2);
+        int entry = entries.find(key);
+        int firstAxis = entry == PairSlotPool.NO_SLOT ? -1 : entryAxis[entry];
+
+        int axis = ConvexPolygonCollisions.findSeparatingAxis(r1, r2, firstAxis);
+
+        int total = r1.getAxisCount() + r2.getAxisCount();
+        int start = firstAxis < 0 || firstAxis >= total ? 0 : firstAxis;
+        int axes = axis < 0 ? total : (axis - start + total) % total + 1;
+        lookups++;
+        axesTested += axes;
+        metrics.add(CollisionMetrics.Counter.AXES_PROJECTED, axes);
+        if ( firstAxis >= 0 ) {
+            if ( axis == firstAxis ) {
+                hits++;
+                metrics.increment(CollisionMetrics.Counter.EARLY_EXITS);
+            } else {
+                misses++;
+            }
+        }
+
+        if ( entry == PairSlotPool.NO_SLOT ) {
+            entry = entries.acquire(key);
+            if ( entry == PairSlotPool.NO_SLOT ) {
+                overflows++;
+                return axis < 0;
+            }
+        }
+        entryAxis[entry] = axis;
+        return axis < 0;
+    }
+
+    /**
+     * This method removes all the entries
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * This method sets all the metrics to zero
+     */
+    public void resetMetrics() {
+        lookups = 0;
+        hits = 0;
+        misses = 0;
+        axesTested = 0;
+        overflows = 0;
+    }
+
+    /**
+     * This method returns the fraction of tests with a cached axis
+     * where that axis was still separating the pair
+     * @return the hit rate, between 0 and 1
+     */
+    public double getHitRate() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    /**
+     * This method returns the mean number of axes projected per test
+     * @return the mean number of axes projected
+     */
+    public double getAxesPerTest() {
+        return lookups == 0 ? 0 : (double) axesTested / lookups;
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getMaxEntries() {
+        return entries.getMaxSlots();
+    }
+
+    public long getLookups() {
+        return lookups;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getAxesTested() {
+        return axesTested;
+    }
+
+    public long getOverflows() {
+        return overflows;
+    }
+
+    public CollisionMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(CollisionMetrics metrics) {
+        this.metrics = metrics;
+    }
+}
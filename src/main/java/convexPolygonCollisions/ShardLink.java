@@ -0,0 +1,57 @@
+package convexPolygonCollisions;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * This interface is the connection of a ShardedWorld with one of
+ * its shards, which can run in the same process or in another one
+ * A step is started with beginStep, which must not wait for the shard,
+ * so all the shards run at the same time, and it is finished with endStep
+ * The batches given to beginStep must not be changed until endStep,
+ * and the batches returned after endStep are valid until the next beginStep
+ *
+ * @class ShardLink
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public interface ShardLink extends Closeable {
+
+    /**
+     * This method starts a step of the shard
+     * @param migrants the bodies which the shard owns from now on
+     * @param ghosts the ghost copies of the bodies of the other shards
+     * @param advance if the bodies are stepped, or only exchanged
+     * @throws IOException if the shard can't be reached
+     */
+    void beginStep(BodyBatch migrants, BodyBatch ghosts, boolean advance) throws IOException;
+
+    /**
+     * This method waits for the end of the step of the shard
+     * @return the number of pairs reported by the shard
+     * @throws IOException if the shard can't be reached or has failed
+     */
+    int endStep() throws IOException;
+
+    /**
+     * This method returns the number of bodies owned by the shard after the last step
+     * @return the number of owned bodies
+     */
+    int getOwnedCount();
+
+    /**
+     * This method returns the bodies which have moved
+     * to another shard in the last step
+     * @param shard the index of the other shard
+     * @return the bodies
+     */
+    BodyBatch getMigrants(int shard);
+
+    /**
+     * This method returns the ghosts for another shard of the last step
+     * @param shard the index of the other shard
+     * @return the ghosts
+     */
+    BodyBatch getGhosts(int shard);
+
+}
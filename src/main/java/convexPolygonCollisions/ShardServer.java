@@ -0,0 +1,130 @@
+package convexPolygonCollisions;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * This class runs a shard for a SocketShardLink, usually in another process
+ * It reads the commands of the link and answers each step with
+ * the number of pairs reported, the number of owned bodies
+ * and the bodies to send to each of the other shards
+ * The protocol: INIT (index, boundaries, ghost margin, mode, time step),
+ * then STEP (advance, migrants, ghosts) as many times as needed, and CLOSE
+ *
+ * @class ShardServer
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class ShardServer implements Runnable {
+
+    /**
+     * The commands of the protocol
+     */
+    static final byte INIT = 1;
+    static final byte STEP = 2;
+    static final byte CLOSE = 3;
+
+    /**
+     * The connection with the link
+     */
+    private final Socket socket;
+
+    /**
+     * The shard, built by the command INIT
+     */
+    private WorldShard shard = null;
+
+    /**
+     * Constructor
+     * @param socket the connection with the link
+     */
+    public ShardServer(Socket socket) {
+        this.socket = socket;
+    }
+
+    /**
+     * This method accepts one link and serves it until it closes
+     * @param serverSocket the socket where the link connects
+     * @throws IOException if the connection fails
+     */
+    public static void serve(ServerSocket serverSocket) throws IOException {
+        try ( Socket socket = serverSocket.accept() ) {
+            socket.setTcpNoDelay(true);
+            new ShardServer(socket).serve();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            serve();
+        } catch ( IOException e ) {
+            throw new IllegalStateException("The shard server has failed", e);
+        }
+    }
+
+    /**
+     * This method reads and runs the commands until the link closes
+     * @throws IOException if the connection fails
+     */
+    public void serve() throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        BodyBatch migrants = new BodyBatch();
+        BodyBatch ghosts = new BodyBatch();
+        while ( true ) {
+            byte command;
+            try {
+                command = in.readByte();
+            } catch ( EOFException e ) {
+                return;
+            }
+            switch ( command ) {
+                case INIT: {
+                    int index = in.readInt();
+                    float[] boundaries = new float[in.readInt()];
+                    for ( int i = 0; i < boundaries.length; i++ ) {
+                        boundaries[i] = in.readFloat();
+                    }
+                    float ghostMargin = in.readFloat();
+                    CollisionWorld.Mode mode = CollisionWorld.Mode.values()[in.readInt()];
+                    float timeStep = in.readFloat();
+                    shard = new WorldShard(index, boundaries, ghostMargin, mode, timeStep);
+                    break;
+                }
+                case STEP: {
+                    if ( shard == null ) {
+                        throw new IOException("STEP before INIT");
+                    }
+                    boolean advance = in.readBoolean();
+                    migrants.readFrom(in);
+                    ghosts.readFrom(in);
+                    shard.addOwned(migrants);
+                    shard.setGhosts(ghosts);
+                    int contacts = shard.step(advance);
+                    out.writeInt(contacts);
+                    out.writeInt(shard.getOwnedCount());
+                    int numShards = shard.getNumShards();
+                    out.writeInt(numShards);
+                    for ( int i = 0; i < numShards; i++ ) {
+                        shard.getMigrants(i).writeTo(out);
+                        shard.getGhosts(i).writeTo(out);
+                    }
+                    out.flush();
+                    break;
+                }
+                case CLOSE:
+                    return;
+                default:
+                    throw new IOException("Unknown command " + command);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,216 @@
+package convexPolygonCollisions;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * This class is a world of polygons split in vertical strips of space,
+ * each one stepped by a WorldShard independently of the others
+ * The shards are reached through ShardLinks, so they can run on
+ * threads of this process (LocalShardLink) or in other processes
+ * (SocketShardLink). All the shards run each step at the same time,
+ * and then the world routes the bodies which have moved to another
+ * strip and the ghost copies of the bodies near the boundaries
+ * The pairs across a boundary are seen by both shards, they are
+ * reported once, by the shard of the body with the lower id
+ *
+ * @class ShardedWorld
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class ShardedWorld implements Closeable {
+
+    /**
+     * The x coordinates which split the space in strips, sorted
+     */
+    private final float[] boundaries;
+
+    /**
+     * The connections with the shards, one for each strip
+     */
+    private final ShardLink[] links;
+
+    /**
+     * The bodies which each shard owns from its next step
+     */
+    private final BodyBatch[] inboxMigrants;
+
+    /**
+     * The ghosts which each shard receives in its next step
+     */
+    private final BodyBatch[] inboxGhosts;
+
+    /**
+     * The number of bodies owned by each shard after the last step
+     */
+    private final int[] ownedCount;
+
+    /**
+     * The flag to indicate the ghosts of the bodies added are known
+     */
+    private boolean exchanged = true;
+
+    /**
+     * The id of the next body
+     */
+    private int nextId = 0;
+
+    /**
+     * The number of pairs reported in the last step
+     */
+    private int contacts = 0;
+
+    /**
+     * The number of steps run
+     */
+    private long stepCount = 0;
+
+    /**
+     * Constructor
+     * @param boundaries the x coordinates which split the space in strips, sorted
+     * @param links the connections with the shards, one more than boundaries
+     * @throws IllegalArgumentException if the number of links doesn't match the boundaries
+     */
+    public ShardedWorld(float[] boundaries, ShardLink[] links) {
+        if ( links.length != boundaries.length + 1 ) {
+            throw new IllegalArgumentException(boundaries.length + " boundaries need " + (boundaries.length + 1) + " shards, not " + links.length);
+        }
+        this.boundaries = boundaries.clone();
+        this.links = links.clone();
+        inboxMigrants = new BodyBatch[links.length];
+        inboxGhosts = new BodyBatch[links.length];
+        for ( int i = 0; i < links.length; i++ ) {
+            inboxMigrants[i] = new BodyBatch();
+            inboxGhosts[i] = new BodyBatch();
+        }
+        ownedCount = new int[links.length];
+    }
+
+    /**
+     * This method builds a world whose shards run on threads of this process
+     * @param boundaries the x coordinates which split the space in strips, sorted
+     * @param ghostMargin the distance around a strip where the other bodies are received as ghosts
+     * @param mode the collision method
+     * @param timeStep the duration of a step, in seconds
+     * @return the world
+     */
+    public static ShardedWorld local(float[] boundaries, float ghostMargin, CollisionWorld.Mode mode, float timeStep) {
+        ShardLink[] links = new ShardLink[boundaries.length + 1];
+        for ( int i = 0; i < links.length; i++ ) {
+            links[i] = new LocalShardLink(new WorldShard(i, boundaries, ghostMargin, mode, timeStep));
+        }
+        return new ShardedWorld(boundaries, links);
+    }
+
+    /**
+     * This method adds a body, with inverse mass 1, to the shard of its position
+     * The body is sent to the shard in the next step
+     * @param polygon the polygon, it is copied
+     * @param velocityX the x coordinate of the linear velocity
+     * @param velocityY the y coordinate of the linear velocity
+     * @param angularVelocity the angular velocity
+     * @return the id of the body
+     */
+    public int addBody(Polygon polygon, float velocityX, float velocityY, float angularVelocity) {
+        int id = nextId++;
+        int shard = WorldShard.regionOf(boundaries, polygon.getPosition().getX());
+        inboxMigrants[shard].add(id, polygon, velocityX, velocityY, angularVelocity, 1);
+        exchanged = false;
+        return id;
+    }
+
+    /**
+     * This method runs one step of all the shards
+     * If bodies have been added, a round without moving
+     * the bodies exchanges their ghosts first
+     * @throws IOException if a shard can't be reached or has failed
+     */
+    public void step() throws IOException {
+        if ( !exchanged ) {
+            round(false);
+            exchanged = true;
+        }
+        contacts = round(true);
+        stepCount++;
+    }
+
+    /**
+     * This method runs a round of all the shards and routes the bodies they send
+     * @param advance if the bodies are stepped, or only exchanged
+     * @return the number of pairs reported by the shards
+     * @throws IOException if a shard can't be reached or has failed
+     */
+    private int round(boolean advance) throws IOException {
+        for ( int i = 0; i < links.length; i++ ) {
+            links[i].beginStep(inboxMigrants[i], inboxGhosts[i], advance);
+        }
+        int reported = 0;
+        for ( int i = 0; i < links.length; i++ ) {
+            reported += links[i].endStep();
+            ownedCount[i] = links[i].getOwnedCount();
+        }
+        for ( int target = 0; target < links.length; target++ ) {
+            inboxMigrants[target].clear();
+            inboxGhosts[target].clear();
+            for ( ShardLink link : links ) {
+                inboxMigrants[target].addAll(link.getMigrants(target));
+                inboxGhosts[target].addAll(link.getGhosts(target));
+            }
+        }
+        return reported;
+    }
+
+    /**
+     * This method closes the connections with all the shards
+     * @throws IOException if a connection fails to close
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for ( ShardLink link : links ) {
+            try {
+                link.close();
+            } catch ( IOException e ) {
+                failure = e;
+            }
+        }
+        if ( failure != null ) {
+            throw failure;
+        }
+    }
+
+    /**
+     * This method returns the number of bodies of the world: the ones owned
+     * by the shards after the last step and the ones on their way to a shard
+     * @return the number of bodies
+     */
+    public int size() {
+        int size = 0;
+        for ( int i = 0; i < links.length; i++ ) {
+            size += ownedCount[i] + inboxMigrants[i].size();
+        }
+        return size;
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public int getContacts() {
+        return contacts;
+    }
+
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    public int getShardCount() {
+        return links.length;
+    }
+
+    public int getOwnedCount(int shard) {
+        return ownedCount[shard];
+    }
+
+    public ShardLink getLink(int shard) {
+        return links[shard];
+    }
+}
@@ -0,0 +1,128 @@
+package convexPolygonCollisions;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * This class runs a shard in a ShardServer through a socket,
+ * usually in another process of the same machine
+ * beginStep only writes the command, so the servers of all
+ * the shards step at the same time, and endStep reads the answer
+ *
+ * @class SocketShardLink
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class SocketShardLink implements ShardLink {
+
+    /**
+     * The connection with the server
+     */
+    private final Socket socket;
+
+    /**
+     * The streams of the connection
+     */
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    /**
+     * The bodies to send to each shard, read from the last answer
+     */
+    private final BodyBatch[] migrants, ghosts;
+
+    /**
+     * The number of bodies owned by the shard after the last step
+     */
+    private int ownedCount = 0;
+
+    /**
+     * Constructor, it sends the configuration of the shard to the server
+     * @param socket the connection with the server
+     * @param index the index of the shard
+     * @param boundaries the x coordinates which split the space in strips, sorted
+     * @param ghostMargin the distance around the strip where the other bodies are received as ghosts
+     * @param mode the collision method
+     * @param timeStep the duration of a step, in seconds
+     * @throws IOException if the connection fails
+     */
+    public SocketShardLink(Socket socket, int index, float[] boundaries, float ghostMargin,
+                           CollisionWorld.Mode mode, float timeStep) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        migrants = new BodyBatch[boundaries.length + 1];
+        ghosts = new BodyBatch[boundaries.length + 1];
+        for ( int i = 0; i < migrants.length; i++ ) {
+            migrants[i] = new BodyBatch();
+            ghosts[i] = new BodyBatch();
+        }
+
+        out.writeByte(ShardServer.INIT);
+        out.writeInt(index);
+        out.writeInt(boundaries.length);
+        for ( float boundary : boundaries ) {
+            out.writeFloat(boundary);
+        }
+        out.writeFloat(ghostMargin);
+        out.writeInt(mode.ordinal());
+        out.writeFloat(timeStep);
+        out.flush();
+    }
+
+    @Override
+    public void beginStep(BodyBatch migrants, BodyBatch ghosts, boolean advance) throws IOException {
+        out.writeByte(ShardServer.STEP);
+        out.writeBoolean(advance);
+        migrants.writeTo(out);
+        ghosts.writeTo(out);
+        out.flush();
+    }
+
+    @Override
+    public int endStep() throws IOException {
+        int contacts = in.readInt();
+        ownedCount = in.readInt();
+        int numShards = in.readInt();
+        if ( numShards != migrants.length ) {
+            throw new IOException("The server has " + numShards + " shards instead of " + migrants.length);
+        }
+        for ( int i = 0; i < numShards; i++ ) {
+            migrants[i].readFrom(in);
+            ghosts[i].readFrom(in);
+        }
+        return contacts;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.writeByte(ShardServer.CLOSE);
+            out.flush();
+        } finally {
+            socket.close();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    @Override
+    public int getOwnedCount() {
+        return ownedCount;
+    }
+
+    @Override
+    public BodyBatch getMigrants(int shard) {
+        return migrants[shard];
+    }
+
+    @Override
+    public BodyBatch getGhosts(int shard) {
+        return ghosts[shard];
+    }
+}
@@ -0,0 +1,415 @@
+package convexPolygonCollisions;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is a broad-phase which uses a uniform grid
+ * It works best when the polygons have similar sizes,
+ * and the size of the cells is close to the size of the polygons
+ * The cells are found in a LongIntHashMap by its packed
+ * coordinates, so only the used cells take memory
+ * Between frames only the polygons which change of cells
+ * are removed and inserted again
+ * The polygons which would take too many cells are not put in the
+ * cells, they are kept in an overflow list and tested against all
+ * the other polygons, so a huge polygon can't stall the grid
+ *
+ * @class SpatialHashGrid
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class SpatialHashGrid implements BroadPhase {
+
+    /**
+     * The value of the map when a cell doesn't exist
+     */
+    private static final int NO_CELL = -1;
+
+    /**
+     * The biggest cell coordinate, the polygons beyond it are put in the cells of the border,
+     * so the loops over the ranges of cells can't overflow
+     */
+    private static final int MAX_CELL = 1 << 30;
+
+    /**
+     * The maximum number of cells of a polygon, the bigger polygons go to the overflow list
+     */
+    private static final int MAX_CELLS_PER_BODY = 64;
+
+    /**
+     * The inverse of the size of the cells
+     */
+    private final float inverseCellSize;
+
+    /**
+     * The map from the packed cell coordinates to the cell index
+     */
+    private final LongIntHashMap cellMap = new LongIntHashMap(256);
+
+    /**
+     * The polygons inside each cell
+     */
+    private int[][] cellBodies = new int[16][];
+
+    /**
+     * The number of polygons inside each cell
+     */
+    private int[] cellCount = new int[16];
+
+    /**
+     * The coordinates of each cell
+     */
+    private int[] cellX = new int[16], cellY = new int[16];
+
+    /**
+     * The number of cells, used or free
+     */
+    private int numCells = 0;
+
+    /**
+     * The free cells, which can be used again
+     */
+    private int[] freeCells = new int[16];
+
+    /**
+     * The number of free cells
+     */
+    private int numFreeCells = 0;
+
+    /**
+     * The polygon which is inserted for each index
+     */
+    private Polygon[] bodies = new Polygon[0];
+
+    /**
+     * The range of cells where each polygon is inserted
+     */
+    private int[] bodyMinX = new int[0], bodyMinY = new int[0], bodyMaxX = new int[0], bodyMaxY = new int[0];
+
+    /**
+     * The polygons which are too big to be put in the cells
+     */
+    private int[] oversized = new int[4];
+
+    /**
+     * The number of polygons in the overflow list
+     */
+    private int numOversized = 0;
+
+    /**
+     * The number of polygons inserted
+     */
+    private int numBodies = 0;
+
+    /**
+     * The number of candidate pairs found in the last frame
+     */
+    private int candidatePairs = 0;
+
+    /**
+     * The number of bounding boxes tested in the last frame
+     */
+    private int testedPairs = 0;
+
+    /**
+     * The number of polygons which changed of cells in the last frame
+     */
+    private int movedBodies = 0;
+
+    /**
+     * Constructor
+     * @param cellSize the size of the side of the cells
+     */
+    public SpatialHashGrid(float cellSize) {
+        this.inverseCellSize = 1 / cellSize;
+    }
+
+    /**
+     * This method packs the coordinates of a cell in a long
+     * @param x the x coordinate of the cell
+     * @param y the y coordinate of the cell
+     * @return the key of the cell
+     */
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * This method returns the cell coordinate of a world coordinate
+     * The coordinate is clamped to the border of the grid, so a polygon
+     * which has flown away, even to an infinite coordinate, only takes
+     * a few cells. The bounding boxes are still tested in emitPairs
+     * @param value the world coordinate
+     * @return the cell coordinate
+     */
+    private int toCell(float value) {
+        float cell = (float) Math.floor(value * inverseCellSize);
+        return (int) Math.max(-MAX_CELL, Math.min(MAX_CELL, cell));
+    }
+
+    @Override
+    public void findPairs(List<Polygon> polygons, PairList pairs) {
+        pairs.clear();
+        int n = polygons.size();
+        ensureBodyCapacity(n);
+        movedBodies = 0;
+
+        for ( int i = 0; i < n; i++ ) {
+            Polygon polygon = polygons.get(i);
+            int minX = toCell(polygon.getMinX());
+            int minY = toCell(polygon.getMinY());
+            int maxX = toCell(polygon.getMaxX());
+            int maxY = toCell(polygon.getMaxY());
+            if ( i < numBodies && bodies[i] == polygon &&
+                    bodyMinX[i] == minX && bodyMinY[i] == minY && bodyMaxX[i] == maxX && bodyMaxY[i] == maxY ) {
+                continue;
+            }
+            if ( i < numBodies ) {
+                removeBody(i);
+            }
+            bodies[i] = polygon;
+            bodyMinX[i] = minX;
+            bodyMinY[i] = minY;
+            bodyMaxX[i] = maxX;
+            bodyMaxY[i] = maxY;
+            insertBody(i);
+            movedBodies++;
+        }
+        for ( int i = n; i < numBodies; i++ ) {
+            removeBody(i);
+            bodies[i] = null;
+        }
+        numBodies = n;
+
+        emitPairs(pairs);
+    }
+
+    /**
+     * This method makes sure there is space for the polygons
+     * @param n the number of polygons
+     */
+    private void ensureBodyCapacity(int n) {
+        if ( bodies.length < n ) {
+            int capacity = Math.max(n, bodies.length * 2);
+            bodies = Arrays.copyOf(bodies, capacity);
+            bodyMinX = Arrays.copyOf(bodyMinX, capacity);
+            bodyMinY = Arrays.copyOf(bodyMinY, capacity);
+            bodyMaxX = Arrays.copyOf(bodyMaxX, capacity);
+            bodyMaxY = Arrays.copyOf(bodyMaxY, capacity);
+        }
+    }
+
+    /**
+     * This method checks if a polygon takes too many cells
+     * @param body the index of the polygon
+     * @return if the polygon goes to the overflow list
+     */
+    private boolean isOversized(int body) {
+        return (bodyMaxX[body] - (long) bodyMinX[body] + 1) * (bodyMaxY[body] - (long) bodyMinY[body] + 1) > MAX_CELLS_PER_BODY;
+    }
+
+    /**
+     * This method inserts a polygon in all the cells of its range,
+     * or in the overflow list if it takes too many cells
+     * @param body the index of the polygon
+     */
+    private void insertBody(int body) {
+        if ( isOversized(body) ) {
+            if ( numOversized == oversized.length ) {
+                oversized = Arrays.copyOf(oversized, numOversized * 2);
+            }
+            oversized[numOversized++] = body;
+            return;
+        }
+        for ( int x = bodyMinX[body]; x <= bodyMaxX[body]; x++ ) {
+            for ( int y = bodyMinY[body]; y <= bodyMaxY[body]; y++ ) {
+                int cell = cellMap.get(key(x, y), NO_CELL);
+                if ( cell == NO_CELL ) {
+                    cell = newCell(x, y);
+                }
+                if ( cellCount[cell] == cellBodies[cell].length ) {
+                    cellBodies[cell] = Arrays.copyOf(cellBodies[cell], cellCount[cell] * 2);
+                }
+                cellBodies[cell][cellCount[cell]++] = body;
+            }
+        }
+    }
+
+    /**
+     * This method removes a polygon from all the cells of its range
+     * The cells which become empty are freed
+     * @param body the index of the polygon
+     */
+    private void removeBody(int body) {
+        if ( isOversized(body) ) {
+            for ( int k = 0; k < numOversized; k++ ) {
+                if ( oversized[k] == body ) {
+                    oversized[k] = oversized[--numOversized];
+                    break;
+                }
+            }
+            return;
+        }
+        for ( int x = bodyMinX[body]; x <= bodyMaxX[body]; x++ ) {
+            for ( int y = bodyMinY[body]; y <= bodyMaxY[body]; y++ ) {
+                int cell = cellMap.get(key(x, y), NO_CELL);
+                int[] cellList = cellBodies[cell];
+                for ( int k = 0; k < cellCount[cell]; k++ ) {
+                    if ( cellList[k] == body ) {
+                        cellList[k] = cellList[--cellCount[cell]];
+                        break;
+                    }
+                }
+                if ( cellCount[cell] == 0 ) {
+                    cellMap.remove(key(x, y));
+                    freeCell(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * This method gets a free cell, or makes a new one
+     * @param x the x coordinate of the cell
+     * @param y the y coordinate of the cell
+     * @return the index of the cell
+     */
+    private int newCell(int x, int y) {
+        int cell;
+        if ( numFreeCells > 0 ) {
+            cell = freeCells[--numFreeCells];
+        } else {
+            if ( numCells == cellCount.length ) {
+                int capacity = cellCount.length * 2;
+                cellBodies = Arrays.copyOf(cellBodies, capacity);
+                cellCount = Arrays.copyOf(cellCount, capacity);
+                cellX = Arrays.copyOf(cellX, capacity);
+                cellY = Arrays.copyOf(cellY, capacity);
+            }
+            cell = numCells++;
+            cellBodies[cell] = new int[4];
+        }
+        cellCount[cell] = 0;
+        cellX[cell] = x;
+        cellY[cell] = y;
+        cellMap.put(key(x, y), cell);
+        return cell;
+    }
+
+    /**
+     * This method adds a cell to the free cells
+     * @param cell the index of the cell
+     */
+    private void freeCell(int cell) {
+        if ( numFreeCells == freeCells.length ) {
+            freeCells = Arrays.copyOf(freeCells, freeCells.length * 2);
+        }
+        freeCells[numFreeCells++] = cell;
+    }
+
+    /**
+     * This method emits the pairs of polygons which share a cell
+     * and whose bounding boxes overlap
+     * A pair which shares several cells is only emitted by one of them:
+     * the cell which contains the corner with smallest coordinates
+     * of the intersection of the ranges of the two polygons
+     * The polygons of the overflow list are tested against all the others
+     * @param pairs the list where the pairs are added
+     */
+    private void emitPairs(PairList pairs) {
+        candidatePairs = 0;
+        testedPairs = 0;
+        for ( int cell = 0; cell < numCells; cell++ ) {
+            int count = cellCount[cell];
+            int[] cellList = cellBodies[cell];
+            for ( int i = 0; i < count; i++ ) {
+                int a = cellList[i];
+                for ( int j = i + 1; j < count; j++ ) {
+                    int b = cellList[j];
+                    if ( Math.max(bodyMinX[a], bodyMinX[b]) != cellX[cell] ||
+                            Math.max(bodyMinY[a], bodyMinY[b]) != cellY[cell] ) {
+                        continue;
+                    }
+                    emitIfOverlapping(a, b, pairs);
+                }
+            }
+        }
+        for ( int k = 0; k < numOversized; k++ ) {
+            int a = oversized[k];
+            for ( int b = 0; b < numBodies; b++ ) {
+                // The pairs of two oversized polygons are emitted by the one found first in the list
+                if ( b != a && (!isOversized(b) || indexOfOversized(b) > k) ) {
+                    emitIfOverlapping(a, b, pairs);
+                }
+            }
+        }
+    }
+
+    /**
+     * This method finds the position of a polygon in the overflow list
+     * @param body the index of the polygon
+     * @return the position in the list, or -1 if it is not in it
+     */
+    private int indexOfOversized(int body) {
+        for ( int k = 0; k < numOversized; k++ ) {
+            if ( oversized[k] == body ) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * This method emits a pair if the bounding boxes of the polygons overlap
+     * @param a the index of one polygon
+     * @param b the index of the other polygon
+     * @param pairs the list where the pair is added
+     */
+    private void emitIfOverlapping(int a, int b, PairList pairs) {
+        testedPairs++;
+        Polygon pa = bodies[a];
+        Polygon pb = bodies[b];
+        if ( pa.getMinX() <= pb.getMaxX() && pb.getMinX() <= pa.getMaxX() &&
+                pa.getMinY() <= pb.getMaxY() && pb.getMinY() <= pa.getMaxY() ) {
+            pairs.add(a, b);
+            candidatePairs++;
+        }
+    }
+
+    @Override
+    public int getCandidatePairs() {
+        return candidatePairs;
+    }
+
+    @Override
+    public int getTestedPairs() {
+        return testedPairs;
+    }
+
+    /**
+     * This method returns the number of polygons which changed
+     * of cells in the last call to findPairs
+     * @return the number of polygons moved inside the grid
+     */
+    public int getMovedBodies() {
+        return movedBodies;
+    }
+
+    /**
+     * This method returns the number of cells used
+     * @return the number of cells used
+     */
+    public int getUsedCells() {
+        return cellMap.size();
+    }
+
+    /**
+     * This method returns the number of polygons which
+     * are too big to be put in the cells
+     * @return the number of polygons in the overflow list
+     */
+    public int getOversizedBodies() {
+        return numOversized;
+    }
+}
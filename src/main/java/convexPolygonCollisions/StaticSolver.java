@@ -0,0 +1,200 @@
+package convexPolygonCollisions;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class resolves the overlaps between the bodies like the static
+ * methods of ConvexPolygonCollisions, but without depending on the
+ * order of the pairs. In each iteration all the contacts are collected
+ * from the same positions, and each one is split between its two bodies
+ * by their inverse masses, so a body with an inverse mass of 0 never moves
+ * The corrections of a body are averaged over its contacts and applied at
+ * the end of the iteration (a Jacobi relaxation), so the first body can't
+ * push the rest of the pile and the last one isn't left still
+ * The iterations stop when the deepest overlap is below the tolerance
+ *
+ * @class StaticSolver
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class StaticSolver {
+
+    /**
+     * The maximum number of iterations of a call
+     */
+    private int iterations;
+
+    /**
+     * The overlap below which the bodies are considered separated
+     */
+    private float tolerance;
+
+    /**
+     * The factor of the averaged correction applied each iteration
+     * The average of the contacts of a body is too small when they push
+     * in the same direction, so it is multiplied by this factor,
+     * but a body never moves more than the sum of its contacts
+     */
+    private float relaxation = 2.0f;
+
+    /**
+     * The manifold reused by the pairs
+     */
+    private final ContactManifold manifold = new ContactManifold();
+
+    /**
+     * The accumulated correction of each body
+     */
+    private float[] correctionX = new float[0], correctionY = new float[0];
+
+    /**
+     * The number of contacts of each body in the current iteration
+     */
+    private int[] contactCount = new int[0];
+
+    /**
+     * The number of iterations run in the last call
+     */
+    private int lastIterations = 0;
+
+    /**
+     * The deepest overlap found in the last iteration of the last call
+     */
+    private float residual = 0;
+
+    /**
+     * Constructor
+     * @param iterations the maximum number of iterations of a call
+     * @param tolerance the overlap below which the bodies are considered separated
+     */
+    public StaticSolver(int iterations, float tolerance) {
+        this.iterations = Math.max(iterations, 1);
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Default constructor, 8 iterations and a tolerance of 0.01
+     */
+    public StaticSolver() {
+        this(8, 0.01f);
+    }
+
+    /**
+     * This method resolves the overlaps of the candidate pairs
+     * The bodies are updated after each iteration
+     * @param bodies the bodies, updated
+     * @param pairs the candidate pairs, indices of the bodies
+     * @param inverseMass the inverse mass of each body, 0 for the bodies which can't move
+     * @return the number of pairs which were overlapping in the first iteration
+     */
+    public int solve(List<Polygon> bodies, PairList pairs, float[] inverseMass) {
+        return solve(bodies, pairs, inverseMass, null);
+    }
+
+    /**
+     * This method resolves the overlaps of the candidate pairs,
+     * and adds the pairs which were overlapping in the first iteration to a list
+     * @param bodies the bodies, updated
+     * @param pairs the candidate pairs, indices of the bodies
+     * @param inverseMass the inverse mass of each body, 0 for the bodies which can't move
+     * @param contactPairs the list where the overlapping pairs are added, or null
+     * @return the number of pairs which were overlapping in the first iteration
+     */
+    public int solve(List<Polygon> bodies, PairList pairs, float[] inverseMass, PairList contactPairs) {
+        int n = bodies.size();
+        if ( correctionX.length < n ) {
+            int capacity = Math.max(n, correctionX.length * 2);
+            correctionX = new float[capacity];
+            correctionY = new float[capacity];
+            contactCount = new int[capacity];
+        }
+
+        int contacts = 0;
+        lastIterations = 0;
+        residual = 0;
+        for ( int it = 0; it < iterations; it++ ) {
+            Arrays.fill(correctionX, 0, n, 0);
+            Arrays.fill(correctionY, 0, n, 0);
+            Arrays.fill(contactCount, 0, n, 0);
+            residual = 0;
+            int overlapping = 0;
+            for ( int i = 0; i < pairs.size(); i++ ) {
+                int a = pairs.getFirst(i);
+                int b = pairs.getSecond(i);
+                float totalInverseMass = inverseMass[a] + inverseMass[b];
+                if ( totalInverseMass == 0 || !ConvexPolygonCollisions.penetrationSATCached(bodies.get(a), bodies.get(b), manifold) ) {
+                    continue;
+                }
+                overlapping++;
+                if ( it == 0 && contactPairs != null ) {
+                    contactPairs.add(a, b);
+                }
+                float depth = manifold.getDepth();
+                residual = Float.max(residual, depth);
+                if ( depth <= 0 ) {
+                    continue;
+                }
+                // The normal goes from a to b: a moves against it and b along it
+                float impulse = depth / totalInverseMass;
+                correctionX[a] -= manifold.getNormalX() * impulse * inverseMass[a];
+                correctionY[a] -= manifold.getNormalY() * impulse * inverseMass[a];
+                correctionX[b] += manifold.getNormalX() * impulse * inverseMass[b];
+                correctionY[b] += manifold.getNormalY() * impulse * inverseMass[b];
+                contactCount[a]++;
+                contactCount[b]++;
+            }
+            if ( it == 0 ) {
+                contacts = overlapping;
+            }
+            lastIterations++;
+            if ( residual < tolerance ) {
+                break;
+            }
+            for ( int i = 0; i < n; i++ ) {
+                if ( contactCount[i] > 0 ) {
+                    Polygon body = bodies.get(i);
+                    float scale = Float.min(relaxation / contactCount[i], 1);
+                    body.getPosition().addToX(correctionX[i] * scale);
+                    body.getPosition().addToY(correctionY[i] * scale);
+                    body.update();
+                }
+            }
+        }
+        return contacts;
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public float getTolerance() {
+        return tolerance;
+    }
+
+    public float getRelaxation() {
+        return relaxation;
+    }
+
+    public int getLastIterations() {
+        return lastIterations;
+    }
+
+    public float getResidual() {
+        return residual;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = Math.max(iterations, 1);
+    }
+
+    public void setTolerance(float tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public void setRelaxation(float relaxation) {
+        this.relaxation = relaxation;
+    }
+}
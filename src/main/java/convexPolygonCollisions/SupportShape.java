@@ -0,0 +1,38 @@
+package convexPolygonCollisions;
+
+/**
+ * This interface represents a convex shape through its support function:
+ * the point of the shape which is furthest along a direction
+ * It is all GJK and EPA need to know about a shape
+ * The support points are identified by an index, so a simplex
+ * can be kept between frames and rebuilt from the new positions
+ *
+ * @class SupportShape
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public interface SupportShape {
+
+    /**
+     * This method finds the support point along a direction
+     * @param dx the x coordinate of the direction
+     * @param dy the y coordinate of the direction
+     * @return the index of the point furthest along the direction
+     */
+    int supportIndex(float dx, float dy);
+
+    /**
+     * This method returns the x coordinate of a support point
+     * @param index the index of the point
+     * @return the x coordinate of the point
+     */
+    float getSupportX(int index);
+
+    /**
+     * This method returns the y coordinate of a support point
+     * @param index the index of the point
+     * @return the y coordinate of the point
+     */
+    float getSupportY(int index);
+
+}
@@ -0,0 +1,209 @@
+package convexPolygonCollisions;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is a broad-phase which uses the technique
+ * "sort and sweep" over the x axis
+ * The polygons are sorted by the left side of their bounding box,
+ * and the order is kept between frames. As the polygons move only a
+ * little each frame, an insertion sort of the previous order
+ * is almost linear
+ *
+ * @class SweepAndPrune
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class SweepAndPrune implements BroadPhase {
+
+    /**
+     * The indices of the polygons, sorted by minX
+     */
+    private int[] order = new int[0];
+
+    /**
+     * The number of polygons in the order
+     */
+    private int count = 0;
+
+    /**
+     * The bounding boxes of the polygons,
+     * copied from the polygons each frame
+     */
+    private float[] minX = new float[0], minY = new float[0], maxX = new float[0], maxY = new float[0];
+
+    /**
+     * The keys used to rebuild the order
+     */
+    private long[] keys = new long[0];
+
+    /**
+     * The number of candidate pairs found in the last frame
+     */
+    private int candidatePairs = 0;
+
+    /**
+     * The number of bounding boxes tested in the last frame
+     */
+    private int testedPairs = 0;
+
+    @Override
+    public void findPairs(List<Polygon> polygons, PairList pairs) {
+        pairs.clear();
+        copyBounds(polygons);
+        if ( count == 0 ) {
+            rebuildOrder(polygons.size());
+        } else if ( count != polygons.size() ) {
+            resizeOrder(polygons.size());
+        } else {
+            insertionSort();
+        }
+        sweep(pairs);
+    }
+
+    /**
+     * This method copies the bounding boxes of the polygons
+     * into the primitive arrays
+     * @param polygons the polygons
+     */
+    private void copyBounds(List<Polygon> polygons) {
+        int n = polygons.size();
+        if ( minX.length < n ) {
+            int capacity = Math.max(n, minX.length * 2);
+            minX = new float[capacity];
+            minY = new float[capacity];
+            maxX = new float[capacity];
+            maxY = new float[capacity];
+        }
+        for ( int i = 0; i < n; i++ ) {
+            Polygon polygon = polygons.get(i);
+            minX[i] = polygon.getMinX();
+            minY[i] = polygon.getMinY();
+            maxX[i] = polygon.getMaxX();
+            maxY[i] = polygon.getMaxY();
+        }
+    }
+
+    /**
+     * This method sorts all the polygons from scratch
+     * It is used for the first frame
+     * @param n the number of polygons
+     */
+    private void rebuildOrder(int n) {
+        if ( order.length < n ) {
+            order = new int[Math.max(n, order.length * 2)];
+            keys = new long[order.length];
+        }
+        for ( int i = 0; i < n; i++ ) {
+            keys[i] = ((long) sortableBits(minX[i]) << 32) | i;
+        }
+        Arrays.sort(keys, 0, n);
+        for ( int i = 0; i < n; i++ ) {
+            order[i] = (int) keys[i];
+        }
+        count = n;
+    }
+
+    /**
+     * This method keeps the order of the last frame when polygons are
+     * added at the end of the list or removed from its end
+     * The indices which don't exist any more are dropped, the order
+     * of the others is sorted again, and the new polygons are sorted
+     * apart and merged, so the cost stays almost linear
+     * @param n the number of polygons
+     */
+    private void resizeOrder(int n) {
+        int previous = count;
+        if ( order.length < n ) {
+            order = Arrays.copyOf(order, Math.max(n, order.length * 2));
+            keys = new long[order.length];
+        }
+        int kept = 0;
+        for ( int i = 0; i < previous; i++ ) {
+            if ( order[i] < n ) {
+                order[kept++] = order[i];
+            }
+        }
+        count = kept;
+        insertionSort();
+
+        int added = 0;
+        for ( int i = previous; i < n; i++ ) {
+            keys[added++] = ((long) sortableBits(minX[i]) << 32) | i;
+        }
+        Arrays.sort(keys, 0, added);
+        int i = kept - 1;
+        int j = added - 1;
+        for ( int w = kept + added - 1; j >= 0; w-- ) {
+            int index = (int) keys[j];
+            if ( i >= 0 && minX[order[i]] > minX[index] ) {
+                order[w] = order[i--];
+            } else {
+                order[w] = index;
+                j--;
+            }
+        }
+        count = kept + added;
+    }
+
+    /**
+     * This method returns the bits of a float as an int
+     * which has the same order as the float
+     * @param value the float value
+     * @return an int with the same order than the float
+     */
+    private static int sortableBits(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+
+    /**
+     * This method sorts again the order of the last frame
+     * The order is almost sorted, so the insertion sort is fast
+     */
+    private void insertionSort() {
+        for ( int i = 1; i < count; i++ ) {
+            int index = order[i];
+            float key = minX[index];
+            int j = i - 1;
+            while ( j >= 0 && minX[order[j]] > key ) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = index;
+        }
+    }
+
+    /**
+     * This method sweeps the sorted polygons over the x axis
+     * Each polygon is only tested with the next polygons
+     * which start before it ends
+     * @param pairs the list where the pairs are added
+     */
+    private void sweep(PairList pairs) {
+        candidatePairs = 0;
+        testedPairs = 0;
+        for ( int i = 0; i < count; i++ ) {
+            int a = order[i];
+            for ( int j = i + 1; j < count && minX[order[j]] <= maxX[a]; j++ ) {
+                int b = order[j];
+                testedPairs++;
+                if ( minY[b] <= maxY[a] && maxY[b] >= minY[a] ) {
+                    pairs.add(a, b);
+                    candidatePairs++;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int getCandidatePairs() {
+        return candidatePairs;
+    }
+
+    @Override
+    public int getTestedPairs() {
+        return testedPairs;
+    }
+}
@@ -0,0 +1,132 @@
+package convexPolygonCollisions;
+
+/**
+ * This class holds the result of a swept collision between two
+ * moving polygons: if they hit during the step, the time of impact
+ * as a fraction of the step, and the contact normal
+ * The normal points from the first polygon to the second one,
+ * like in the ContactManifold
+ * When the polygons already overlap at the beginning of the step
+ * the time is 0 and the normal is the axis of minimum penetration
+ * An instance is meant to be reused by the caller, the
+ * swept methods overwrite all its values
+ *
+ * @class TimeOfImpact
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class TimeOfImpact {
+
+    /**
+     * The flag to indicate the polygons hit during the step
+     */
+    private boolean hit;
+
+    /**
+     * The time of impact, between 0 and 1
+     */
+    private float time;
+
+    /**
+     * The time when the polygons stop overlapping, it can be bigger than 1
+     */
+    private float exitTime;
+
+    /**
+     * The contact normal, from the first polygon to the second one
+     */
+    private float normalX, normalY;
+
+    /**
+     * The minimum penetration of the axes which overlap
+     * at the beginning of the step, and its normal
+     */
+    private float initialOverlap;
+    private float initialNormalX, initialNormalY;
+
+    /**
+     * This method resets the values before a new sweep
+     */
+    void reset() {
+        hit = false;
+        time = 0;
+        exitTime = Float.MAX_VALUE;
+        normalX = 0;
+        normalY = 0;
+        initialOverlap = Float.MAX_VALUE;
+        initialNormalX = 0;
+        initialNormalY = 0;
+    }
+
+    /**
+     * This method registers the interval of time an axis overlaps
+     * @param enter the time the projections start overlapping
+     * @param exit the time the projections stop overlapping
+     * @param normalX the x coordinate of the normal of the axis
+     * @param normalY the y coordinate of the normal of the axis
+     * @return false if the intervals of all the axes don't overlap any more
+     */
+    boolean addInterval(float enter, float exit, float normalX, float normalY) {
+        if ( enter > time ) {
+            time = enter;
+            this.normalX = normalX;
+            this.normalY = normalY;
+        }
+        exitTime = Float.min(exitTime, exit);
+        return time <= exitTime;
+    }
+
+    /**
+     * This method registers the penetration of an axis
+     * which overlaps at the beginning of the step
+     * @param overlap the penetration
+     * @param normalX the x coordinate of the normal which separates the polygons
+     * @param normalY the y coordinate of the normal which separates the polygons
+     */
+    void addInitialOverlap(float overlap, float normalX, float normalY) {
+        if ( overlap < initialOverlap ) {
+            initialOverlap = overlap;
+            initialNormalX = normalX;
+            initialNormalY = normalY;
+        }
+    }
+
+    /**
+     * This method sets the final result of the sweep
+     * @param hit if the polygons hit during the step
+     */
+    void finish(boolean hit) {
+        this.hit = hit;
+        if ( hit && time == 0 ) {
+            normalX = initialNormalX;
+            normalY = initialNormalY;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "is hit? " + (hit ? "true" : "false") + " time: " + time + " normal: (" + normalX + ", " + normalY + ")";
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public boolean isHit() {
+        return hit;
+    }
+
+    public float getTime() {
+        return time;
+    }
+
+    public float getExitTime() {
+        return exitTime;
+    }
+
+    public float getNormalX() {
+        return normalX;
+    }
+
+    public float getNormalY() {
+        return normalY;
+    }
+}
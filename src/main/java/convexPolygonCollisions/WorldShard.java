@@ -0,0 +1,334 @@
+package convexPolygonCollisions;
+
+import java.util.Arrays;
+
+/**
+ * This class is one region of a ShardedWorld: a vertical strip of space
+ * between two boundaries, with the bodies whose position is inside it
+ * Each step the owned bodies and the ghost copies of the bodies of the
+ * other shards near the boundaries are stepped in a CollisionWorld
+ * The ghosts have the velocities of their owners, so they move like them,
+ * but whatever happens to them is discarded: each shard only moves its
+ * own bodies, and it receives new ghosts before the next step
+ * A pair of an owned body and a ghost is seen by the shards of both bodies,
+ * it is only reported by the shard which owns the body with the lower id
+ * After the step, the bodies which have left the strip are sent to the
+ * shard of their new position, and the bodies near the other strips are
+ * sent to them as ghosts. The ghost margin must be at least the biggest
+ * bounding radius plus the distance two bodies can approach in a step,
+ * so both shards of a pair always see it
+ *
+ * @class WorldShard
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class WorldShard {
+
+    /**
+     * The index of the shard
+     */
+    private final int index;
+
+    /**
+     * The x coordinates which split the space in strips, sorted
+     * The strip i goes from boundaries[i - 1] to boundaries[i]
+     */
+    private final float[] boundaries;
+
+    /**
+     * The distance, around a strip, where the bodies of the
+     * other strips are received as ghosts
+     */
+    private final float ghostMargin;
+
+    /**
+     * The world which steps the owned bodies and the ghosts
+     * It is kept between steps: the ghosts are moved in place and
+     * only the ones which come or go are added or removed, so the
+     * polygons keep their ids and the broad-phase keeps its order
+     */
+    private final CollisionWorld world;
+
+    /**
+     * The id of the body of each index of the world
+     */
+    private int[] bodyId = new int[16];
+
+    /**
+     * The flag to indicate the body of each index of the world is a ghost
+     */
+    private boolean[] ghost = new boolean[16];
+
+    /**
+     * The last call to setGhosts which received each ghost
+     */
+    private int[] ghostStamp = new int[16];
+
+    /**
+     * The index in the world of each ghost, by its id
+     */
+    private final LongIntHashMap ghostIndex = new LongIntHashMap();
+
+    /**
+     * The number of calls to setGhosts
+     */
+    private int stamp = 0;
+
+    /**
+     * The number of owned bodies
+     */
+    private int ownedCount = 0;
+
+    /**
+     * The bodies which have left the strip, by the index of their new shard
+     */
+    private final BodyBatch[] migrants;
+
+    /**
+     * The ghosts for each of the other shards
+     */
+    private final BodyBatch[] outGhosts;
+
+    /**
+     * The number of pairs reported in the last step
+     */
+    private int contacts = 0;
+
+    /**
+     * Constructor
+     * @param index the index of the shard
+     * @param boundaries the x coordinates which split the space in strips, sorted
+     * @param ghostMargin the distance around the strip where the other bodies are received as ghosts
+     * @param mode the collision method
+     * @param timeStep the duration of a step, in seconds
+     */
+    public WorldShard(int index, float[] boundaries, float ghostMargin, CollisionWorld.Mode mode, float timeStep) {
+        this.index = index;
+        this.boundaries = boundaries.clone();
+        this.ghostMargin = ghostMargin;
+        this.world = new CollisionWorld(new SweepAndPrune(), timeStep);
+        this.world.setMode(mode);
+        migrants = new BodyBatch[boundaries.length + 1];
+        outGhosts = new BodyBatch[boundaries.length + 1];
+        for ( int i = 0; i < migrants.length; i++ ) {
+            migrants[i] = new BodyBatch();
+            outGhosts[i] = new BodyBatch();
+        }
+    }
+
+    /**
+     * This method finds the strip of a x coordinate
+     * @param boundaries the x coordinates which split the space in strips, sorted
+     * @param x the x coordinate
+     * @return the index of the strip
+     */
+    public static int regionOf(float[] boundaries, float x) {
+        int low = 0;
+        int high = boundaries.length;
+        while ( low < high ) {
+            int middle = (low + high) >>> 1;
+            if ( boundaries[middle] <= x ) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * This method makes sure there is space for the state of more bodies
+     * @param numBodies the number of bodies
+     */
+    private void ensureCapacity(int numBodies) {
+        if ( numBodies > bodyId.length ) {
+            int capacity = Math.max(numBodies, bodyId.length * 2);
+            bodyId = Arrays.copyOf(bodyId, capacity);
+            ghost = Arrays.copyOf(ghost, capacity);
+            ghostStamp = Arrays.copyOf(ghostStamp, capacity);
+        }
+    }
+
+    /**
+     * This method adds bodies to the shard, owned from now on
+     * The bodies which were ghosts of this shard keep their polygons
+     * @param bodies the bodies
+     */
+    public void addOwned(BodyBatch bodies) {
+        for ( int i = 0; i < bodies.size(); i++ ) {
+            int body = ghostIndex.get(bodies.getId(i), -1);
+            if ( body >= 0 ) {
+                ghostIndex.remove(bodies.getId(i));
+                bodies.moveTo(i, world.getBody(body));
+            } else {
+                body = addToWorld(bodies, i);
+            }
+            ghost[body] = false;
+            setState(body, bodies, i);
+            ownedCount++;
+        }
+    }
+
+    /**
+     * This method replaces the ghosts
+     * The ghosts which were already in the shard are moved in place,
+     * and the ones which have not been received again are removed
+     * @param bodies the ghost copies of the bodies of the other shards
+     */
+    public void setGhosts(BodyBatch bodies) {
+        stamp++;
+        for ( int i = 0; i < bodies.size(); i++ ) {
+            int body = ghostIndex.get(bodies.getId(i), -1);
+            if ( body >= 0 ) {
+                bodies.moveTo(i, world.getBody(body));
+            } else {
+                body = addToWorld(bodies, i);
+                ghost[body] = true;
+                ghostIndex.put(bodies.getId(i), body);
+            }
+            setState(body, bodies, i);
+            ghostStamp[body] = stamp;
+        }
+        // The last body takes the place of a removed one, and it has already been checked
+        for ( int body = world.size() - 1; body >= 0; body-- ) {
+            if ( ghost[body] && ghostStamp[body] != stamp ) {
+                removeFromWorld(body);
+            }
+        }
+    }
+
+    /**
+     * This method adds a new polygon to the world with the shape of a body of a batch
+     * @param bodies the batch
+     * @param i the index of the body in the batch
+     * @return the index of the body in the world
+     */
+    private int addToWorld(BodyBatch bodies, int i) {
+        int body = world.addBody(bodies.toPolygon(i));
+        ensureCapacity(body + 1);
+        bodyId[body] = bodies.getId(i);
+        return body;
+    }
+
+    /**
+     * This method removes a ghost from the world
+     * @param body the index of the ghost in the world
+     */
+    private void removeFromWorld(int body) {
+        ghostIndex.remove(bodyId[body]);
+        int moved = world.removeBody(body);
+        if ( moved >= 0 ) {
+            bodyId[body] = bodyId[moved];
+            ghost[body] = ghost[moved];
+            ghostStamp[body] = ghostStamp[moved];
+            if ( ghost[body] ) {
+                ghostIndex.put(bodyId[body], body);
+            }
+        }
+    }
+
+    /**
+     * This method copies the velocities and the inverse mass of a body of a batch
+     * @param body the index of the body in the world
+     * @param bodies the batch
+     * @param i the index of the body in the batch
+     */
+    private void setState(int body, BodyBatch bodies, int i) {
+        world.setVelocity(body, bodies.getVelocityX(i), bodies.getVelocityY(i));
+        world.setAngularVelocity(body, bodies.getAngularVelocity(i));
+        world.setInverseMass(body, bodies.getInverseMass(i));
+    }
+
+    /**
+     * This method runs one step of the owned bodies and the ghosts,
+     * and then finds the bodies to send to the other shards
+     * @param advance if the bodies are stepped, or the bodies to send
+     *                are only found, to exchange the first ghosts
+     * @return the number of pairs reported by this shard
+     */
+    public int step(boolean advance) {
+        contacts = 0;
+        if ( advance ) {
+            world.step();
+            PairList contactPairs = world.getContactPairs();
+            for ( int i = 0; i < contactPairs.size(); i++ ) {
+                int a = contactPairs.getFirst(i);
+                int b = contactPairs.getSecond(i);
+                boolean ownsA = !ghost[a];
+                boolean ownsB = !ghost[b];
+                if ( (ownsA && ownsB) || (ownsA && bodyId[a] < bodyId[b]) || (ownsB && bodyId[b] < bodyId[a]) ) {
+                    contacts++;
+                }
+            }
+        }
+        exchange();
+        return contacts;
+    }
+
+    /**
+     * This method copies the bodies which have left the strip to the migrants,
+     * and the bodies near the other strips to their ghosts
+     * The bodies which have left stay as ghosts, so their polygons are
+     * reused if the new owner sends them back as ghosts
+     */
+    private void exchange() {
+        for ( int i = 0; i < migrants.length; i++ ) {
+            migrants[i].clear();
+            outGhosts[i].clear();
+        }
+        for ( int body = 0; body < world.size(); body++ ) {
+            if ( ghost[body] ) {
+                continue;
+            }
+            Polygon polygon = world.getBody(body);
+            polygon.update();
+            int region = regionOf(boundaries, polygon.getPosition().getX());
+            int first = regionOf(boundaries, polygon.getMinX() - ghostMargin);
+            int last = regionOf(boundaries, polygon.getMaxX() + ghostMargin);
+            for ( int target = first; target <= last; target++ ) {
+                if ( target != region ) {
+                    outGhosts[target].add(bodyId[body], polygon, world.getVelocityX(body), world.getVelocityY(body),
+                            world.getAngularVelocity(body), world.getInverseMass(body));
+                }
+            }
+            if ( region != index ) {
+                migrants[region].add(bodyId[body], polygon, world.getVelocityX(body), world.getVelocityY(body),
+                        world.getAngularVelocity(body), world.getInverseMass(body));
+                ghost[body] = true;
+                ghostStamp[body] = 0;
+                ghostIndex.put(bodyId[body], body);
+                ownedCount--;
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getNumShards() {
+        return boundaries.length + 1;
+    }
+
+    public int getOwnedCount() {
+        return ownedCount;
+    }
+
+    public int getContacts() {
+        return contacts;
+    }
+
+    public BodyBatch getMigrants(int shard) {
+        return migrants[shard];
+    }
+
+    public BodyBatch getGhosts(int shard) {
+        return outGhosts[shard];
+    }
+
+    public CollisionWorld getWorld() {
+        return world;
+    }
+}
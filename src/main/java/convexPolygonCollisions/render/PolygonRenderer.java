@@ -0,0 +1,86 @@
+package convexPolygonCollisions.render;
+
+import convexPolygonCollisions.CollisionWorld;
+import convexPolygonCollisions.Polygon;
+import engine.gfx.HexColors;
+import engine.gfx.Renderer;
+import engine.vectors.points2d.Vec2df;
+
+/**
+ * This class draws the polygons with the renderer of the engine
+ * It is the only class which depends on engine.gfx, so the
+ * collisions and the world can run without a window
+ *
+ * @class PolygonRenderer
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class PolygonRenderer {
+
+    /**
+     * The color of the polygons which don't overlap
+     */
+    private int color = HexColors.WHITE;
+
+    /**
+     * The color of the polygons which overlap
+     */
+    private int overlapColor = HexColors.RED;
+
+    /**
+     * This method draws a polygon on screen
+     * Only draws a wire polygon and a line from the center
+     * to the first point
+     * @param r the renderer class with all drawing methods
+     * @param polygon the polygon
+     */
+    public void draw(Renderer r, Polygon polygon) {
+        Vec2df[] p = polygon.getP();
+        int c = polygon.isOverlap() ? overlapColor : color;
+        for (int i = 0; i < p.length; i++) {
+            r.drawLine(
+                    (int)p[i].getX(),
+                    (int)p[i].getY(),
+                    (int)p[(i + 1) % p.length].getX(),
+                    (int)p[(i + 1) % p.length].getY(),
+                    c
+            );
+        }
+        r.drawLine(
+                (int)p[0].getX(),
+                (int)p[0].getY(),
+                (int)polygon.getPosition().getX(),
+                (int)polygon.getPosition().getY(),
+                c
+        );
+    }
+
+    /**
+     * This method draws all the bodies of a world
+     * @param r the renderer class with all drawing methods
+     * @param world the world
+     */
+    public void draw(Renderer r, CollisionWorld world) {
+        for ( Polygon polygon : world.getBodies() ) {
+            draw(r, polygon);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////
+
+    public int getColor() {
+        return color;
+    }
+
+    public int getOverlapColor() {
+        return overlapColor;
+    }
+
+    public void setColor(int color) {
+        this.color = color;
+    }
+
+    public void setOverlapColor(int overlapColor) {
+        this.overlapColor = overlapColor;
+    }
+}
@@ -0,0 +1,457 @@
+import convexPolygonCollisions.CollisionWorld;
+import convexPolygonCollisions.ConvexPolygonCollisions;
+import convexPolygonCollisions.Determinism;
+import convexPolygonCollisions.DynamicAABBTree;
+import convexPolygonCollisions.EarlyOutFilter;
+import convexPolygonCollisions.GJK;
+import convexPolygonCollisions.PairList;
+import convexPolygonCollisions.ParallelQueries;
+import convexPolygonCollisions.Polygon;
+import convexPolygonCollisions.PolygonBuffer;
+import convexPolygonCollisions.PolygonFactory;
+import convexPolygonCollisions.PolygonPool;
+import convexPolygonCollisions.ProjectionKernel;
+import convexPolygonCollisions.ProjectionKernels;
+import convexPolygonCollisions.SceneSnapshot;
+import convexPolygonCollisions.SeparatingAxisCache;
+import convexPolygonCollisions.SweepAndPrune;
+import engine.vectors.points2d.Vec2df;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * This class measures the hot paths of the collisions:
+ * the transformation of the polygons, the collision methods
+ * for overlapping and separated pairs of 3 to 64 vertices,
+ * complete steps of scenes with 1k, 10k and 100k polygons,
+ * the load of scenes of 100k and 1M polygons from a snapshot,
+ * batches of ray casts against a scene of 10k polygons,
+ * and spawning polygons with the factory or with a pool
+ * Each benchmark is warmed up, and then it is measured several times,
+ * reporting the operations per second and the bytes allocated per operation
+ * Usage: BenchmarkCollisions [filter], where only the benchmarks whose name
+ * contains the filter are run. The times are set with the system properties
+ * "bench.warmup" and "bench.time" (milliseconds) and "bench.iterations"
+ *
+ * @class BenchmarkCollisions
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class BenchmarkCollisions {
+
+    /**
+     * This interface is one operation to measure
+     * It returns a value so the JIT can't remove the work
+     */
+    private interface Benchmark {
+        int run();
+    }
+
+    /**
+     * The vertex counts of the polygons
+     */
+    private static final int[] VERTEX_COUNTS = {3, 4, 8, 16, 32, 64};
+
+    /**
+     * The number of polygons of the scenes
+     */
+    private static final int[] SCENE_SIZES = {1000, 10000, 100000};
+
+    /**
+     * The milliseconds of warm up of each benchmark
+     */
+    private static final long WARMUP = Long.getLong("bench.warmup", 1000);
+
+    /**
+     * The milliseconds of each measured iteration
+     */
+    private static final long TIME = Long.getLong("bench.time", 1000);
+
+    /**
+     * The number of measured iterations
+     */
+    private static final int ITERATIONS = Integer.getInteger("bench.iterations", 5);
+
+    /**
+     * The bean which measures the allocations of a thread,
+     * null if the JVM doesn't support it
+     */
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean ?
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean() : null;
+
+    /**
+     * The filter of the names of the benchmarks
+     */
+    private static String filter = "";
+
+    /**
+     * The results of the benchmarks, so the JIT can't remove the work
+     */
+    private static int sink = 0;
+
+    /**
+     * This method returns the bytes allocated by the current thread
+     * @return the allocated bytes, or 0 if the JVM doesn't support it
+     */
+    private static long allocatedBytes() {
+        return THREAD_BEAN == null ? 0 : THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * This method runs a benchmark during some time
+     * @param benchmark the benchmark
+     * @param millis the milliseconds to run
+     * @return the number of operations done
+     */
+    private static long runFor(Benchmark benchmark, long millis) {
+        long end = System.nanoTime() + millis * 1000000L;
+        long ops = 0;
+        do {
+            sink += benchmark.run();
+            ops++;
+        } while ( System.nanoTime() < end );
+        return ops;
+    }
+
+    /**
+     * This method warms up and measures a benchmark, and prints its results
+     * @param name the name of the benchmark
+     * @param benchmark the benchmark
+     */
+    private static void measure(String name, Benchmark benchmark) {
+        if ( !name.contains(filter) ) {
+            return;
+        }
+        runFor(benchmark, WARMUP);
+        double bestOps = 0;
+        double totalOps = 0;
+        long totalBytes = 0;
+        long totalCount = 0;
+        for ( int i = 0; i < ITERATIONS; i++ ) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            long ops = runFor(benchmark, TIME);
+            long elapsed = System.nanoTime() - start;
+            totalBytes += allocatedBytes() - bytes;
+            totalCount += ops;
+            double opsPerSecond = ops * 1e9 / elapsed;
+            totalOps += opsPerSecond;
+            bestOps = Math.max(bestOps, opsPerSecond);
+        }
+        System.out.println(String.format(Locale.ROOT, "%-48s %16.1f ops/s (best %16.1f) %12.1f B/op",
+                name, totalOps / ITERATIONS, bestOps, (double) totalBytes / totalCount));
+    }
+
+    /**
+     * This method builds an updated regular polygon
+     * @param numVertices the number of vertices
+     * @param x the x coordinate of the position
+     * @param y the y coordinate of the position
+     * @param angle the angle
+     * @return the polygon
+     */
+    private static Polygon makePolygon(int numVertices, float x, float y, float angle) {
+        Polygon polygon = PolygonFactory.makeRegularPolygon(numVertices, new Vec2df(x, y), 30, angle);
+        polygon.update();
+        return polygon;
+    }
+
+    /**
+     * This method measures the transformation of the polygons,
+     * with the trigonometry of Math and with the tables of the deterministic mode
+     */
+    private static void benchmarkUpdate() {
+        for ( int n : VERTEX_COUNTS ) {
+            Polygon polygon = makePolygon(n, 100, 100, 0);
+            measure("update n=" + n, () -> {
+                polygon.setAngle(polygon.getAngle() + 0.001f);
+                polygon.update();
+                return polygon.getP().length;
+            });
+            measure("update at rest n=" + n, () -> polygon.updateIfDirty() ? 1 : 0);
+        }
+        Determinism.setEnabled(true);
+        for ( int n : VERTEX_COUNTS ) {
+            Polygon polygon = makePolygon(n, 100, 100, 0);
+            measure("update deterministic n=" + n, () -> {
+                polygon.setAngle(polygon.getAngle() + 0.001f);
+                polygon.update();
+                return polygon.getP().length;
+            });
+        }
+        Determinism.setEnabled(false);
+    }
+
+    /**
+     * This method measures the collision methods for a pair of polygons
+     * The polygons are separated by a distance, 40 overlaps and 100 doesn't
+     * @param state the name of the state of the pair
+     * @param distance the distance between the positions of the polygons
+     */
+    private static void benchmarkPairs(String state, float distance) {
+        for ( int n : VERTEX_COUNTS ) {
+            Polygon r1 = makePolygon(n, 100, 100, 0.3f);
+            Polygon r2 = makePolygon(n, 100 + distance, 110, 0.7f);
+            String suffix = " n=" + n + " " + state;
+
+            measure("shapeOverlapSAT" + suffix, () -> ConvexPolygonCollisions.shapeOverlapSAT(r1, r2) ? 1 : 0);
+            measure("shapeOverlapSATNoAlloc" + suffix, () -> ConvexPolygonCollisions.shapeOverlapSATNoAlloc(r1, r2) ? 1 : 0);
+            measure("shapeOverlapSATCached" + suffix, () -> ConvexPolygonCollisions.shapeOverlapSATCached(r1, r2) ? 1 : 0);
+            EarlyOutFilter filter = new EarlyOutFilter();
+            measure("EarlyOutFilter SAT" + suffix, () -> filter.shapeOverlapSAT(r1, r2) ? 1 : 0);
+            GJK gjk = new GJK(16);
+            measure("GJK" + suffix, () -> gjk.shapeOverlap(r1, r2) ? 1 : 0);
+            SeparatingAxisCache cache = new SeparatingAxisCache(16);
+            measure("SeparatingAxisCache SAT" + suffix, () -> cache.shapeOverlapSAT(r1, r2) ? 1 : 0);
+            measure("shapeOverlapDIAGS" + suffix, () -> ConvexPolygonCollisions.shapeOverlapDIAGS(r1, r2) ? 1 : 0);
+            measure("shapeOverlapStaticSAT" + suffix, () -> {
+                r1.getPosition().setX(100);
+                r1.getPosition().setY(100);
+                return ConvexPolygonCollisions.shapeOverlapStaticSAT(r1, r2) ? 1 : 0;
+            });
+            measure("shapeOverlapStaticSATNoAlloc" + suffix, () -> {
+                r1.getPosition().setX(100);
+                r1.getPosition().setY(100);
+                return ConvexPolygonCollisions.shapeOverlapStaticSATNoAlloc(r1, r2) ? 1 : 0;
+            });
+            measure("shapeOverlapStaticDIAGS" + suffix, () -> {
+                r1.getPosition().setX(100);
+                r1.getPosition().setY(100);
+                return ConvexPolygonCollisions.shapeOverlapStaticDIAGS(r1, r2) ? 1 : 0;
+            });
+        }
+    }
+
+    /**
+     * This method measures the SAT over the polygon buffer with
+     * the scalar and the SIMD projection kernels
+     */
+    private static void benchmarkKernels() {
+        for ( int n : new int[] {8, 16, 32} ) {
+            PolygonBuffer buffer = new PolygonBuffer();
+            buffer.add(makePolygon(n, 100, 100, 0.3f));
+            buffer.add(makePolygon(n, 140, 110, 0.7f));
+            measure("PolygonBuffer SAT scalar n=" + n, () -> buffer.shapeOverlapSAT(0, 1, ProjectionKernels.scalar()) ? 1 : 0);
+            if ( ProjectionKernels.isVectorAvailable() ) {
+                ProjectionKernel vector = ProjectionKernels.vector();
+                measure("PolygonBuffer SAT vector n=" + n, () -> buffer.shapeOverlapSAT(0, 1, vector) ? 1 : 0);
+            }
+        }
+    }
+
+    /**
+     * This method measures complete steps of scenes: the polygons move,
+     * they are updated, the broad-phase finds the candidate pairs
+     * and the SAT tests them
+     */
+    private static void benchmarkScenes() {
+        for ( int size : SCENE_SIZES ) {
+            if ( !("scene step bodies=" + size).contains(filter) ) {
+                continue;
+            }
+            Random rnd = new Random(size);
+            ArrayList<Polygon> polygons = new ArrayList<>();
+            float side = (float)Math.sqrt(size) * 25;
+            for ( int i = 0; i < size; i++ ) {
+                polygons.add(PolygonFactory.makeRegularPolygon(3 + rnd.nextInt(6),
+                        new Vec2df(rnd.nextFloat() * side, rnd.nextFloat() * side), 5 + rnd.nextFloat() * 5, rnd.nextFloat() * 6));
+            }
+            SweepAndPrune broadPhase = new SweepAndPrune();
+            PairList pairs = new PairList();
+            float[] step = {0.01f};
+            measure("scene step bodies=" + size, () -> {
+                step[0] = -step[0];
+                for ( Polygon polygon : polygons ) {
+                    polygon.setAngle(polygon.getAngle() + step[0]);
+                    polygon.update();
+                }
+                broadPhase.findPairs(polygons, pairs);
+                int overlaps = 0;
+                for ( int i = 0; i < pairs.size(); i++ ) {
+                    if ( ConvexPolygonCollisions.shapeOverlapSATCached(polygons.get(pairs.getFirst(i)), polygons.get(pairs.getSecond(i))) ) {
+                        overlaps++;
+                    }
+                }
+                return overlaps;
+            });
+        }
+    }
+
+    /**
+     * This method measures steps of a world which resolves a pile
+     * of polygons with the static solver
+     */
+    private static void benchmarkSolver() {
+        for ( int size : new int[] {1000, 10000} ) {
+            if ( !("solver step bodies=" + size).contains(filter) ) {
+                continue;
+            }
+            Random rnd = new Random(size);
+            CollisionWorld world = new CollisionWorld();
+            world.setMode(CollisionWorld.Mode.SOLVER);
+            float side = (float)Math.sqrt(size) * 15;
+            for ( int i = 0; i < size; i++ ) {
+                world.addBody(PolygonFactory.makeRegularPolygon(3 + rnd.nextInt(6),
+                        new Vec2df(rnd.nextFloat() * side, rnd.nextFloat() * side), 5 + rnd.nextFloat() * 5, rnd.nextFloat() * 6));
+            }
+            measure("solver step bodies=" + size, () -> {
+                world.step();
+                return world.getContacts();
+            });
+        }
+    }
+
+    /**
+     * This method measures loading scenes of 100k and 1M polygons
+     * from a snapshot, against building them with PolygonFactory
+     */
+    private static void benchmarkSnapshot() {
+        for ( int size : new int[] {100000, 1000000} ) {
+            if ( !("snapshot read bodies=" + size).contains(filter) && !("factory build bodies=" + size).contains(filter) ) {
+                continue;
+            }
+            Random rnd = new Random(size);
+            PolygonBuffer buffer = new PolygonBuffer(size, size * 6);
+            float side = (float)Math.sqrt(size) * 15;
+            for ( int i = 0; i < size; i++ ) {
+                buffer.add(PolygonFactory.makeRegularPolygon(3 + rnd.nextInt(6),
+                        new Vec2df(rnd.nextFloat() * side, rnd.nextFloat() * side), 5 + rnd.nextFloat() * 5, rnd.nextFloat() * 6));
+            }
+            Path file;
+            try {
+                file = Files.createTempFile("scene", ".snapshot");
+                SceneSnapshot.write(file, buffer);
+            } catch ( IOException e ) {
+                throw new UncheckedIOException(e);
+            }
+            if ( ("snapshot read bodies=" + size).contains(filter) ) {
+                PolygonBuffer loaded = new PolygonBuffer(size, size * 6);
+                measure("snapshot read bodies=" + size, () -> {
+                    try {
+                        SceneSnapshot.read(file, loaded);
+                    } catch ( IOException e ) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return loaded.getVertexSize();
+                });
+            }
+            if ( ("factory build bodies=" + size).contains(filter) ) {
+                measure("factory build bodies=" + size, () -> {
+                    ArrayList<Polygon> polygons = new ArrayList<>(size);
+                    for ( int i = 0; i < size; i++ ) {
+                        Polygon polygon = PolygonFactory.makeRegularPolygon(buffer.getVertexCount(i),
+                                new Vec2df(buffer.getPositionX(i), buffer.getPositionY(i)), 5, buffer.getAngle(i));
+                        polygon.update();
+                        polygons.add(polygon);
+                    }
+                    return polygons.size();
+                });
+            }
+            try {
+                Files.deleteIfExists(file);
+            } catch ( IOException ignored ) {
+                // The temporary file is left behind
+            }
+        }
+    }
+
+    /**
+     * This method measures batches of 10k ray casts against a scene
+     * of 10k polygons, one by one and with the parallel queries
+     */
+    private static void benchmarkQueries() {
+        int size = 10000;
+        int numRays = 10000;
+        if ( !("rays sequential bodies=" + size).contains(filter) && !("rays parallel bodies=" + size).contains(filter) ) {
+            return;
+        }
+        Random rnd = new Random(size);
+        ArrayList<Polygon> polygons = new ArrayList<>();
+        float side = (float)Math.sqrt(size) * 15;
+        for ( int i = 0; i < size; i++ ) {
+            Polygon polygon = PolygonFactory.makeRegularPolygon(3 + rnd.nextInt(6),
+                    new Vec2df(rnd.nextFloat() * side, rnd.nextFloat() * side), 5 + rnd.nextFloat() * 5, rnd.nextFloat() * 6);
+            polygon.update();
+            polygons.add(polygon);
+        }
+        DynamicAABBTree tree = new DynamicAABBTree();
+        tree.update(polygons);
+        float[] x = new float[numRays], y = new float[numRays], dx = new float[numRays], dy = new float[numRays];
+        for ( int i = 0; i < numRays; i++ ) {
+            x[i] = rnd.nextFloat() * side;
+            y[i] = rnd.nextFloat() * side;
+            dx[i] = rnd.nextFloat() * 2 - 1;
+            dy[i] = rnd.nextFloat() * 2 - 1;
+        }
+        int[] hitBody = new int[numRays];
+        float[] hitFraction = new float[numRays];
+        if ( ("rays sequential bodies=" + size).contains(filter) ) {
+            measure("rays sequential bodies=" + size, () -> {
+                int hits = 0;
+                for ( int i = 0; i < numRays; i++ ) {
+                    if ( tree.rayCast(x[i], y[i], dx[i], dy[i], 100, hitFraction) != -1 ) {
+                        hits++;
+                    }
+                }
+                return hits;
+            });
+        }
+        if ( ("rays parallel bodies=" + size).contains(filter) ) {
+            ParallelQueries queries = new ParallelQueries();
+            measure("rays parallel bodies=" + size, () -> {
+                queries.rayCast(tree, x, y, dx, dy, 100, numRays, hitBody, hitFraction);
+                return hitBody[0];
+            });
+        }
+    }
+
+    /**
+     * This method measures spawning and despawning a polygon,
+     * built by the factory or reused from a pool
+     */
+    private static void benchmarkSpawn() {
+        int[] i = new int[1];
+        if ( "spawn factory".contains(filter) ) {
+            measure("spawn factory", () -> {
+                i[0]++;
+                Polygon polygon = PolygonFactory.makeRegularPolygon(3 + i[0] % 6, new Vec2df(i[0] % 200, i[0] % 150), 5, i[0] * 0.01f);
+                polygon.update();
+                return polygon.getP().length;
+            });
+        }
+        if ( "spawn pool".contains(filter) ) {
+            PolygonPool pool = new PolygonPool();
+            measure("spawn pool", () -> {
+                i[0]++;
+                Polygon polygon = pool.acquire(3 + i[0] % 6, i[0] % 200, i[0] % 150, 5, i[0] * 0.01f);
+                pool.release(polygon);
+                return polygon.getP().length;
+            });
+        }
+    }
+
+    public static void main(String[] args) {
+        if ( args.length > 0 ) {
+            filter = args[0];
+        }
+        benchmarkUpdate();
+        benchmarkPairs("overlapping", 40);
+        benchmarkPairs("separated", 100);
+        benchmarkKernels();
+        benchmarkScenes();
+        benchmarkSolver();
+        benchmarkSnapshot();
+        benchmarkQueries();
+        benchmarkSpawn();
+        System.out.println("sink: " + sink);
+    }
+
+}
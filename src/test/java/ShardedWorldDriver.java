@@ -0,0 +1,171 @@
+import convexPolygonCollisions.CollisionWorld;
+import convexPolygonCollisions.Polygon;
+import convexPolygonCollisions.PolygonFactory;
+import convexPolygonCollisions.ShardLink;
+import convexPolygonCollisions.ShardServer;
+import convexPolygonCollisions.ShardedWorld;
+import convexPolygonCollisions.SocketShardLink;
+import engine.vectors.points2d.Vec2df;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * This class runs a ShardedWorld whose shards are other JVMs of this
+ * machine, connected by sockets, to measure how the steps per second
+ * scale with the number of shards
+ * The same wide scene is run with 1, 2 and 4 shards, and the pairs
+ * reported in each step must be the same for any number of shards
+ * Usage: ShardedWorldDriver [bodies] [steps], or ShardedWorldDriver server,
+ * which is how the driver starts each shard: it listens on a free port
+ * of the loopback, prints it and serves one link
+ *
+ * @class ShardedWorldDriver
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class ShardedWorldDriver {
+
+    /**
+     * The numbers of shards to measure
+     */
+    private static final int[] SHARD_COUNTS = {1, 2, 4};
+
+    /**
+     * The duration of a step, in seconds
+     */
+    private static final float TIME_STEP = 0.01f;
+
+    /**
+     * The distance around a strip where the other bodies are received as ghosts,
+     * the biggest bounding radius is 10 and the bodies approach 0.3 per step
+     */
+    private static final float GHOST_MARGIN = 25;
+
+    /**
+     * This method starts a shard server in another JVM, with the classpath of this one
+     * @return the process, which has printed its port
+     * @throws IOException if the process can't be started
+     */
+    private static Process startServer() throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + "/bin/java");
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ShardedWorldDriver.class.getName());
+        command.add("server");
+        return new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    }
+
+    /**
+     * This method reads the port printed by a shard server
+     * @param process the process of the server
+     * @return the port
+     * @throws IOException if the server has stopped before printing it
+     */
+    private static int readPort(Process process) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII));
+        String line;
+        while ( (line = reader.readLine()) != null ) {
+            if ( line.startsWith("port ") ) {
+                return Integer.parseInt(line.substring(5).trim());
+            }
+        }
+        throw new IOException("The shard server has stopped without a port");
+    }
+
+    /**
+     * This method runs the scene with a number of shards in other JVMs
+     * @param numShards the number of shards
+     * @param numBodies the number of bodies
+     * @param steps the number of steps measured
+     * @param contacts the array where the pairs reported in each step are written
+     * @return the steps per second
+     * @throws IOException if a shard fails
+     */
+    private static double run(int numShards, int numBodies, int steps, int[] contacts) throws IOException {
+        float height = 300;
+        float width = numBodies * 15 * 15 / height;
+        float[] boundaries = new float[numShards - 1];
+        for ( int i = 0; i < boundaries.length; i++ ) {
+            boundaries[i] = width * (i + 1) / numShards;
+        }
+
+        Process[] processes = new Process[numShards];
+        ShardLink[] links = new ShardLink[numShards];
+        try {
+            for ( int i = 0; i < numShards; i++ ) {
+                processes[i] = startServer();
+            }
+            for ( int i = 0; i < numShards; i++ ) {
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), readPort(processes[i]));
+                links[i] = new SocketShardLink(socket, i, boundaries, GHOST_MARGIN, CollisionWorld.Mode.SAT, TIME_STEP);
+            }
+            try ( ShardedWorld world = new ShardedWorld(boundaries, links) ) {
+                Random rnd = new Random(31);
+                for ( int i = 0; i < numBodies; i++ ) {
+                    Polygon polygon = PolygonFactory.makeRegularPolygon(3 + rnd.nextInt(6),
+                            new Vec2df(rnd.nextFloat() * width, rnd.nextFloat() * height), 5 + rnd.nextFloat() * 5, rnd.nextFloat() * 6);
+                    world.addBody(polygon, rnd.nextFloat() * 20 - 10, rnd.nextFloat() * 20 - 10, rnd.nextFloat() * 4 - 2);
+                }
+                // The first steps warm up the JIT of the servers
+                for ( int i = 0; i < steps / 2; i++ ) {
+                    world.step();
+                }
+                long start = System.nanoTime();
+                for ( int i = 0; i < steps; i++ ) {
+                    world.step();
+                    contacts[i] = world.getContacts();
+                }
+                return steps / ((System.nanoTime() - start) * 1e-9);
+            }
+        } finally {
+            for ( Process process : processes ) {
+                if ( process != null ) {
+                    process.destroy();
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if ( args.length > 0 && args[0].equals("server") ) {
+            try ( ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress()) ) {
+                System.out.println("port " + serverSocket.getLocalPort());
+                System.out.flush();
+                ShardServer.serve(serverSocket);
+            }
+            return;
+        }
+        int numBodies = args.length > 0 ? Integer.parseInt(args[0]) : 40000;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        System.out.println("cores: " + Runtime.getRuntime().availableProcessors());
+        int[] expected = null;
+        double base = 0;
+        for ( int numShards : SHARD_COUNTS ) {
+            int[] contacts = new int[steps];
+            double stepsPerSecond = run(numShards, numBodies, steps, contacts);
+            if ( expected == null ) {
+                expected = contacts;
+                base = stepsPerSecond;
+            }
+            boolean same = Arrays.equals(expected, contacts);
+            System.out.println(String.format(Locale.ROOT, "shards=%d bodies=%d: %.1f steps/s, x%.2f, pairs %s",
+                    numShards, numBodies, stepsPerSecond, stepsPerSecond / base, same ? "match" : "DIFFER"));
+        }
+    }
+
+}
@@ -0,0 +1,1757 @@
+import convexPolygonCollisions.BodyBatch;
+import convexPolygonCollisions.BroadPhase;
+import convexPolygonCollisions.CollisionMetrics;
+import convexPolygonCollisions.CollisionWorld;
+import convexPolygonCollisions.ContactManifold;
+import convexPolygonCollisions.Determinism;
+import convexPolygonCollisions.ConvexPolygonCollisions;
+import convexPolygonCollisions.DynamicAABBTree;
+import convexPolygonCollisions.EarlyOutFilter;
+import convexPolygonCollisions.GJK;
+import convexPolygonCollisions.LongIntHashMap;
+import convexPolygonCollisions.NarrowPhaseStrategy;
+import convexPolygonCollisions.PairList;
+import convexPolygonCollisions.PairSlotPool;
+import convexPolygonCollisions.ParallelNarrowPhase;
+import convexPolygonCollisions.ParallelQueries;
+import convexPolygonCollisions.Polygon;
+import convexPolygonCollisions.PolygonBuffer;
+import convexPolygonCollisions.PolygonFactory;
+import convexPolygonCollisions.PolygonPool;
+import convexPolygonCollisions.ProjectionKernel;
+import convexPolygonCollisions.ProjectionKernels;
+import convexPolygonCollisions.SATResult;
+import convexPolygonCollisions.SceneSnapshot;
+import convexPolygonCollisions.SeparatingAxisCache;
+import convexPolygonCollisions.ShardLink;
+import convexPolygonCollisions.ShardServer;
+import convexPolygonCollisions.ShardedWorld;
+import convexPolygonCollisions.SocketShardLink;
+import convexPolygonCollisions.SpatialHashGrid;
+import convexPolygonCollisions.StaticSolver;
+import convexPolygonCollisions.SupportShape;
+import convexPolygonCollisions.SweepAndPrune;
+import convexPolygonCollisions.TimeOfImpact;
+import engine.vectors.points2d.Vec2df;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class is made to test the collision kernels
+ * without a window. It checks that the different
+ * versions of the algorithms give the same results
+ * and that the hot paths don't make allocations
+ *
+ * @class TestCollisionKernels
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class TestCollisionKernels {
+
+    /**
+     * The number of random pairs of polygons tested
+     */
+    private static final int NUM_PAIRS = 20000;
+
+    /**
+     * The number of failed checks
+     */
+    private static int failures = 0;
+
+    /**
+     * The bean which measures the allocations of a thread,
+     * null if the JVM doesn't support it
+     */
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean ?
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean() : null;
+
+    /**
+     * This method builds a random regular polygon
+     * @param rnd the random generator
+     * @return a new updated polygon
+     */
+    private static Polygon makeRandomPolygon(Random rnd) {
+        Polygon polygon = PolygonFactory.makeRegularPolygon(
+                3 + rnd.nextInt(14),
+                new Vec2df(rnd.nextFloat() * 200, rnd.nextFloat() * 200),
+                10 + rnd.nextFloat() * 40,
+                (float)(rnd.nextFloat() * Math.PI * 2)
+        );
+        polygon.update();
+        return polygon;
+    }
+
+    /**
+     * This method builds random pairs of polygons
+     * @param seed the seed of the random generator
+     * @return a list where the polygons 2 * i and 2 * i + 1 are a pair
+     */
+    private static ArrayList<Polygon> makeRandomPairs(long seed) {
+        Random rnd = new Random(seed);
+        ArrayList<Polygon> polygons = new ArrayList<>();
+        for ( int i = 0; i < NUM_PAIRS * 2; i++ ) {
+            polygons.add(makeRandomPolygon(rnd));
+        }
+        return polygons;
+    }
+
+    /**
+     * This method registers the result of a check
+     * @param ok if the check has passed
+     * @param message the description of the check
+     */
+    private static void check(boolean ok, String message) {
+        if ( !ok ) {
+            failures++;
+            System.out.println("FAIL: " + message);
+        }
+    }
+
+    /**
+     * This method returns the bytes allocated by the current thread
+     * @return the allocated bytes, or -1 if the JVM doesn't support it
+     */
+    private static long allocatedBytes() {
+        if ( THREAD_BEAN == null ) {
+            return -1;
+        }
+        return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * This method checks that the SAT without allocations gives
+     * the same results as the original SAT methods
+     */
+    private static void testNoAllocAgreement() {
+        ArrayList<Polygon> polygons = makeRandomPairs(1);
+        for ( int i = 0; i < NUM_PAIRS; i++ ) {
+            Polygon r1 = polygons.get(2 * i);
+            Polygon r2 = polygons.get(2 * i + 1);
+            check(ConvexPolygonCollisions.shapeOverlapSAT(r1, r2) == ConvexPolygonCollisions.shapeOverlapSATNoAlloc(r1, r2),
+                    "shapeOverlapSATNoAlloc differs on pair " + i);
+
+            Polygon a1 = new Polygon(r1);
+            Polygon b1 = new Polygon(r1);
+            ConvexPolygonCollisions.shapeOverlapStaticSAT(a1, r2);
+            ConvexPolygonCollisions.shapeOverlapStaticSATNoAlloc(b1, r2);
+            check(a1.getPosition().getX() == b1.getPosition().getX() && a1.getPosition().getY() == b1.getPosition().getY(),
+                    "shapeOverlapStaticSATNoAlloc differs on pair " + i);
+        }
+    }
+
+    /**
+     * This method checks that the polygon buffer transforms the
+     * vertices and runs the SAT like the Polygon class
+     */
+    private static void testPolygonBufferAgreement() {
+        ArrayList<Polygon> polygons = makeRandomPairs(3);
+        PolygonBuffer buffer = new PolygonBuffer();
+        for ( Polygon polygon : polygons ) {
+            buffer.add(polygon);
+        }
+        buffer.transformAll();
+
+        for ( int body = 0; body < buffer.size(); body++ ) {
+            Polygon polygon = polygons.get(body);
+            int start = buffer.getVertexStart(body);
+            for ( int i = 0; i < polygon.getP().length; i++ ) {
+                check(buffer.getWorldX()[start + i] == polygon.getP()[i].getX() &&
+                                buffer.getWorldY()[start + i] == polygon.getP()[i].getY(),
+                        "PolygonBuffer.transform differs on body " + body + " vertex " + i);
+            }
+        }
+
+        for ( int i = 0; i < NUM_PAIRS; i++ ) {
+            Polygon r1 = polygons.get(2 * i);
+            Polygon r2 = polygons.get(2 * i + 1);
+            check(ConvexPolygonCollisions.shapeOverlapSAT(r1, r2) == buffer.shapeOverlapSAT(2 * i, 2 * i + 1),
+                    "PolygonBuffer.shapeOverlapSAT differs on pair " + i);
+
+            ConvexPolygonCollisions.shapeOverlapStaticSAT(r1, r2);
+            buffer.shapeOverlapStaticSAT(2 * i, 2 * i + 1);
+            check(r1.getPosition().getX() == buffer.getPositionX(2 * i) && r1.getPosition().getY() == buffer.getPositionY(2 * i),
+                    "PolygonBuffer.shapeOverlapStaticSAT differs on pair " + i);
+        }
+    }
+
+    /**
+     * This method checks the primitive hash map against a HashMap
+     */
+    private static void testLongIntHashMap() {
+        Random rnd = new Random(5);
+        LongIntHashMap map = new LongIntHashMap();
+        HashMap<Long, Integer> expected = new HashMap<>();
+        for ( int i = 0; i < 200000; i++ ) {
+            long key = rnd.nextInt(2000) - 1000L;
+            if ( rnd.nextInt(3) == 0 ) {
+                check(map.remove(key) == (expected.remove(key) != null), "LongIntHashMap.remove differs for key " + key);
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+            check(map.get(key, -1) == expected.getOrDefault(key, -1), "LongIntHashMap.get differs for key " + key);
+        }
+        check(map.size() == expected.size(), "LongIntHashMap.size differs");
+    }
+
+    /**
+     * This method checks that a broad-phase finds exactly the pairs
+     * of polygons whose bounding boxes overlap, while the polygons
+     * move, are added and are removed between frames
+     * @param broadPhase the broad-phase to test
+     * @param name the name of the broad-phase for the messages
+     */
+    private static void testBroadPhase(BroadPhase broadPhase, String name) {
+        Random rnd = new Random(4);
+        ArrayList<Polygon> polygons = new ArrayList<>();
+        for ( int i = 0; i < 1500; i++ ) {
+            Polygon polygon = PolygonFactory.makeRegularPolygon(3 + rnd.nextInt(6),
+                    new Vec2df(rnd.nextFloat() * 1000, rnd.nextFloat() * 1000), 5 + rnd.nextFloat() * 15, 0);
+            polygons.add(polygon);
+        }
+        PairList pairs = new PairList();
+        PairList expected = new PairList();
+        for ( int frame = 0; frame < 10; frame++ ) {
+            for ( Polygon polygon : polygons ) {
+                if ( rnd.nextInt(4) == 0 ) {
+                    polygon.getPosition().addToX(rnd.nextFloat() * 20 - 10);
+                    polygon.getPosition().addToY(rnd.nextFloat() * 20 - 10);
+                    polygon.setAngle(polygon.getAngle() + rnd.nextFloat());
+                }
+                polygon.update();
+            }
+            if ( frame == 4 ) {
+                polygons.subList(0, 100).clear();
+            }
+            if ( frame == 7 ) {
+                Polygon huge = PolygonFactory.makeRegularPolygon(8, new Vec2df(500, 500), 300, 0);
+                huge.update();
+                polygons.add(huge);
+            }
+            if ( frame == 8 ) {
+                // The bodies which have flown away must not stop the broad-phase
+                for ( float x : new float[] {1e30f, 1e30f, -1e30f, Float.POSITIVE_INFINITY} ) {
+                    Polygon far = PolygonFactory.makeRegularPolygon(4, new Vec2df(x, 1e30f), 10, 0);
+                    far.update();
+                    polygons.add(far);
+                }
+                // And neither the bodies which are finite but span almost the whole grid
+                for ( int k = 0; k < 2; k++ ) {
+                    Polygon giant = PolygonFactory.makeRegularPolygon(4, new Vec2df(500, 500), 1e20f, k);
+                    giant.update();
+                    polygons.add(giant);
+                }
+            }
+
+            broadPhase.findPairs(polygons, pairs);
+            pairs.sort();
+            expected.clear();
+            for ( int m = 0; m < polygons.size(); m++ ) {
+                for ( int n = m + 1; n < polygons.size(); n++ ) {
+                    Polygon a = polygons.get(m);
+                    Polygon b = polygons.get(n);
+                    if ( a.getMinX() <= b.getMaxX() && b.getMinX() <= a.getMaxX() &&
+                            a.getMinY() <= b.getMaxY() && b.getMinY() <= a.getMaxY() ) {
+                        expected.add(m, n);
+                    }
+                }
+            }
+
+            boolean same = pairs.size() == expected.size();
+            for ( int i = 0; same && i < pairs.size(); i++ ) {
+                same = pairs.get(i) == expected.get(i);
+            }
+            check(same, name + " found " + pairs.size() + " pairs instead of " + expected.size() + " on frame " + frame);
+            check(broadPhase.getCandidatePairs() == pairs.size(), name + " counts the candidate pairs wrong");
+        }
+    }
+
+    /**
+     * This method checks the point, box and ray queries of the
+     * dynamic tree against testing all the polygons
+     */
+    private static void testDynamicAABBTreeQueries() {
+        Random rnd = new Random(6);
+        ArrayList<Polygon> polygons = new ArrayList<>();
+        for ( int i = 0; i < 1000; i++ ) {
+            float size = rnd.nextInt(50) == 0 ? 100 + rnd.nextFloat() * 200 : 3 + rnd.nextFloat() * 10;
+            Polygon polygon = PolygonFactory.makeRegularPolygon(3 + rnd.nextInt(6),
+                    new Vec2df(rnd.nextFloat() * 1000, rnd.nextFloat() * 1000), size, rnd.nextFloat() * 6);
+            polygon.update();
+            polygons.add(polygon);
+        }
+        DynamicAABBTree tree = new DynamicAABBTree();
+        tree.update(polygons);
+        check(tree.getHeight() < 40, "DynamicAABBTree is not balanced, its height is " + tree.getHeight());
+
+        int[] out = new int[polygons.size()];
+        float[] fraction = new float[1];
+        for ( int q = 0; q < 2000; q++ ) {
+            float x = rnd.nextFloat() * 1000;
+            float y = rnd.nextFloat() * 1000;
+
+            int found = tree.queryPoint(x, y, out);
+            Arrays.sort(out, 0, found);
+            int expected = 0;
+            boolean same = true;
+            for ( int i = 0; i < polygons.size(); i++ ) {
+                if ( ConvexPolygonCollisions.pointInPolygon(polygons.get(i), x, y) ) {
+                    same &= expected < found && out[expected] == i;
+                    expected++;
+                }
+            }
+            check(same && expected == found, "DynamicAABBTree.queryPoint differs at " + x + ", " + y);
+
+            found = tree.queryAABB(x, y, x + 30, y + 20, out);
+            Arrays.sort(out, 0, found);
+            expected = 0;
+            same = true;
+            for ( int i = 0; i < polygons.size(); i++ ) {
+                if ( ConvexPolygonCollisions.polygonOverlapAABB(polygons.get(i), x, y, x + 30, y + 20) ) {
+                    same &= expected < found && out[expected] == i;
+                    expected++;
+                }
+            }
+            check(same && expected == found, "DynamicAABBTree.queryAABB differs at " + x + ", " + y);
+
+            float dx = rnd.nextFloat() * 2 - 1;
+            float dy = rnd.nextFloat() * 2 - 1;
+            int hit = tree.rayCast(x, y, dx, dy, 500, fraction);
+            float best = Float.MAX_VALUE;
+            for ( Polygon polygon : polygons ) {
+                float t = ConvexPolygonCollisions.rayCastPolygon(polygon, x, y, dx, dy, 500);
+                if ( t >= 0 ) {
+                    best = Float.min(best, t);
+                }
+            }
+            check(hit == -1 ? best == Float.MAX_VALUE : fraction[0] == best,
+                    "DynamicAABBTree.rayCast differs from " + x + ", " + y);
+        }
+    }
+
+    /**
+     * This method checks that the batched queries give the same
+     * results as the queries of the tree, one by one
+     */
+    private static void testParallelQueries() {
+        Random rnd = new Random(21);
+        ArrayList<Polygon> polygons = makeDenseScene(21, 2000);
+        DynamicAABBTree tree = new DynamicAABBTree();
+        tree.update(polygons);
+        float side = (float)Math.sqrt(polygons.size()) * 15;
+
+        int n = 5000;
+        float[] x = new float[n], y = new float[n], dx = new float[n], dy = new float[n];
+        for ( int i = 0; i < n; i++ ) {
+            x[i] = rnd.nextFloat() * side;
+            y[i] = rnd.nextFloat() * side;
+            dx[i] = rnd.nextFloat() * 2 - 1;
+            dy[i] = rnd.nextFloat() * 2 - 1;
+        }
+        int maxPerPoint = 4;
+        int[] hitBody = new int[n];
+        float[] hitFraction = new float[n];
+        int[] hitBodies = new int[n * maxPerPoint];
+        int[] hitCount = new int[n];
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ParallelQueries queries = new ParallelQueries(pool, 64);
+        queries.rayCast(tree, x, y, dx, dy, 200, n, hitBody, hitFraction);
+        queries.queryPoint(tree, x, y, n, maxPerPoint, hitBodies, hitCount);
+        pool.shutdown();
+
+        int[] out = new int[maxPerPoint];
+        float[] fraction = new float[1];
+        int hits = 0;
+        for ( int i = 0; i < n; i++ ) {
+            int hit = tree.rayCast(x[i], y[i], dx[i], dy[i], 200, fraction);
+            check(hitBody[i] == hit && (hit == -1 || hitFraction[i] == fraction[0]), "ParallelQueries.rayCast differs on ray " + i);
+            if ( hit != -1 ) {
+                hits++;
+            }
+            int found = tree.queryPoint(x[i], y[i], out);
+            check(hitCount[i] == found && Arrays.equals(Arrays.copyOfRange(hitBodies, i * maxPerPoint, i * maxPerPoint + found),
+                    Arrays.copyOf(out, found)), "ParallelQueries.queryPoint differs on point " + i);
+        }
+        check(hits > 0, "no ray hit a polygon");
+
+        boolean thrown = false;
+        try {
+            tree.queryPoint(0, 0, out, 0, out.length, new int[tree.getQueryStackSize() - 1]);
+        } catch ( IllegalArgumentException e ) {
+            thrown = true;
+        }
+        check(thrown, "DynamicAABBTree accepted a stack too small");
+    }
+
+    /**
+     * This method acquires and releases many polygons of a pool
+     * @param pool the pool
+     */
+    private static void cyclePool(PolygonPool pool) {
+        for ( int i = 0; i < 100000; i++ ) {
+            Polygon polygon = pool.acquire(3 + i % 6, i % 200, i % 150, 5 + i % 7, i * 0.01f);
+            pool.release(polygon);
+        }
+    }
+
+    /**
+     * This method checks that the shared polygons give the same points
+     * as the regular ones, and that the pool reuses them without allocations
+     */
+    private static void testPolygonPool() {
+        Random rnd = new Random(22);
+        PolygonBuffer buffer = new PolygonBuffer();
+        for ( int i = 0; i < 2000; i++ ) {
+            int numVertices = 3 + rnd.nextInt(14);
+            float x = rnd.nextFloat() * 200;
+            float y = rnd.nextFloat() * 200;
+            float size = 10 + rnd.nextFloat() * 40;
+            float angle = (float)(rnd.nextFloat() * Math.PI * 2);
+            Polygon regular = PolygonFactory.makeRegularPolygon(numVertices, new Vec2df(x, y), size, angle);
+            Polygon shared = PolygonFactory.makeSharedRegularPolygon(numVertices, new Vec2df(x, y), size, angle);
+            regular.update();
+            shared.update();
+            boolean same = shared.getO() == PolygonFactory.getUnitShape(numVertices);
+            for ( int k = 0; k < numVertices; k++ ) {
+                same &= regular.getP()[k].getX() == shared.getP()[k].getX() && regular.getP()[k].getY() == shared.getP()[k].getY();
+            }
+            check(same, "the shared polygon " + i + " differs from the regular one");
+            check(Math.abs(regular.getBoundingRadius() - shared.getBoundingRadius()) < 1e-3f,
+                    "the shared polygon " + i + " has a bounding radius of " + shared.getBoundingRadius());
+
+            int body = buffer.add(shared);
+            buffer.transform(body);
+            int start = buffer.getVertexStart(body);
+            same = true;
+            for ( int k = 0; k < numVertices; k++ ) {
+                same &= buffer.getWorldX()[start + k] == shared.getP()[k].getX() && buffer.getWorldY()[start + k] == shared.getP()[k].getY();
+            }
+            check(same, "PolygonBuffer.transform differs on the shared polygon " + i);
+        }
+
+        PolygonPool pool = new PolygonPool();
+        ArrayList<Polygon> alive = new ArrayList<>();
+        for ( int i = 0; i < 500; i++ ) {
+            alive.add(pool.acquire(3 + i % 6, rnd.nextFloat() * 200, rnd.nextFloat() * 200, 5 + rnd.nextFloat() * 5, rnd.nextFloat() * 6));
+        }
+        for ( Polygon polygon : alive ) {
+            pool.release(polygon);
+        }
+        check(pool.getCreated() == 500 && pool.getFreeCount() == 500, "the pool has " + pool.getFreeCount() + " free polygons");
+
+        Polygon acquired = pool.acquire(5, 50, 60, 20, 1);
+        Polygon expected = PolygonFactory.makeRegularPolygon(5, new Vec2df(50, 60), 20, 1);
+        expected.update();
+        check(!acquired.isOverlap() && acquired.getP()[2].getX() == expected.getP()[2].getX() && acquired.getP()[2].getY() == expected.getP()[2].getY() &&
+                acquired.getMaxX() == expected.getMaxX(), "the reused polygon was not reset");
+        pool.release(acquired);
+
+        for ( int warmup = 0; warmup < 20; warmup++ ) {
+            cyclePool(pool);
+            allocatedBytes();
+        }
+        long before = allocatedBytes();
+        cyclePool(pool);
+        long allocated = allocatedBytes() - before;
+        check(before < 0 || allocated == 0, "the pool allocated " + allocated + " bytes in steady state");
+        check(pool.getCreated() == 500, "the pool made " + pool.getCreated() + " polygons");
+
+        boolean thrown = false;
+        try {
+            pool.release(expected);
+        } catch ( IllegalArgumentException e ) {
+            thrown = true;
+        }
+        check(thrown, "the pool accepted a polygon with its own model");
+    }
+
+    /**
+     * This method checks the deterministic mode: the tables are accurate,
+     * a replay gives the same bits for any number of threads, and the
+     * degenerate cases don't make NaN positions
+     */
+    private static void testDeterminism() {
+        float maxError = 0;
+        for ( int i = 0; i <= 100000; i++ ) {
+            float angle = (float)(-2 * Math.PI + 4 * Math.PI * i / 100000);
+            maxError = Float.max(maxError, Math.abs(Determinism.sin(angle) - (float)Math.sin(angle)));
+            maxError = Float.max(maxError, Math.abs(Determinism.cos(angle) - (float)Math.cos(angle)));
+        }
+        check(maxError < 2e-6f, "the tables of sines and cosines have an error of " + maxError);
+
+        // The unit shapes may have been cached before the mode is enabled
+        Vec2df[] unit = PolygonFactory.getUnitShape(7);
+        boolean strict = true;
+        for ( int i = 0; i < unit.length; i++ ) {
+            strict &= unit[i].getX() == (float)StrictMath.cos(Math.PI * 2.0 / 7 * i) && unit[i].getY() == (float)StrictMath.sin(Math.PI * 2.0 / 7 * i);
+        }
+        check(strict, "the unit shapes are not built with StrictMath");
+
+        Determinism.setEnabled(true);
+        try {
+            int[] replay1 = runReplay(1);
+            int[] replay2 = runReplay(1);
+            int[] replay4 = runReplay(4);
+            check(Arrays.equals(replay1, replay2), "the deterministic replay differs between two runs");
+            check(Arrays.equals(replay1, replay4), "the deterministic replay depends on the number of threads");
+            boolean finite = true;
+            for ( int bits : replay1 ) {
+                finite &= Float.isFinite(Float.intBitsToFloat(bits));
+            }
+            check(finite, "the deterministic replay made positions which are not finite");
+        } finally {
+            Determinism.setEnabled(false);
+        }
+
+        Polygon r1 = PolygonFactory.makeRegularPolygon(5, new Vec2df(100, 100), 20, 0);
+        Polygon r2 = PolygonFactory.makeRegularPolygon(5, new Vec2df(100, 100), 20, 0);
+        r1.update();
+        r2.update();
+        ConvexPolygonCollisions.shapeOverlapStaticSAT(r1, r2);
+        check(r1.getPosition().getX() < 100 && r1.getPosition().getY() == 100,
+                "shapeOverlapStaticSAT with the same positions moved r1 to " + r1.getPosition());
+        r1.getPosition().setX(100);
+        r1.update();
+        ConvexPolygonCollisions.shapeOverlapStaticSATNoAlloc(r1, r2);
+        check(r1.getPosition().getX() < 100 && r1.getPosition().getY() == 100,
+                "shapeOverlapStaticSATNoAlloc with the same positions moved r1 to " + r1.getPosition());
+        r1.getPosition().setX(100);
+        r1.update();
+        ConvexPolygonCollisions.shapeOverlapStaticSATCached(r1, r2);
+        check(r1.getPosition().getX() < 100 && r1.getPosition().getY() == 100,
+                "shapeOverlapStaticSATCached with the same positions moved r1 to " + r1.getPosition());
+        r1.getPosition().setX(100);
+        r1.update();
+        PolygonBuffer buffer = new PolygonBuffer();
+        buffer.add(r1);
+        buffer.add(r2);
+        buffer.shapeOverlapStaticSAT(0, 1);
+        check(buffer.getPositionX(0) < 100 && buffer.getPositionY(0) == 100,
+                "PolygonBuffer.shapeOverlapStaticSAT with the same positions moved body 0 to " + buffer.getPositionX(0));
+
+        // A square with a repeated vertex, so one of its edges has zero length
+        Vec2df[] o = {new Vec2df(-10, -10), new Vec2df(10, -10), new Vec2df(10, -10), new Vec2df(10, 10), new Vec2df(-10, 10)};
+        Vec2df[] p = new Vec2df[o.length];
+        for ( int i = 0; i < o.length; i++ ) {
+            p[i] = new Vec2df(0, 0);
+        }
+        Polygon degenerate = new Polygon(p, o, new Vec2df(100, 100), 0, false);
+        degenerate.update();
+        Polygon other = PolygonFactory.makeQuad(new Vec2df(112, 100), 5, 0);
+        other.update();
+        buffer.clear();
+        buffer.add(degenerate);
+        buffer.add(other);
+        ContactManifold manifold = new ContactManifold();
+        check(ConvexPolygonCollisions.shapeOverlapSAT(degenerate, other) && ConvexPolygonCollisions.shapeOverlapSATNoAlloc(degenerate, other) &&
+                        ConvexPolygonCollisions.shapeOverlapSATCached(degenerate, other) && buffer.shapeOverlapSAT(0, 1) &&
+                        ConvexPolygonCollisions.collideSAT(degenerate, other, manifold),
+                "an edge of zero length separated two overlapping polygons");
+    }
+
+    /**
+     * This method runs a scene with the static resolution of the parallel
+     * narrow-phase, with random velocities and angular velocities
+     * @param threads the number of threads of the narrow-phase
+     * @return the bits of the positions and angles at the end
+     */
+    private static int[] runReplay(int threads) {
+        CollisionWorld world = new CollisionWorld(new SweepAndPrune(), 0.01f);
+        Random rnd = new Random(23);
+        for ( Polygon polygon : makeDenseScene(23, 1000) ) {
+            world.addBody(polygon, rnd.nextFloat() * 20 - 10, rnd.nextFloat() * 20 - 10, rnd.nextFloat() * 4 - 2);
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ParallelNarrowPhase narrowPhase = new ParallelNarrowPhase(pool, 32);
+        for ( int i = 0; i < 50; i++ ) {
+            world.step();
+            narrowPhase.resolveStatic(world.getBodies(), world.getPairs());
+        }
+        pool.shutdown();
+        Polygon.updateAll(world.getBodies());
+        int[] bits = new int[world.size() * 5];
+        for ( int i = 0; i < world.size(); i++ ) {
+            Polygon body = world.getBody(i);
+            bits[5 * i] = Float.floatToRawIntBits(body.getPosition().getX());
+            bits[5 * i + 1] = Float.floatToRawIntBits(body.getPosition().getY());
+            bits[5 * i + 2] = Float.floatToRawIntBits(body.getAngle());
+            bits[5 * i + 3] = Float.floatToRawIntBits(body.getP()[0].getX());
+            bits[5 * i + 4] = Float.floatToRawIntBits(body.getP()[0].getY());
+        }
+        return bits;
+    }
+
+    /**
+     * This method checks that a sharded world reports the same pairs
+     * as a single world in every step, with its shards on threads of
+     * this process and behind sockets, and that no body is lost
+     */
+    private static void testShardedWorld() {
+        ArrayList<Polygon> scene = makeDenseScene(29, 1000);
+        float side = (float)Math.sqrt(scene.size()) * 15;
+        float[] boundaries = {side / 3, 2 * side / 3};
+        float timeStep = 0.01f;
+        // The biggest bounding radius is 10 and the bodies approach 0.3 per step
+        float ghostMargin = 25;
+
+        Random rnd = new Random(29);
+        float[] velocity = new float[scene.size() * 3];
+        for ( int i = 0; i < velocity.length; i++ ) {
+            velocity[i] = rnd.nextFloat() * 20 - 10;
+        }
+        CollisionWorld world = new CollisionWorld(new SweepAndPrune(), timeStep);
+        for ( int i = 0; i < scene.size(); i++ ) {
+            world.addBody(new Polygon(scene.get(i)), velocity[3 * i], velocity[3 * i + 1], velocity[3 * i + 2]);
+        }
+        int steps = 30;
+        int[] expected = new int[steps];
+        for ( int i = 0; i < steps; i++ ) {
+            world.step();
+            expected[i] = world.getContacts();
+        }
+
+        try ( ShardedWorld local = ShardedWorld.local(boundaries, ghostMargin, CollisionWorld.Mode.SAT, timeStep) ) {
+            checkShardedWorld(local, scene, velocity, expected, "local");
+        } catch ( IOException e ) {
+            check(false, "the local sharded world has failed: " + e);
+        }
+
+        ShardLink[] links = new ShardLink[boundaries.length + 1];
+        Thread[] servers = new Thread[links.length];
+        try {
+            for ( int i = 0; i < links.length; i++ ) {
+                ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+                servers[i] = new Thread(() -> {
+                    try ( ServerSocket socket = serverSocket ) {
+                        ShardServer.serve(socket);
+                    } catch ( IOException e ) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                servers[i].start();
+                links[i] = new SocketShardLink(new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort()),
+                        i, boundaries, ghostMargin, CollisionWorld.Mode.SAT, timeStep);
+            }
+            try ( ShardedWorld remote = new ShardedWorld(boundaries, links) ) {
+                checkShardedWorld(remote, scene, velocity, expected, "socket");
+            }
+            for ( Thread server : servers ) {
+                server.join(10000);
+                check(!server.isAlive(), "a shard server didn't stop when its link was closed");
+            }
+        } catch ( IOException | InterruptedException e ) {
+            check(false, "the socket sharded world has failed: " + e);
+        }
+
+        BodyBatch batch = new BodyBatch();
+        batch.add(7, scene.get(0), 1, 2, 3, 1);
+        ByteBuffer bytes = ByteBuffer.allocate(Integer.BYTES + batch.byteSize());
+        bytes.putInt(batch.byteSize());
+        batch.writeTo(bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN).position(Integer.BYTES));
+        BodyBatch read = new BodyBatch();
+        check(!batchThrowsIOException(read, bytes.array()) && read.size() == 1 && read.getId(0) == 7 &&
+                read.getPositionX(0) == scene.get(0).getPosition().getX() && read.getAngularVelocity(0) == 3, "the batch was not read back");
+        check(batchThrowsIOException(read, Arrays.copyOf(bytes.array(), bytes.capacity() - 1)), "a truncated batch was read");
+        for ( int[] corruption : new int[][] {{0, -1}, {0, Integer.MAX_VALUE}, {4, Integer.MAX_VALUE}, {8, Integer.MAX_VALUE}} ) {
+            ByteBuffer corrupted = ByteBuffer.wrap(bytes.array().clone());
+            // The size of the batch is big-endian, like the streams, and the batch is little-endian
+            if ( corruption[0] == 0 ) {
+                corrupted.putInt(0, corruption[1]);
+            } else {
+                corrupted.order(ByteOrder.LITTLE_ENDIAN).putInt(corruption[0], corruption[1]);
+            }
+            check(batchThrowsIOException(read, corrupted.array()), "a batch with " + corruption[1] + " at byte " + corruption[0] + " was read");
+        }
+    }
+
+    /**
+     * This method checks if reading a batch from a stream fails
+     * @param batch the batch where it is read
+     * @param bytes the bytes of the stream
+     * @return if the read threw an IOException
+     */
+    private static boolean batchThrowsIOException(BodyBatch batch, byte[] bytes) {
+        try {
+            batch.readFrom(new DataInputStream(new ByteArrayInputStream(bytes)));
+            return false;
+        } catch ( IOException e ) {
+            return true;
+        }
+    }
+
+    /**
+     * This method runs a sharded world and compares its pairs with a single world
+     * @param sharded the sharded world, empty
+     * @param scene the bodies
+     * @param velocity the linear and angular velocities of each body
+     * @param expected the number of pairs of the single world in each step
+     * @param name the name of the world in the messages
+     * @throws IOException if a shard fails
+     */
+    private static void checkShardedWorld(ShardedWorld sharded, ArrayList<Polygon> scene, float[] velocity,
+                                          int[] expected, String name) throws IOException {
+        for ( int i = 0; i < scene.size(); i++ ) {
+            sharded.addBody(scene.get(i), velocity[3 * i], velocity[3 * i + 1], velocity[3 * i + 2]);
+        }
+        check(sharded.size() == scene.size(), "the " + name + " sharded world has " + sharded.size() + " bodies before the first step");
+        int migrated = 0;
+        for ( int i = 0; i < expected.length; i++ ) {
+            sharded.step();
+            int owned = 0;
+            for ( int s = 0; s < sharded.getShardCount(); s++ ) {
+                owned += sharded.getOwnedCount(s);
+            }
+            migrated += scene.size() - owned;
+            check(sharded.getContacts() == expected[i], "the " + name + " sharded world reported " + sharded.getContacts()
+                    + " pairs in the step " + i + ", expected " + expected[i]);
+            // The bodies which have just crossed a boundary are on their way to the next shard
+            check(sharded.size() == scene.size(), "the " + name + " sharded world has " + sharded.size() + " bodies in the step " + i);
+        }
+        check(migrated > 0, "no body of the " + name + " sharded world crossed a boundary");
+        for ( int s = 0; s < sharded.getShardCount(); s++ ) {
+            check(sharded.getOwnedCount(s) > 0, "the shard " + s + " of the " + name + " sharded world is empty");
+        }
+    }
+
+    /**
+     * This method builds a dense scene of polygons
+     * @param seed the seed of the random generator
+     * @param count the number of polygons
+     * @return the updated polygons
+     */
+    private static ArrayList<Polygon> makeDenseScene(long seed, int count) {
+        Random rnd = new Random(seed);
+        ArrayList<Polygon> polygons = new ArrayList<>();
+        float side = (float)Math.sqrt(count) * 15;
+        for ( int i = 0; i < count; i++ ) {
+            Polygon polygon = PolygonFactory.makeRegularPolygon(3 + rnd.nextInt(6),
+                    new Vec2df(rnd.nextFloat() * side, rnd.nextFloat() * side), 5 + rnd.nextFloat() * 5, rnd.nextFloat() * 6);
+            polygon.update();
+            polygons.add(polygon);
+        }
+        return polygons;
+    }
+
+    /**
+     * This method checks that the parallel narrow-phase gives the
+     * same results as the sequential one, for any number of threads
+     */
+    private static void testParallelNarrowPhase() {
+        ArrayList<Polygon> polygons = makeDenseScene(7, 5000);
+        PairList candidates = new PairList();
+        new SweepAndPrune().findPairs(polygons, candidates);
+        candidates.sort();
+
+        PairList expected = new PairList();
+        for ( int i = 0; i < candidates.size(); i++ ) {
+            if ( ConvexPolygonCollisions.shapeOverlapSAT(polygons.get(candidates.getFirst(i)), polygons.get(candidates.getSecond(i))) ) {
+                expected.add(candidates.getFirst(i), candidates.getSecond(i));
+            }
+        }
+
+        ArrayList<Polygon> single = new ArrayList<>();
+        ArrayList<Polygon> multi = new ArrayList<>();
+        for ( Polygon polygon : polygons ) {
+            single.add(new Polygon(polygon));
+            multi.add(new Polygon(polygon));
+        }
+        ForkJoinPool pool1 = new ForkJoinPool(1);
+        ForkJoinPool pool4 = new ForkJoinPool(4);
+        ParallelNarrowPhase narrowPhase1 = new ParallelNarrowPhase(pool1, 64);
+        ParallelNarrowPhase narrowPhase4 = new ParallelNarrowPhase(pool4, 16);
+
+        PairList out = new PairList();
+        narrowPhase4.detect(polygons, candidates, out);
+        boolean same = out.size() == expected.size();
+        for ( int i = 0; same && i < out.size(); i++ ) {
+            same = out.get(i) == expected.get(i);
+        }
+        check(same, "ParallelNarrowPhase.detect found " + out.size() + " pairs instead of " + expected.size());
+
+        int contacts1 = narrowPhase1.resolveStatic(single, candidates);
+        int contacts4 = narrowPhase4.resolveStatic(multi, candidates);
+        check(contacts1 == expected.size() && contacts4 == expected.size(), "ParallelNarrowPhase.resolveStatic counts the contacts wrong");
+        for ( int i = 0; i < polygons.size(); i++ ) {
+            check(single.get(i).getPosition().getX() == multi.get(i).getPosition().getX() &&
+                            single.get(i).getPosition().getY() == multi.get(i).getPosition().getY(),
+                    "ParallelNarrowPhase.resolveStatic depends on the number of threads for polygon " + i);
+        }
+        pool1.shutdown();
+        pool4.shutdown();
+    }
+
+    /**
+     * This method checks the contact manifold: the verdict must be the same
+     * as shapeOverlapSAT, moving r2 by the minimum translation vector must
+     * separate the polygons, and the contact points of shallow contacts must be
+     * inside both polygons (on deep contacts the clipped points can be outside
+     * the reference polygon, like in any edge clipping method)
+     */
+    private static void testContactManifold() {
+        ArrayList<Polygon> polygons = makeRandomPairs(8);
+        ContactManifold manifold = new ContactManifold();
+        int contacts = 0;
+        int shallowPoints = 0;
+        for ( int i = 0; i < NUM_PAIRS; i++ ) {
+            Polygon r1 = polygons.get(2 * i);
+            Polygon r2 = polygons.get(2 * i + 1);
+            boolean overlap = ConvexPolygonCollisions.collideSAT(r1, r2, manifold);
+            check(overlap == ConvexPolygonCollisions.shapeOverlapSAT(r1, r2), "collideSAT differs on pair " + i);
+            if ( !overlap ) {
+                continue;
+            }
+            contacts++;
+            check(manifold.getPointCount() >= 1 && manifold.getPointCount() <= ContactManifold.MAX_POINTS,
+                    "collideSAT found " + manifold.getPointCount() + " points on pair " + i);
+            for ( int k = 0; manifold.getDepth() < 1 && k < manifold.getPointCount(); k++ ) {
+                shallowPoints++;
+                float x = manifold.getPointX(k);
+                float y = manifold.getPointY(k);
+                float tolerance = 0.01f;
+                boolean inside = ConvexPolygonCollisions.polygonOverlapAABB(r1, x - tolerance, y - tolerance, x + tolerance, y + tolerance) &&
+                        ConvexPolygonCollisions.polygonOverlapAABB(r2, x - tolerance, y - tolerance, x + tolerance, y + tolerance);
+                check(inside, "collideSAT contact point " + k + " is outside the polygons on pair " + i + ": " + manifold);
+            }
+
+            float push = manifold.getDepth() + 0.01f;
+            r2.getPosition().addToX(manifold.getNormalX() * push);
+            r2.getPosition().addToY(manifold.getNormalY() * push);
+            r2.update();
+            check(!ConvexPolygonCollisions.shapeOverlapSAT(r1, r2), "collideSAT normal doesn't separate pair " + i + ": " + manifold);
+        }
+        check(contacts > 0 && shallowPoints > 0, "collideSAT didn't find enough contacts");
+
+        long before = allocatedBytes();
+        for ( int i = 0; i < NUM_PAIRS; i++ ) {
+            ConvexPolygonCollisions.collideSAT(polygons.get(2 * i), polygons.get(2 * i + 1), manifold);
+        }
+        long allocated = allocatedBytes() - before;
+        check(before < 0 || allocated == 0, "collideSAT allocated " + allocated + " bytes");
+    }
+
+    /**
+     * This method checks the algorithm "DIAGS": when it finds a overlap
+     * the SAT must find it too, and it must not make allocations
+     */
+    private static void testDiagonals() {
+        ArrayList<Polygon> polygons = makeRandomPairs(9);
+        int overlaps = 0;
+        for ( int i = 0; i < NUM_PAIRS; i++ ) {
+            Polygon r1 = polygons.get(2 * i);
+            Polygon r2 = polygons.get(2 * i + 1);
+            if ( ConvexPolygonCollisions.shapeOverlapDIAGS(r1, r2) ) {
+                overlaps++;
+                check(ConvexPolygonCollisions.shapeOverlapSAT(r1, r2), "shapeOverlapDIAGS finds a false overlap on pair " + i);
+            }
+        }
+        check(overlaps > 0, "shapeOverlapDIAGS didn't find any overlap");
+
+        for ( int i = 0; i < NUM_PAIRS; i++ ) {
+            Polygon r1 = new Polygon(polygons.get(2 * i));
+            Polygon r2 = polygons.get(2 * i + 1);
+            boolean overlap = ConvexPolygonCollisions.shapeOverlapDIAGS(r1, r2);
+            float x = r1.getPosition().getX();
+            float y = r1.getPosition().getY();
+            boolean moved = ConvexPolygonCollisions.shapeOverlapStaticDIAGS(r1, r2);
+            check(moved == overlap && (moved || (r1.getPosition().getX() == x && r1.getPosition().getY() == y)),
+                    "shapeOverlapStaticDIAGS doesn't tell if it moved r1 on pair " + i);
+        }
+
+        long before = allocatedBytes();
+        for ( int i = 0; i < NUM_PAIRS; i++ ) {
+            ConvexPolygonCollisions.shapeOverlapDIAGS(polygons.get(2 * i), polygons.get(2 * i + 1));
+            ConvexPolygonCollisions.shapeOverlapStaticDIAGS(polygons.get(2 * i), polygons.get(2 * i + 1));
+        }
+        long allocated = allocatedBytes() - before;
+        check(before < 0 || allocated == 0, "the DIAGS methods allocated " + allocated + " bytes");
+    }
+
+    /**
+     * This method checks that the polygons are only transformed when they
+     * change, and that the points are the same as a full transformation
+     */
+    private static void testDirtyUpdate() {
+        ArrayList<Polygon> polygons = makeDenseScene(10, 1000);
+        check(Polygon.updateAll(polygons) == polygons.size(), "Polygon.updateAll transformed polygons which didn't change");
+
+        polygons.get(0).setAngle(1);
+        polygons.get(1).getPosition().addToX(3);
+        polygons.get(2).setPosition(new Vec2df(5, 5));
+        polygons.get(3).markDirty();
+        check(Polygon.updateAll(polygons) == polygons.size() - 4, "Polygon.updateAll didn't detect the changes");
+
+        for ( int i = 0; i < 4; i++ ) {
+            Polygon polygon = polygons.get(i);
+            Polygon fresh = new Polygon(polygon);
+            fresh.update();
+            for ( int k = 0; k < polygon.getP().length; k++ ) {
+                check(fresh.getP()[k].getX() == polygon.getP()[k].getX() && fresh.getP()[k].getY() == polygon.getP()[k].getY(),
+                        "Polygon.update gives different points for polygon " + i);
+            }
+            check(!fresh.updateIfDirty(), "Polygon.updateIfDirty transformed a polygon which didn't change");
+        }
+
+        // The classes compiled against the old update must still link
+        try {
+            check(Polygon.class.getMethod("update").getReturnType() == void.class, "Polygon.update doesn't return void");
+        } catch ( NoSuchMethodException e ) {
+            check(false, "Polygon.update doesn't exist");
+        }
+    }
+
+    /**
+     * This method checks the SAT with cached normals: it must agree with
+     * shapeOverlapSAT unless the polygons are almost touching, and the
+     * regular polygons with an even number of vertices must have half of the axes
+     */
+    private static void testCachedNormals() {
+        for ( int n = 3; n <= 64; n++ ) {
+            Polygon polygon = PolygonFactory.makeRegularPolygon(n, new Vec2df(0, 0), 10, 0);
+            check(polygon.getAxisCount() == (n % 2 == 0 ? n / 2 : n),
+                    "a regular polygon of " + n + " vertices has " + polygon.getAxisCount() + " axes");
+        }
+
+        ArrayList<Polygon> polygons = makeRandomPairs(11);
+        for ( int i = 0; i < NUM_PAIRS; i++ ) {
+            Polygon r1 = polygons.get(2 * i);
+            Polygon r2 = polygons.get(2 * i + 1);
+            float depth = ConvexPolygonCollisions.shapeOverlapDepthSAT(r1, r2);
+            if ( Math.abs(depth) > 1e-3f ) {
+                check(ConvexPolygonCollisions.shapeOverlapSAT(r1, r2) == ConvexPolygonCollisions.shapeOverlapSATCached(r1, r2),
+                        "shapeOverlapSATCached differs on pair " + i);
+            }
+            if ( depth > 1e-3f ) {
+                check(Math.abs(depth - ConvexPolygonCollisions.shapeOverlapDepthSATCached(r1, r2)) < 1e-3f,
+                        "shapeOverlapDepthSATCached differs on pair " + i);
+            }
+        }
+
+        // The copies have the points of the updated polygons, their normals must match before any update
+        for ( int i = 0; i < 1000; i++ ) {
+            Polygon r1 = polygons.get(2 * i);
+            Polygon r2 = polygons.get(2 * i + 1);
+            Polygon copy1 = new Polygon(r1);
+            Polygon copy2 = new Polygon(r2);
+            check(Arrays.equals(copy1.getNormalX(), r1.getNormalX()) && Arrays.equals(copy1.getNormalY(), r1.getNormalY()),
+                    "the copy of polygon " + 2 * i + " has other normals");
+            check(ConvexPolygonCollisions.shapeOverlapSATCached(copy1, copy2) == ConvexPolygonCollisions.shapeOverlapSATCached(r1, r2),
+                    "shapeOverlapSATCached differs on the copies of pair " + i);
+        }
+
+        long before = allocatedBytes();
+        for ( int i = 0; i < NUM_PAIRS; i++ ) {
+            ConvexPolygonCollisions.shapeOverlapSATCached(polygons.get(2 * i), polygons.get(2 * i + 1));
+        }
+        long allocated = allocatedBytes() - before;
+        check(before < 0 || allocated == 0, "shapeOverlapSATCached allocated " + allocated + " bytes");
+    }
+
+    /**
+     * This method builds a copy of a polygon moved a fraction of a displacement
+     * @param polygon the polygon
+     * @param dx the x displacement
+     * @param dy the y displacement
+     * @param t the fraction of the displacement
+     * @return the moved copy, updated
+     */
+    private static Polygon moved(Polygon polygon, float dx, float dy, float t) {
+        Polygon copy = new Polygon(polygon);
+        copy.getPosition().addToX(dx * t);
+        copy.getPosition().addToY(dy * t);
+        copy.update();
+        return copy;
+    }
+
+    /**
+     * This method checks the swept SAT: a thin wall can't be tunneled,
+     * the time of impact is not later than the first sampled overlap,
+     * and the polygons touch at the time of impact
+     */
+    private static void testSweepSAT() {
+        TimeOfImpact toi = new TimeOfImpact();
+        Vec2df[] model = {new Vec2df(-1, -100), new Vec2df(1, -100), new Vec2df(1, 100), new Vec2df(-1, 100)};
+        Polygon wall = new Polygon(new Vec2df(100, 100), model, model, 0);
+        wall.update();
+        Polygon bullet = PolygonFactory.makeRegularPolygon(4, new Vec2df(20, 100), 5, 0);
+        bullet.update();
+        check(!ConvexPolygonCollisions.shapeOverlapSAT(wall, moved(bullet, 160, 0, 1)), "the bullet overlaps the wall at the end of the step");
+        check(ConvexPolygonCollisions.sweepSAT(wall, 0, 0, bullet, 160, 0, toi), "the bullet tunnels through the wall");
+        check(toi.getNormalX() < -0.99f && Math.abs(toi.getTime() * 160 - 74) < 0.1f, "wrong time of impact with the wall: " + toi);
+        check(!ConvexPolygonCollisions.sweepSAT(wall, 0, 0, bullet, -160, 0, toi), "the bullet hits the wall moving away");
+
+        Random rnd = new Random(15);
+        ArrayList<Polygon> polygons = makeRandomPairs(15);
+        int hits = 0;
+        for ( int i = 0; i < NUM_PAIRS / 10; i++ ) {
+            Polygon r1 = polygons.get(2 * i);
+            Polygon r2 = polygons.get(2 * i + 1);
+            float v1x = rnd.nextFloat() * 200 - 100;
+            float v1y = rnd.nextFloat() * 200 - 100;
+            float v2x = rnd.nextFloat() * 200 - 100;
+            float v2y = rnd.nextFloat() * 200 - 100;
+            boolean hit = ConvexPolygonCollisions.sweepSAT(r1, v1x, v1y, r2, v2x, v2y, toi);
+            float firstOverlap = -1;
+            for ( int k = 0; k <= 64 && firstOverlap < 0; k++ ) {
+                float t = k / 64f;
+                if ( ConvexPolygonCollisions.shapeOverlapDepthSAT(moved(r1, v1x, v1y, t), moved(r2, v2x, v2y, t)) > 1e-2f ) {
+                    firstOverlap = t;
+                }
+            }
+            if ( firstOverlap >= 0 ) {
+                check(hit && toi.getTime() <= firstOverlap + 1e-4f,
+                        "sweepSAT misses pair " + i + " which overlaps at " + firstOverlap + ": " + toi);
+            }
+            if ( hit ) {
+                hits++;
+                Polygon a = moved(r1, v1x, v1y, toi.getTime());
+                Polygon b = moved(r2, v2x, v2y, toi.getTime());
+                ContactManifold manifold = new ContactManifold();
+                if ( toi.getTime() > 0 ) {
+                    ConvexPolygonCollisions.collideSAT(a, b, manifold);
+                    check(Math.abs(manifold.getDepth()) < 1e-2f, "the polygons of pair " + i + " don't touch at the time of impact: " + manifold);
+                }
+                ConvexPolygonCollisions.collideSAT(a, moved(b, toi.getNormalX(), toi.getNormalY(), 0.05f), manifold);
+                check(toi.getTime() == 0 || !manifold.isOverlap() || manifold.getDepth() < 1e-2f,
+                        "the normal of pair " + i + " doesn't separate the polygons: " + toi);
+            }
+        }
+        check(hits > 0, "sweepSAT never hits");
+
+        long before = allocatedBytes();
+        for ( int i = 0; i < NUM_PAIRS; i++ ) {
+            ConvexPolygonCollisions.sweepSAT(polygons.get(2 * i), 10, 0, polygons.get(2 * i + 1), -10, 5, toi);
+        }
+        long allocated = allocatedBytes() - before;
+        check(before < 0 || allocated == 0, "sweepSAT allocated " + allocated + " bytes");
+    }
+
+    /**
+     * This method checks that GJK and EPA agree with the SAT on random pairs:
+     * the same overlap verdict, the same penetration depth, and a distance
+     * not smaller than the gap along the separating axis. It also checks
+     * the warm starting over coherent frames and the strategy
+     */
+    private static void testGJK() {
+        ArrayList<Polygon> polygons = makeRandomPairs(16);
+        GJK gjk = new GJK(NUM_PAIRS);
+        ContactManifold sat = new ContactManifold();
+        ContactManifold epa = new ContactManifold();
+        for ( int i = 0; i < NUM_PAIRS; i++ ) {
+            Polygon r1 = polygons.get(2 * i);
+            Polygon r2 = polygons.get(2 * i + 1);
+            boolean overlap = ConvexPolygonCollisions.collideSAT(r1, r2, sat);
+            if ( Math.abs(sat.getDepth()) < 1e-3f ) {
+                continue;
+            }
+            check(gjk.shapeOverlap((SupportShape) r1, r2) == overlap, "GJK differs on pair " + i);
+            check(gjk.shapeOverlap(r1, r2) == overlap, "warm started GJK differs on pair " + i);
+            check(gjk.collide(r1, r2, epa) == overlap, "GJK collide differs on pair " + i);
+            if ( overlap ) {
+                check(Math.abs(epa.getDepth() - sat.getDepth()) < 1e-2f * Math.max(1, sat.getDepth()),
+                        "EPA depth differs on pair " + i + ": " + epa + " SAT: " + sat);
+                check(epa.getNormalX() * sat.getNormalX() + epa.getNormalY() * sat.getNormalY() > 0.99f ||
+                                Math.abs(epa.getDepth() - sat.getDepth()) < 1e-2f,
+                        "EPA normal differs on pair " + i);
+                check(epa.getPointCount() > 0, "EPA has no contact points on pair " + i);
+            } else {
+                float distance = gjk.distance((SupportShape) r1, r2);
+                check(distance >= -sat.getDepth() - 1e-2f, "GJK distance " + distance + " is smaller than the gap " + -sat.getDepth() + " on pair " + i);
+                check(Math.abs(gjk.distance(r1, r2) - distance) < 1e-2f, "warm started GJK distance differs on pair " + i);
+            }
+        }
+        // The simplices were stored before the first frame, they must be removed like the others
+        int stored = gjk.size();
+        gjk.beginFrame();
+        check(stored > 0 && gjk.endFrame() == stored && gjk.size() == 0, "GJK kept the simplices stored before the first frame");
+
+        ArrayList<Polygon> scene = makeDenseScene(16, 2000);
+        for ( Polygon polygon : scene ) {
+            Polygon circle = PolygonFactory.makeRegularPolygon(32, new Vec2df(polygon.getPosition()), 6, polygon.getAngle());
+            circle.update();
+            polygon.setO(circle.getO());
+            polygon.setP(circle.getP());
+            polygon.update();
+        }
+        SweepAndPrune broadPhase = new SweepAndPrune();
+        PairList candidates = new PairList();
+        NarrowPhaseStrategy strategy = new NarrowPhaseStrategy(NarrowPhaseStrategy.Mode.GJK, 0);
+        Random rnd = new Random(16);
+        long coldIterations = 0;
+        for ( int frame = 0; frame < 10; frame++ ) {
+            for ( Polygon polygon : scene ) {
+                polygon.getPosition().addToX(rnd.nextFloat() * 0.2f - 0.1f);
+                polygon.setAngle(polygon.getAngle() + 0.005f);
+                polygon.update();
+            }
+            broadPhase.findPairs(scene, candidates);
+            strategy.beginFrame();
+            strategy.getGJK().resetMetrics();
+            for ( int i = 0; i < candidates.size(); i++ ) {
+                Polygon r1 = scene.get(candidates.getFirst(i));
+                Polygon r2 = scene.get(candidates.getSecond(i));
+                boolean overlap = strategy.shapeOverlap(r1, r2);
+                if ( Math.abs(ConvexPolygonCollisions.shapeOverlapDepthSAT(r1, r2)) > 1e-3f ) {
+                    check(overlap == ConvexPolygonCollisions.shapeOverlapSATCached(r1, r2), "GJK differs on frame " + frame + " pair " + i);
+                }
+            }
+            strategy.endFrame();
+            if ( frame == 0 ) {
+                coldIterations = strategy.getGJK().getIterations();
+            }
+        }
+        check(strategy.getGJK().getWarmStarts() > 0 && strategy.getGJK().getIterations() < coldIterations,
+                "warm starting doesn't save iterations: " + strategy.getGJK().getIterations() + " against " + coldIterations);
+
+        long before = allocatedBytes();
+        for ( int i = 0; i < candidates.size(); i++ ) {
+            strategy.shapeOverlap(scene.get(candidates.getFirst(i)), scene.get(candidates.getSecond(i)));
+        }
+        long allocated = allocatedBytes() - before;
+        check(before < 0 || allocated == 0, "GJK allocated " + allocated + " bytes");
+
+        NarrowPhaseStrategy auto = new NarrowPhaseStrategy();
+        for ( int i = 0; i < NUM_PAIRS; i++ ) {
+            Polygon r1 = polygons.get(2 * i);
+            Polygon r2 = polygons.get(2 * i + 1);
+            if ( Math.abs(ConvexPolygonCollisions.shapeOverlapDepthSAT(r1, r2)) > 1e-3f ) {
+                check(auto.shapeOverlap(r1, r2) == ConvexPolygonCollisions.shapeOverlapSAT(r1, r2), "the strategy differs on pair " + i);
+            }
+        }
+        check(auto.getSatPairs() > 0 && auto.getGjkPairs() > 0, "the strategy doesn't use both algorithms");
+    }
+
+    /**
+     * This method checks the headless world: the fixed timestep,
+     * the movement of the bodies and the contacts of each mode
+     */
+    private static void testCollisionWorld() {
+        CollisionWorld world = new CollisionWorld(new SweepAndPrune(), 0.01f);
+        int body = world.addBody(PolygonFactory.makeQuad(new Vec2df(0, 0), 10, 0), 100, 0, 0);
+        check(world.advance(0.035f) == 3 && world.getStepCount() == 3, "the world didn't run 3 steps in 0.035 seconds");
+        check(world.advance(0.005f) == 1, "the world didn't keep the time left");
+        check(Math.abs(world.getBody(body).getPosition().getX() - 4) < 1e-4f, "the body moved to " + world.getBody(body).getPosition());
+        world.setMaxSteps(5);
+        check(world.advance(10) == 5 && world.advance(0) == 1, "the world didn't limit the steps of a slow frame");
+
+        ArrayList<Polygon> scene = makeDenseScene(17, 1000);
+        for ( CollisionWorld.Mode mode : CollisionWorld.Mode.values() ) {
+            if ( mode == CollisionWorld.Mode.SOLVER ) {
+                continue;
+            }
+            world = new CollisionWorld(new SweepAndPrune(), 0.01f);
+            world.setMode(mode);
+            for ( Polygon polygon : scene ) {
+                world.addBody(new Polygon(polygon));
+            }
+            world.step();
+            // The static DIAGS reads the positions moved by the previous pairs, so the copies are resolved too
+            ArrayList<Polygon> copies = new ArrayList<>();
+            for ( Polygon polygon : scene ) {
+                copies.add(new Polygon(polygon));
+            }
+            int expected = 0;
+            PairList pairs = world.getPairs();
+            for ( int i = 0; i < pairs.size(); i++ ) {
+                Polygon r1 = copies.get(pairs.getFirst(i));
+                Polygon r2 = copies.get(pairs.getSecond(i));
+                boolean overlap = mode == CollisionWorld.Mode.DIAGS || mode == CollisionWorld.Mode.DIAGS_STATIC ?
+                        ConvexPolygonCollisions.shapeOverlapDIAGS(r1, r2) : ConvexPolygonCollisions.shapeOverlapSAT(r1, r2);
+                if ( overlap ) {
+                    expected++;
+                    if ( mode == CollisionWorld.Mode.SAT_STATIC ) {
+                        ConvexPolygonCollisions.shapeOverlapStaticSAT(r1, r2);
+                    } else if ( mode == CollisionWorld.Mode.DIAGS_STATIC ) {
+                        ConvexPolygonCollisions.shapeOverlapStaticDIAGS(r1, r2);
+                    }
+                }
+            }
+            check(world.getContacts() == expected && world.getContactPairs().size() == expected,
+                    mode + " found " + world.getContacts() + " contacts, expected " + expected);
+            if ( mode == CollisionWorld.Mode.SAT_STATIC || mode == CollisionWorld.Mode.DIAGS_STATIC ) {
+                // The static methods move the bodies apart
+                world.step();
+                int left = 0;
+                for ( int i = 0; i < pairs.size(); i++ ) {
+                    if ( ConvexPolygonCollisions.shapeOverlapSAT(world.getBody(pairs.getFirst(i)), world.getBody(pairs.getSecond(i))) ) {
+                        left++;
+                    }
+                }
+                check(left < expected, mode + " left " + left + " of " + expected + " overlapping pairs");
+            }
+        }
+    }
+
+    /**
+     * This method counts the pairs which overlap more than a depth
+     * @param polygons the polygons
+     * @param pairs the candidate pairs
+     * @param depth the minimum depth
+     * @return the number of pairs
+     */
+    private static int countOverlaps(ArrayList<Polygon> polygons, PairList pairs, float depth) {
+        int count = 0;
+        for ( int i = 0; i < pairs.size(); i++ ) {
+            if ( ConvexPolygonCollisions.shapeOverlapDepthSAT(polygons.get(pairs.getFirst(i)), polygons.get(pairs.getSecond(i))) > depth ) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * This method checks the static solver: it splits the corrections by the
+     * inverse masses, it doesn't depend on the order of the pairs, it stops
+     * early when there are no overlaps, and it leaves a dense pile with
+     * less overlaps than one pass of the static SAT in the order of the pairs
+     */
+    private static void testStaticSolver() {
+        ArrayList<Polygon> two = new ArrayList<>();
+        two.add(PolygonFactory.makeQuad(new Vec2df(0, 0), 10, 0));
+        two.add(PolygonFactory.makeQuad(new Vec2df(12, 0), 10, 0));
+        Polygon.updateAll(two);
+        PairList pair = new PairList();
+        pair.add(0, 1);
+        StaticSolver solver = new StaticSolver(10, 1e-3f);
+        check(solver.solve(two, pair, new float[] {1, 3}) == 1, "the solver didn't find the contact");
+        float moved0 = -two.get(0).getPosition().getX();
+        float moved1 = two.get(1).getPosition().getX() - 12;
+        check(moved0 > 0 && Math.abs(moved1 - 3 * moved0) < 1e-3f, "the corrections are not split by mass: " + moved0 + " " + moved1);
+        check(!ConvexPolygonCollisions.shapeOverlapSAT(two.get(0), two.get(1)) || ConvexPolygonCollisions.shapeOverlapDepthSAT(two.get(0), two.get(1)) < 1e-3f,
+                "the solver didn't separate the pair");
+        check(solver.solve(two, pair, new float[] {1, 3}) == 0 || solver.getLastIterations() == 1, "the solver didn't stop early");
+
+        ArrayList<Polygon> scene = makeDenseScene(18, 2000);
+        PairList pairs = new PairList();
+        new SweepAndPrune().findPairs(scene, pairs);
+        pairs.sort();
+        PairList reversed = new PairList();
+        for ( int i = pairs.size() - 1; i >= 0; i-- ) {
+            reversed.add(pairs.getSecond(i), pairs.getFirst(i));
+        }
+        float[] inverseMass = new float[scene.size()];
+        Arrays.fill(inverseMass, 1);
+        inverseMass[0] = 0;
+        int before = countOverlaps(scene, pairs, 0.05f);
+
+        ArrayList<Polygon> sequential = new ArrayList<>();
+        ArrayList<Polygon> solved = new ArrayList<>();
+        ArrayList<Polygon> solvedReversed = new ArrayList<>();
+        for ( Polygon polygon : scene ) {
+            sequential.add(new Polygon(polygon));
+            solved.add(new Polygon(polygon));
+            solvedReversed.add(new Polygon(polygon));
+        }
+        Polygon.updateAll(solved);
+        Polygon.updateAll(solvedReversed);
+        for ( int i = 0; i < pairs.size(); i++ ) {
+            ConvexPolygonCollisions.shapeOverlapStaticSAT(sequential.get(pairs.getFirst(i)), sequential.get(pairs.getSecond(i)));
+        }
+        Polygon.updateAll(sequential);
+
+        solver = new StaticSolver(30, 0.05f);
+        solver.solve(solved, pairs, inverseMass);
+        new StaticSolver(30, 0.05f).solve(solvedReversed, reversed, inverseMass);
+        int afterSequential = countOverlaps(sequential, pairs, 0.05f);
+        int afterSolver = countOverlaps(solved, pairs, 0.05f);
+        check(afterSolver < afterSequential && afterSolver < before / 4,
+                "the solver left " + afterSolver + " of " + before + " overlaps, the sequential pass " + afterSequential);
+        check(solved.get(0).getPosition().getX() == scene.get(0).getPosition().getX() &&
+                solved.get(0).getPosition().getY() == scene.get(0).getPosition().getY(), "the solver moved a body with an inverse mass of 0");
+        float maxDifference = 0;
+        for ( int i = 0; i < scene.size(); i++ ) {
+            maxDifference = Math.max(maxDifference, Math.abs(solved.get(i).getPosition().getX() - solvedReversed.get(i).getPosition().getX()));
+            maxDifference = Math.max(maxDifference, Math.abs(solved.get(i).getPosition().getY() - solvedReversed.get(i).getPosition().getY()));
+        }
+        check(maxDifference < 1e-2f, "the solver depends on the order of the pairs, difference " + maxDifference);
+    }
+
+    /**
+     * This method checks the metrics: the values of each tick reach the
+     * listener, the batches of the parallel narrow-phase add their counts
+     * without losing any, and the disabled instance does nothing
+     */
+    private static void testCollisionMetrics() {
+        ArrayList<Polygon> random = makeRandomPairs(21);
+        SATResult result = new SATResult();
+        for ( int i = 0; i < NUM_PAIRS; i++ ) {
+            Polygon r1 = random.get(2 * i);
+            Polygon r2 = random.get(2 * i + 1);
+            boolean overlap = ConvexPolygonCollisions.shapeOverlapDepthSAT(r1, r2, result);
+            int axisCount = r1.getP().length + r2.getP().length;
+            check(overlap == ConvexPolygonCollisions.shapeOverlapSAT(r1, r2) && result.isOverlap() == overlap &&
+                    result.getDepth() == ConvexPolygonCollisions.shapeOverlapDepthSAT(r1, r2) &&
+                    result.getAxisCount() == axisCount && result.getAxesProjected() >= 1 && result.getAxesProjected() <= axisCount &&
+                    (!overlap || result.getAxesProjected() == axisCount), "SATResult is wrong on pair " + i);
+        }
+
+        CollisionWorld world = new CollisionWorld(new SweepAndPrune(), 0.01f);
+        for ( Polygon polygon : makeDenseScene(19, 1000) ) {
+            world.addBody(polygon, 1, 0, 0.1f);
+        }
+        CollisionMetrics metrics = new CollisionMetrics();
+        world.setMetrics(metrics);
+        long[] ticks = new long[1];
+        long[] pairsTested = new long[1];
+        long[] overlaps = new long[1];
+        long[] transformNanos = new long[1];
+        long[] axesProjected = new long[1];
+        metrics.addListener((tick, phaseNanos, counters) -> {
+            ticks[0]++;
+            pairsTested[0] += counters[CollisionMetrics.Counter.PAIRS_TESTED.ordinal()];
+            axesProjected[0] += counters[CollisionMetrics.Counter.AXES_PROJECTED.ordinal()];
+            overlaps[0] += counters[CollisionMetrics.Counter.OVERLAPS.ordinal()];
+            transformNanos[0] += phaseNanos[CollisionMetrics.Phase.TRANSFORM.ordinal()];
+        });
+        long expectedPairs = 0;
+        long expectedOverlaps = 0;
+        for ( int i = 0; i < 5; i++ ) {
+            world.step();
+            expectedPairs += world.getPairs().size();
+            expectedOverlaps += world.getContacts();
+        }
+        check(ticks[0] == 5 && metrics.getTick() == 5, "the listener received " + ticks[0] + " ticks");
+        check(pairsTested[0] == expectedPairs && metrics.getTotal(CollisionMetrics.Counter.PAIRS_TESTED) == expectedPairs,
+                "the metrics counted " + pairsTested[0] + " pairs, expected " + expectedPairs);
+        check(overlaps[0] == expectedOverlaps, "the metrics counted " + overlaps[0] + " overlaps, expected " + expectedOverlaps);
+        long earlyExits = metrics.getTotal(CollisionMetrics.Counter.EARLY_EXITS);
+        check(axesProjected[0] >= expectedPairs && axesProjected[0] == metrics.getTotal(CollisionMetrics.Counter.AXES_PROJECTED) &&
+                earlyExits > 0 && earlyExits <= expectedPairs - expectedOverlaps,
+                "the SAT of the world counted " + axesProjected[0] + " axes and " + earlyExits + " early exits");
+        check(transformNanos[0] > 0 && metrics.getTotalNanos(CollisionMetrics.Phase.BROAD_PHASE) > 0 &&
+                metrics.getTotalNanos(CollisionMetrics.Phase.NARROW_PHASE) > 0, "the metrics didn't time the phases: " + metrics);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ParallelNarrowPhase parallel = new ParallelNarrowPhase(pool, 16);
+        CollisionMetrics parallelMetrics = new CollisionMetrics();
+        parallel.setMetrics(parallelMetrics);
+        PairList out = new PairList();
+        parallel.detect(world.getBodies(), world.getPairs(), out);
+        parallelMetrics.endTick();
+        check(parallelMetrics.getLast(CollisionMetrics.Counter.PAIRS_TESTED) == world.getPairs().size() &&
+                parallelMetrics.getLast(CollisionMetrics.Counter.OVERLAPS) == out.size(), "the parallel narrow-phase lost counts: " + parallelMetrics);
+        long detectAxes = parallelMetrics.getLast(CollisionMetrics.Counter.AXES_PROJECTED);
+        long detectExits = parallelMetrics.getLast(CollisionMetrics.Counter.EARLY_EXITS);
+        check(detectAxes >= world.getPairs().size() && detectExits > 0 && detectExits <= world.getPairs().size() - out.size(),
+                "the parallel detection counted " + detectAxes + " axes and " + detectExits + " early exits");
+
+        ArrayList<Polygon> counted = new ArrayList<>();
+        ArrayList<Polygon> uncounted = new ArrayList<>();
+        for ( Polygon polygon : world.getBodies() ) {
+            counted.add(new Polygon(polygon));
+            uncounted.add(new Polygon(polygon));
+        }
+        Polygon.updateAll(counted);
+        Polygon.updateAll(uncounted);
+        int countedContacts = parallel.resolveStatic(counted, world.getPairs());
+        parallelMetrics.endTick();
+        parallel.setMetrics(CollisionMetrics.DISABLED);
+        int uncountedContacts = parallel.resolveStatic(uncounted, world.getPairs());
+        pool.shutdown();
+        boolean samePositions = true;
+        for ( int i = 0; i < counted.size(); i++ ) {
+            samePositions &= counted.get(i).getPosition().getX() == uncounted.get(i).getPosition().getX() &&
+                    counted.get(i).getPosition().getY() == uncounted.get(i).getPosition().getY();
+        }
+        check(countedContacts == uncountedContacts && countedContacts == out.size() && samePositions,
+                "counting the axes changed the static resolution: " + countedContacts + " contacts, " + uncountedContacts + " without metrics");
+        check(parallelMetrics.getLast(CollisionMetrics.Counter.AXES_PROJECTED) == detectAxes &&
+                parallelMetrics.getLast(CollisionMetrics.Counter.EARLY_EXITS) == detectExits,
+                "the parallel static resolution counted other axes than the detection: " + parallelMetrics);
+
+        EarlyOutFilter filter = new EarlyOutFilter();
+        filter.setMetrics(parallelMetrics);
+        ArrayList<Polygon> polygons = makeRandomPairs(19);
+        for ( int i = 0; i < NUM_PAIRS; i++ ) {
+            filter.mayOverlap(polygons.get(2 * i), polygons.get(2 * i + 1));
+        }
+        parallelMetrics.endTick();
+        check(parallelMetrics.getLast(CollisionMetrics.Counter.EARLY_EXITS) == filter.getCircleRejects() + filter.getBoundsRejects(),
+                "the early exits of the filter are not in the metrics");
+
+        CollisionMetrics disabled = CollisionMetrics.DISABLED;
+        disabled.addListener((tick, phaseNanos, counters) -> check(false, "the disabled metrics called a listener"));
+        long before = allocatedBytes();
+        for ( int i = 0; i < 1000; i++ ) {
+            long start = disabled.start();
+            disabled.increment(CollisionMetrics.Counter.PAIRS_TESTED);
+            disabled.stop(CollisionMetrics.Phase.NARROW_PHASE, start);
+            disabled.endTick();
+        }
+        long allocated = allocatedBytes() - before;
+        check(disabled.getTick() == 0 && disabled.getTotal(CollisionMetrics.Counter.PAIRS_TESTED) == 0, "the disabled metrics counted");
+        check(before < 0 || allocated == 0, "the disabled metrics allocated " + allocated + " bytes");
+    }
+
+    /**
+     * This method checks that a scene saved as a snapshot
+     * is loaded with the same values, and that a broken file is refused
+     */
+    private static void testSceneSnapshot() {
+        PolygonBuffer buffer = new PolygonBuffer();
+        for ( Polygon polygon : makeRandomPairs(20) ) {
+            buffer.add(polygon);
+        }
+        buffer.transformAll();
+
+        Path file = null;
+        try {
+            file = Files.createTempFile("scene", ".snapshot");
+            SceneSnapshot.write(file, buffer, 1234);
+            check(Files.size(file) == SceneSnapshot.fileSize(buffer.size(), buffer.getVertexSize()),
+                    "the snapshot has " + Files.size(file) + " bytes");
+
+            PolygonBuffer loaded = new PolygonBuffer();
+            loaded.add(0, 0, 0, 3);
+            long step = SceneSnapshot.read(file, loaded);
+            check(step == 1234, "the snapshot restored the step " + step);
+            check(loaded.size() == buffer.size() && loaded.getVertexSize() == buffer.getVertexSize(),
+                    "the snapshot restored " + loaded.size() + " bodies");
+            for ( int body = 0; body < buffer.size(); body++ ) {
+                check(loaded.getPositionX(body) == buffer.getPositionX(body) && loaded.getPositionY(body) == buffer.getPositionY(body) &&
+                                loaded.getAngle(body) == buffer.getAngle(body) && loaded.getVertexStart(body) == buffer.getVertexStart(body) &&
+                                loaded.getVertexCount(body) == buffer.getVertexCount(body),
+                        "the snapshot differs on body " + body);
+            }
+            int n = buffer.getVertexSize();
+            check(Arrays.equals(Arrays.copyOf(loaded.getModelX(), n), Arrays.copyOf(buffer.getModelX(), n)) &&
+                            Arrays.equals(Arrays.copyOf(loaded.getModelY(), n), Arrays.copyOf(buffer.getModelY(), n)),
+                    "the snapshot differs on the model vertices");
+            check(Arrays.equals(Arrays.copyOf(loaded.getWorldX(), n), Arrays.copyOf(buffer.getWorldX(), n)) &&
+                            Arrays.equals(Arrays.copyOf(loaded.getWorldY(), n), Arrays.copyOf(buffer.getWorldY(), n)),
+                    "the snapshot was not transformed on load");
+
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+            check(throwsIOException(file), "a truncated snapshot was loaded");
+
+            // The first body takes all the vertices, and the second one claims 7 more
+            PolygonBuffer pair = new PolygonBuffer();
+            pair.add(0, 0, 0, 3);
+            pair.add(10, 0, 0, 3);
+            SceneSnapshot.write(file, pair);
+            ByteBuffer patched = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+            int counts = SceneSnapshot.HEADER_BYTES + 3 * 2 * Float.BYTES;
+            patched.putInt(counts, 6);
+            patched.putInt(counts + Integer.BYTES, 7);
+            Files.write(file, patched.array());
+            check(throwsIOException(file), "a snapshot with inconsistent vertex counts was loaded");
+            try {
+                SceneSnapshot.read(file, loaded);
+                check(false, "a snapshot with inconsistent vertex counts was loaded over a buffer");
+            } catch ( IOException e ) {
+                check(loaded.size() == buffer.size() && loaded.getVertexSize() == buffer.getVertexSize(),
+                        "a snapshot which failed to load wiped the buffer, it has " + loaded.size() + " bodies");
+            }
+            patched.putInt(counts + Integer.BYTES, -1);
+            Files.write(file, patched.array());
+            check(throwsIOException(file), "a snapshot with a negative vertex count was loaded");
+            bytes[0] = 0;
+            Files.write(file, bytes);
+            check(throwsIOException(file), "a snapshot with a wrong magic was loaded");
+
+            try {
+                pair.add(0, 0, 0, new float[] {0, 1, 0}, new float[] {0, 0});
+                check(false, "PolygonBuffer added a model with more x than y coordinates");
+            } catch ( IllegalArgumentException e ) {
+                check(pair.size() == 2, "PolygonBuffer kept part of a wrong model");
+            }
+        } catch ( IOException e ) {
+            check(false, "the snapshot failed: " + e);
+        } finally {
+            if ( file != null ) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch ( IOException ignored ) {
+                    // The temporary file is left behind
+                }
+            }
+        }
+    }
+
+    /**
+     * This method checks if loading a snapshot fails
+     * @param file the snapshot
+     * @return if the load threw an IOException
+     */
+    private static boolean throwsIOException(Path file) {
+        try {
+            SceneSnapshot.read(file);
+            return false;
+        } catch ( IOException e ) {
+            return true;
+        }
+    }
+
+    /**
+     * This method checks that the early out stage never rejects
+     * a pair which the SAT finds overlapping, and that it can be disabled
+     */
+    private static void testEarlyOutFilter() {
+        ArrayList<Polygon> polygons = makeRandomPairs(14);
+        EarlyOutFilter filter = new EarlyOutFilter();
+        for ( int i = 0; i < NUM_PAIRS; i++ ) {
+            Polygon r1 = polygons.get(2 * i);
+            Polygon r2 = polygons.get(2 * i + 1);
+            float radius = 0;
+            for ( Vec2df point : r1.getP() ) {
+                float dx = point.getX() - r1.getPosition().getX();
+                float dy = point.getY() - r1.getPosition().getY();
+                radius = Math.max(radius, (float)Math.sqrt(dx * dx + dy * dy));
+            }
+            check(radius <= r1.getBoundingRadius() * 1.0001f, "the bounding circle doesn't contain the points of pair " + i);
+            if ( Math.abs(ConvexPolygonCollisions.shapeOverlapDepthSAT(r1, r2)) > 1e-3f ) {
+                check(filter.shapeOverlapSAT(r1, r2) == ConvexPolygonCollisions.shapeOverlapSAT(r1, r2),
+                        "EarlyOutFilter differs on pair " + i);
+            }
+        }
+        check(filter.getCircleRejects() > 0 && filter.getBoundsRejects() > 0,
+                "EarlyOutFilter rejected " + filter.getCircleRejects() + " pairs by circles and " + filter.getBoundsRejects() + " by bounds");
+
+        filter.resetMetrics();
+        filter.setEnabled(false);
+        for ( int i = 0; i < NUM_PAIRS; i++ ) {
+            check(filter.mayOverlap(polygons.get(2 * i), polygons.get(2 * i + 1)), "the disabled EarlyOutFilter rejected pair " + i);
+        }
+        check(filter.getTests() == 0, "the disabled EarlyOutFilter counted tests");
+    }
+
+    /**
+     * This method checks the slots of the pairs: the slots which are
+     * not used in a frame are freed and used again, and the number
+     * of slots never exceeds the budget
+     */
+    private static void testPairSlotPool() {
+        PairSlotPool pool = new PairSlotPool(4);
+        pool.beginFrame();
+        for ( int key = 0; key < 6; key++ ) {
+            if ( pool.find(key) == PairSlotPool.NO_SLOT ) {
+                pool.acquire(key);
+            }
+        }
+        check(pool.size() == 4 && pool.find(4) == PairSlotPool.NO_SLOT, "PairSlotPool exceeded its budget");
+        check(pool.endFrame() == 0, "PairSlotPool freed the slots used in the frame");
+
+        pool.beginFrame();
+        int slot = pool.find(1);
+        pool.find(3);
+        check(pool.endFrame() == 2 && pool.size() == 2 && pool.find(1) == slot && pool.find(0) == PairSlotPool.NO_SLOT,
+                "PairSlotPool didn't free the slots which were not used");
+        int reused = pool.acquire(7);
+        check(reused != PairSlotPool.NO_SLOT && pool.find(7) == reused && pool.size() == 3, "PairSlotPool didn't use a freed slot again");
+
+        pool.clear();
+        check(pool.size() == 0 && pool.find(1) == PairSlotPool.NO_SLOT, "PairSlotPool kept slots after clear");
+    }
+
+    /**
+     * This method checks that the separating axis cache gives the same
+     * results as the SAT over several frames where the polygons move
+     * a little, that the cached axes are usually still separating,
+     * that the pairs which leave the broad-phase are removed,
+     * and that the cache doesn't make allocations
+     */
+    private static void testSeparatingAxisCache() {
+        ArrayList<Polygon> polygons = makeDenseScene(13, 2000);
+        SweepAndPrune broadPhase = new SweepAndPrune();
+        PairList candidates = new PairList();
+        SeparatingAxisCache cache = new SeparatingAxisCache(1 << 16);
+        Random rnd = new Random(13);
+        for ( int frame = 0; frame < 20; frame++ ) {
+            for ( Polygon polygon : polygons ) {
+                polygon.getPosition().addToX(rnd.nextFloat() * 0.4f - 0.2f);
+                polygon.getPosition().addToY(rnd.nextFloat() * 0.4f - 0.2f);
+                polygon.setAngle(polygon.getAngle() + rnd.nextFloat() * 0.02f - 0.01f);
+                polygon.update();
+            }
+            broadPhase.findPairs(polygons, candidates);
+            cache.beginFrame();
+            for ( int i = 0; i < candidates.size(); i++ ) {
+                Polygon r1 = polygons.get(candidates.getFirst(i));
+                Polygon r2 = polygons.get(candidates.getSecond(i));
+                // The pair is tested in both orders in the odd frames, the results must not depend on it
+                boolean cached = frame % 2 == 0 ? cache.shapeOverlapSAT(r1, r2) : cache.shapeOverlapSAT(r2, r1);
+                if ( Math.abs(ConvexPolygonCollisions.shapeOverlapDepthSAT(r1, r2)) > 1e-3f ) {
+                    check(cached == ConvexPolygonCollisions.shapeOverlapSATCached(r1, r2),
+                            "SeparatingAxisCache differs on frame " + frame + " pair " + i);
+                }
+            }
+            check(cache.endFrame() == 0 || frame > 0, "SeparatingAxisCache removed entries on the first frame");
+            check(cache.size() == candidates.size(), "SeparatingAxisCache has " + cache.size() + " entries for " + candidates.size() + " pairs");
+        }
+        check(cache.getHitRate() > 0.9, "SeparatingAxisCache hit rate is " + cache.getHitRate());
+        check(cache.getOverflows() == 0, "SeparatingAxisCache overflowed");
+
+        cache.beginFrame();
+        cache.shapeOverlapSAT(polygons.get(candidates.getFirst(0)), polygons.get(candidates.getSecond(0)));
+        check(cache.endFrame() == candidates.size() - 1 && cache.size() == 1, "SeparatingAxisCache didn't remove the old pairs");
+
+        SeparatingAxisCache small = new SeparatingAxisCache(10);
+        small.beginFrame();
+        for ( int i = 0; i < candidates.size(); i++ ) {
+            small.shapeOverlapSAT(polygons.get(candidates.getFirst(i)), polygons.get(candidates.getSecond(i)));
+        }
+        check(small.size() == 10 && small.getOverflows() == candidates.size() - 10, "SeparatingAxisCache exceeded its budget");
+
+        // Only the polygons tested by a cache take an id, so the ids can't run out
+        Polygon fresh = new Polygon(polygons.get(0));
+        for ( int i = 0; i < 1000; i++ ) {
+            ConvexPolygonCollisions.shapeOverlapSAT(polygons.get(0), polygons.get(1));
+            ConvexPolygonCollisions.shapeOverlapStaticSAT(new Polygon(polygons.get(1)), polygons.get(2));
+        }
+        int id = fresh.getId();
+        check(new Polygon(fresh).getId() == id + 1 && fresh.getId() == id, "the polygons which are not cached take ids");
+
+        SeparatingAxisCache early = new SeparatingAxisCache(10);
+        early.shapeOverlapSAT(polygons.get(candidates.getFirst(0)), polygons.get(candidates.getSecond(0)));
+        early.beginFrame();
+        check(early.endFrame() == 1 && early.size() == 0, "SeparatingAxisCache kept an entry stored before the first frame");
+
+        cache.beginFrame();
+        for ( int i = 0; i < candidates.size(); i++ ) {
+            cache.shapeOverlapSAT(polygons.get(candidates.getFirst(i)), polygons.get(candidates.getSecond(i)));
+        }
+        cache.endFrame();
+        long before = allocatedBytes();
+        for ( int frame = 0; frame < 5; frame++ ) {
+            cache.beginFrame();
+            for ( int i = 0; i < candidates.size(); i++ ) {
+                cache.shapeOverlapSAT(polygons.get(candidates.getFirst(i)), polygons.get(candidates.getSecond(i)));
+            }
+            cache.endFrame();
+        }
+        long allocated = allocatedBytes() - before;
+        check(before < 0 || allocated == 0, "SeparatingAxisCache allocated " + allocated + " bytes");
+    }
+
+    /**
+     * This method checks that the SIMD projection kernel gives the
+     * same bits as the scalar one, for all the vertex counts and
+     * random axes, and that the SAT over the buffer agrees with both
+     */
+    private static void testVectorKernel() {
+        if ( !ProjectionKernels.isVectorAvailable() ) {
+            System.out.println("SKIP: the Vector API is not available, compile src/vector/java and run with --add-modules jdk.incubator.vector");
+            return;
+        }
+        ProjectionKernel scalar = ProjectionKernels.scalar();
+        ProjectionKernel vector = ProjectionKernels.vector();
+        Random rnd = new Random(12);
+        PolygonBuffer buffer = new PolygonBuffer();
+        for ( int n = 3; n <= 64; n++ ) {
+            for ( int k = 0; k < 20; k++ ) {
+                buffer.add(PolygonFactory.makeRegularPolygon(n,
+                        new Vec2df(rnd.nextFloat() * 400 - 200, rnd.nextFloat() * 400 - 200), 10 + rnd.nextFloat() * 100, rnd.nextFloat() * 6));
+            }
+        }
+        buffer.transformAll();
+
+        for ( int i = 0; i < 200000; i++ ) {
+            int body1 = rnd.nextInt(buffer.size());
+            int body2 = rnd.nextInt(buffer.size());
+            double theta = rnd.nextDouble() * Math.PI * 2;
+            float axisX = (float)Math.cos(theta);
+            float axisY = (float)Math.sin(theta);
+            float expected = scalar.axisOverlap(buffer.getWorldX(), buffer.getWorldY(), buffer.getVertexStart(body1), buffer.getVertexCount(body1),
+                    buffer.getVertexStart(body2), buffer.getVertexCount(body2), axisX, axisY);
+            float actual = vector.axisOverlap(buffer.getWorldX(), buffer.getWorldY(), buffer.getVertexStart(body1), buffer.getVertexCount(body1),
+                    buffer.getVertexStart(body2), buffer.getVertexCount(body2), axisX, axisY);
+            check(Float.floatToRawIntBits(expected) == Float.floatToRawIntBits(actual),
+                    "VectorProjectionKernel gives " + actual + " instead of " + expected + " for bodies " + body1 + ", " + body2);
+            if ( i % 10 == 0 ) {
+                check(buffer.shapeOverlapSAT(body1, body2, scalar) == buffer.shapeOverlapSAT(body1, body2, vector),
+                        "the SAT with VectorProjectionKernel differs for bodies " + body1 + ", " + body2);
+            }
+        }
+    }
+
+    /**
+     * This method checks that the SAT without allocations
+     * allocates zero bytes once the JIT has warmed up
+     */
+    private static void testNoAllocAllocations() {
+        ArrayList<Polygon> polygons = makeRandomPairs(2);
+        Polygon[] array = polygons.toArray(new Polygon[0]);
+        int overlaps = 0;
+        for ( int warmup = 0; warmup < 20; warmup++ ) {
+            overlaps += countOverlaps(array);
+        }
+        for ( int warmup = 0; warmup < 20; warmup++ ) {
+            allocatedBytes();
+        }
+        long before = allocatedBytes();
+        if ( before < 0 ) {
+            System.out.println("SKIP: the JVM can't measure thread allocations");
+            return;
+        }
+        overlaps += countOverlaps(array);
+        long allocated = allocatedBytes() - before;
+        check(allocated == 0, "shapeOverlapSATNoAlloc allocated " + allocated + " bytes (" + overlaps + " overlaps)");
+    }
+
+    /**
+     * This method runs the SAT without allocations over all the pairs
+     * @param array the polygons, where 2 * i and 2 * i + 1 are a pair
+     * @return the number of overlapping pairs
+     */
+    private static int countOverlaps(Polygon[] array) {
+        int overlaps = 0;
+        for ( int i = 0; i < NUM_PAIRS; i++ ) {
+            if ( ConvexPolygonCollisions.shapeOverlapSATNoAlloc(array[2 * i], array[2 * i + 1]) ) {
+                overlaps++;
+            }
+        }
+        return overlaps;
+    }
+
+    public static void main(String[] args) {
+        testNoAllocAgreement();
+        testNoAllocAllocations();
+        testPolygonBufferAgreement();
+        testBroadPhase(new SweepAndPrune(), "SweepAndPrune");
+        testLongIntHashMap();
+        testBroadPhase(new SpatialHashGrid(40), "SpatialHashGrid");
+        testBroadPhase(new DynamicAABBTree(), "DynamicAABBTree");
+        testDynamicAABBTreeQueries();
+        testParallelQueries();
+        testParallelNarrowPhase();
+        testContactManifold();
+        testDiagonals();
+        testDirtyUpdate();
+        testCachedNormals();
+        testVectorKernel();
+        testPairSlotPool();
+        testSeparatingAxisCache();
+        testEarlyOutFilter();
+        testSweepSAT();
+        testGJK();
+        testCollisionWorld();
+        testStaticSolver();
+        testCollisionMetrics();
+        testSceneSnapshot();
+        testPolygonPool();
+        testDeterminism();
+        testShardedWorld();
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+        if ( failures > 0 ) {
+            System.exit(1);
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
-import convexPolygonCollisions.ConvexPolygonCollisions;
+import convexPolygonCollisions.CollisionWorld;
 import convexPolygonCollisions.Polygon;
 import convexPolygonCollisions.PolygonFactory;
+import convexPolygonCollisions.render.PolygonRenderer;
 import engine.AbstractGame;
 import engine.GameContainer;
 import engine.gfx.HexColors;
@@ -8,7 +9,6 @@ import engine.gfx.Renderer;
 import engine.vectors.points2d.Vec2df;
 
 import java.awt.event.KeyEvent;
-import java.util.ArrayList;
 
 /**
  * This class is made to test the working of the
@@ -22,15 +22,15 @@ import java.util.ArrayList;
 public class TestPolygons extends AbstractGame {
 
     /**
-     * The polygons
+     * The world which owns the polygons and
+     * manages the collisions between them
      */
-    private ArrayList<Polygon> polygons;
+    private CollisionWorld world;
 
     /**
-     * The mode of the program, which determines
-     * the collision algorithm
+     * The object which draws the polygons
      */
-    private int mode = 0;
+    private PolygonRenderer polygonRenderer;
 
     private TestPolygons(String title) {
         super(title);
@@ -38,11 +38,11 @@ public class TestPolygons extends AbstractGame {
 
     @Override
     public void initialize(GameContainer gameContainer) {
-        polygons = new ArrayList<>();
-        polygons.add(PolygonFactory.makeRegularPolygon(5, new Vec2df(100, 100), 30, 0));
-        polygons.add(PolygonFactory.makeTriangle(new Vec2df(200, 150), 20, 0));
-        polygons.add(PolygonFactory.makeQuad(new Vec2df(50, 200), 30, (float) Math.PI / 4));
-        updatePolygons();
+        world = new CollisionWorld();
+        polygonRenderer = new PolygonRenderer();
+        world.addBody(PolygonFactory.makeRegularPolygon(5, new Vec2df(100, 100), 30, 0));
+        world.addBody(PolygonFactory.makeTriangle(new Vec2df(200, 150), 20, 0));
+        world.addBody(PolygonFactory.makeQuad(new Vec2df(50, 200), 30, (float) Math.PI / 4));
     }
 
     /**
@@ -52,16 +52,19 @@ public class TestPolygons extends AbstractGame {
      */
     private void updateUserInputMode(GameContainer gc) {
         if ( gc.getInput().isKeyDown(KeyEvent.VK_F1) ) {
-            mode = 0;
+            world.setMode(CollisionWorld.Mode.SAT);
         }
         if ( gc.getInput().isKeyDown(KeyEvent.VK_F2) ) {
-            mode = 1;
+            world.setMode(CollisionWorld.Mode.SAT_STATIC);
         }
         if ( gc.getInput().isKeyDown(KeyEvent.VK_F3) ) {
-            mode = 2;
+            world.setMode(CollisionWorld.Mode.DIAGS);
         }
         if ( gc.getInput().isKeyDown(KeyEvent.VK_F4) ) {
-            mode = 3;
+            world.setMode(CollisionWorld.Mode.DIAGS_STATIC);
+        }
+        if ( gc.getInput().isKeyDown(KeyEvent.VK_F5) ) {
+            world.setMode(CollisionWorld.Mode.SOLVER);
         }
     }
 
@@ -71,19 +74,20 @@ public class TestPolygons extends AbstractGame {
      * @param elapsedTime the elapsed time between the frames
      */
     private void updateUserInputPentagon(GameContainer gc, float elapsedTime) {
+        Polygon pentagon = world.getBody(0);
         if ( gc.getInput().isKeyHeld(KeyEvent.VK_LEFT) ) {
-            polygons.get(0).setAngle(polygons.get(0).getAngle() - 2.0f * elapsedTime);
+            pentagon.setAngle(pentagon.getAngle() - 2.0f * elapsedTime);
         }
         if ( gc.getInput().isKeyHeld(KeyEvent.VK_RIGHT) ) {
-            polygons.get(0).setAngle(polygons.get(0).getAngle() + 2.0f * elapsedTime);
+            pentagon.setAngle(pentagon.getAngle() + 2.0f * elapsedTime);
         }
         if ( gc.getInput().isKeyHeld(KeyEvent.VK_UP) ) {
-            polygons.get(0).getPosition().addToX((float)Math.cos(polygons.get(0).getAngle()) * 60.0f * elapsedTime);
-            polygons.get(0).getPosition().addToY((float)Math.sin(polygons.get(0).getAngle()) * 60.0f * elapsedTime);
+            pentagon.getPosition().addToX((float)Math.cos(pentagon.getAngle()) * 60.0f * elapsedTime);
+            pentagon.getPosition().addToY((float)Math.sin(pentagon.getAngle()) * 60.0f * elapsedTime);
         }
         if ( gc.getInput().isKeyHeld(KeyEvent.VK_DOWN) ) {
-            polygons.get(0).getPosition().addToX(-(float)Math.cos(polygons.get(0).getAngle()) * 60.0f * elapsedTime);
-            polygons.get(0).getPosition().addToY(-(float)Math.sin(polygons.get(0).getAngle()) * 60.0f * elapsedTime);
+            pentagon.getPosition().addToX(-(float)Math.cos(pentagon.getAngle()) * 60.0f * elapsedTime);
+            pentagon.getPosition().addToY(-(float)Math.sin(pentagon.getAngle()) * 60.0f * elapsedTime);
         }
     }
 
@@ -93,19 +97,20 @@ public class TestPolygons extends AbstractGame {
      * @param elapsedTime the elapsed time between the frames
      */
     private void updateUserInputTriangle(GameContainer gc, float elapsedTime) {
+        Polygon triangle = world.getBody(1);
         if ( gc.getInput().isKeyHeld(KeyEvent.VK_A) ) {
-            polygons.get(1).setAngle(polygons.get(1).getAngle() - 2.0f * elapsedTime);
+            triangle.setAngle(triangle.getAngle() - 2.0f * elapsedTime);
         }
         if ( gc.getInput().isKeyHeld(KeyEvent.VK_D) ) {
-            polygons.get(1).setAngle(polygons.get(1).getAngle() + 2.0f * elapsedTime);
+            triangle.setAngle(triangle.getAngle() + 2.0f * elapsedTime);
         }
         if ( gc.getInput().isKeyHeld(KeyEvent.VK_W) ) {
-            polygons.get(1).getPosition().addToX((float)Math.cos(polygons.get(1).getAngle()) * 60.0f * elapsedTime);
-            polygons.get(1).getPosition().addToY((float)Math.sin(polygons.get(1).getAngle()) * 60.0f * elapsedTime);
+            triangle.getPosition().addToX((float)Math.cos(triangle.getAngle()) * 60.0f * elapsedTime);
+            triangle.getPosition().addToY((float)Math.sin(triangle.getAngle()) * 60.0f * elapsedTime);
         }
         if ( gc.getInput().isKeyHeld(KeyEvent.VK_S) ) {
-            polygons.get(1).getPosition().addToX(-(float)Math.cos(polygons.get(1).getAngle()) * 60.0f * elapsedTime);
-            polygons.get(1).getPosition().addToY(-(float)Math.sin(polygons.get(1).getAngle()) * 60.0f * elapsedTime);
+            triangle.getPosition().addToX(-(float)Math.cos(triangle.getAngle()) * 60.0f * elapsedTime);
+            triangle.getPosition().addToY(-(float)Math.sin(triangle.getAngle()) * 60.0f * elapsedTime);
         }
     }
 
@@ -120,71 +125,10 @@ public class TestPolygons extends AbstractGame {
         updateUserInputTriangle(gc, elapsedTime);
     }
 
-    /**
-     * This method updates all the polygons
-     */
-    private void updatePolygons() {
-        for ( Polygon p : polygons ) {
-            p.update();
-        }
-    }
-
-    /**
-     * This method sets all the polygons
-     * overlap flag to false
-     */
-    private void resetPolygonsFlags() {
-        for ( Polygon p : polygons ) {
-            p.setOverlap(false);
-        }
-    }
-
-    /**
-     * This method manages the collision between two polygons
-     * It depends on the mode of collision of the program
-     * @param polygon1 the first polygon
-     * @param polygon2 the second polygon
-     */
-    private void managePolygonCollision(Polygon polygon1, Polygon polygon2) {
-        switch ( mode ) {
-            case 0: default:
-                polygon1.setOverlap(ConvexPolygonCollisions.shapeOverlapSAT(polygon1, polygon2));
-                break;
-            case 1:
-                polygon1.setOverlap(ConvexPolygonCollisions.shapeOverlapStaticSAT(polygon1, polygon2));
-                break;
-        }
-    }
-
-    /**
-     * This method manages all the collisions between the polygons,
-     * but it does it with a certain order, so the first polygon can moves
-     * the rest of polygons but the last one can't move none
-     */
-    private void managePolygonsCollisions() {
-        for ( int m = 0; m < polygons.size(); m++ ) {
-            for ( int n = m + 1; n < polygons.size(); n++ ) {
-                managePolygonCollision(polygons.get(m), polygons.get(n));
-            }
-        }
-    }
-
     @Override
     public void update(GameContainer gameContainer, float v) {
         updateUserInput(gameContainer, v);
-        updatePolygons();
-        resetPolygonsFlags();
-        managePolygonsCollisions();
-    }
-
-    /**
-     * This method draws all the polygons
-     * @param r the renderer object with all drawing methods
-     */
-    private void drawPolygons(Renderer r) {
-        for ( Polygon p : polygons ) {
-            p.drawYourSelf(r);
-        }
+        world.advance(v);
     }
 
     /**
@@ -193,16 +137,17 @@ public class TestPolygons extends AbstractGame {
      * @param r the renderer object with all drawing methods
      */
     private void drawModesHub(Renderer r) {
-        r.drawText("F1: SAT", 8, 10, (mode == 0 ? HexColors.RED : HexColors.YELLOW));
-        r.drawText("F2: SAT/STATIC", 8, 40, (mode == 1 ? HexColors.RED : HexColors.YELLOW));
-        r.drawText("F3: DIAG", 8, 70, (mode == 2 ? HexColors.RED : HexColors.YELLOW));
-        r.drawText("F4: DIAG/STATIC", 8, 100, (mode == 3 ? HexColors.RED : HexColors.YELLOW));
+        r.drawText("F1: SAT", 8, 10, (world.getMode() == CollisionWorld.Mode.SAT ? HexColors.RED : HexColors.YELLOW));
+        r.drawText("F2: SAT/STATIC", 8, 40, (world.getMode() == CollisionWorld.Mode.SAT_STATIC ? HexColors.RED : HexColors.YELLOW));
+        r.drawText("F3: DIAG", 8, 70, (world.getMode() == CollisionWorld.Mode.DIAGS ? HexColors.RED : HexColors.YELLOW));
+        r.drawText("F4: DIAG/STATIC", 8, 100, (world.getMode() == CollisionWorld.Mode.DIAGS_STATIC ? HexColors.RED : HexColors.YELLOW));
+        r.drawText("F5: SOLVER", 8, 130, (world.getMode() == CollisionWorld.Mode.SOLVER ? HexColors.RED : HexColors.YELLOW));
     }
 
     @Override
     public void render(GameContainer gameContainer, Renderer renderer) {
         renderer.clear(HexColors.ROYAL_BLUE);
-        drawPolygons(renderer);
+        polygonRenderer.draw(renderer, world);
         drawModesHub(renderer);
     }
 
@@ -0,0 +1,74 @@
+package convexPolygonCollisions;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * This class is the SIMD ProjectionKernel, it uses the Java Vector API
+ * to project as many vertices per instruction as lanes has the CPU
+ * The products and the sums are done lane by lane in float, and the
+ * minimum and maximum are exact, so the results are the same bits
+ * as the scalar kernel
+ * This class needs the module jdk.incubator.vector, so it is kept in
+ * the optional source root src/vector/java, which is compiled apart
+ * with that module, and it must only be loaded through ProjectionKernels
+ *
+ * @class VectorProjectionKernel
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+final class VectorProjectionKernel implements ProjectionKernel {
+
+    /**
+     * The preferred shape of the vectors for this CPU
+     */
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public float axisOverlap(float[] x, float[] y, int start1, int count1, int start2, int count2, float axisX, float axisY) {
+        long interval1 = project(x, y, start1, count1, axisX, axisY);
+        long interval2 = project(x, y, start2, count2, axisX, axisY);
+        float minR1 = Float.intBitsToFloat((int) (interval1 >>> 32));
+        float maxR1 = Float.intBitsToFloat((int) interval1);
+        float minR2 = Float.intBitsToFloat((int) (interval2 >>> 32));
+        float maxR2 = Float.intBitsToFloat((int) interval2);
+        return Float.min(maxR1, maxR2) - Float.max(minR1, minR2);
+    }
+
+    /**
+     * This method projects the vertices of one body over an axis
+     * @param x the x coordinates of the vertices
+     * @param y the y coordinates of the vertices
+     * @param start the first vertex of the body
+     * @param count the number of vertices of the body
+     * @param axisX the x coordinate of the axis
+     * @param axisY the y coordinate of the axis
+     * @return the bits of the minimum in the high half and of the maximum in the low half
+     */
+    private static long project(float[] x, float[] y, int start, int count, float axisX, float axisY) {
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        int i = 0;
+        int upper = SPECIES.loopBound(count);
+        if ( upper > 0 ) {
+            FloatVector vMin = FloatVector.broadcast(SPECIES, Float.MAX_VALUE);
+            FloatVector vMax = FloatVector.broadcast(SPECIES, -Float.MAX_VALUE);
+            for ( ; i < upper; i += SPECIES.length() ) {
+                FloatVector vx = FloatVector.fromArray(SPECIES, x, start + i);
+                FloatVector vy = FloatVector.fromArray(SPECIES, y, start + i);
+                FloatVector q = vx.mul(axisX).add(vy.mul(axisY));
+                vMin = vMin.min(q);
+                vMax = vMax.max(q);
+            }
+            min = vMin.reduceLanes(VectorOperators.MIN);
+            max = vMax.reduceLanes(VectorOperators.MAX);
+        }
+        for ( ; i < count; i++ ) {
+            float q = (x[start + i] * axisX + y[start + i] * axisY);
+            min = Float.min(min, q);
+            max = Float.max(max, q);
+        }
+        return ((long) Float.floatToRawIntBits(min) << 32) | (Float.floatToRawIntBits(max) & 0xFFFFFFFFL);
+    }
+}